@@ -1,6 +1,27 @@
 package de.unihd.dbs.geoparser;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +31,7 @@ import de.unihd.dbs.geoparser.core.LinkedToponym;
 import de.unihd.dbs.geoparser.core.NamedEntity;
 import de.unihd.dbs.geoparser.core.ResolvedToponym;
 import de.unihd.dbs.geoparser.core.Toponym;
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
 import de.unihd.dbs.geoparser.util.GeoparserUtil;
 import edu.stanford.nlp.pipeline.AnnotationPipeline;
 
@@ -18,18 +40,35 @@ import edu.stanford.nlp.pipeline.AnnotationPipeline;
  * <p>
  * The geoparser allows to recognize toponyms in unstructured text, link them to one or more gazetteer entries,
  * disambiguate them to unambiguous spatial references, and spatially infer the location of unresolved toponyms.
+ * <p>
+ * A geoparser processes one document at a time on the calling thread. Multiple documents can be geoparsed in parallel
+ * with {@link #geoparseAll(Iterable, Supplier, int, boolean)}, where each worker thread uses its own geoparser, or with a
+ * {@link PipelinedGeoparser}, which runs the geoparsing steps of different documents concurrently.
  *
  * @author lrichter
  *
  */
-public class Geoparser {
+public class Geoparser implements AutoCloseable {
 
 	private static final Logger logger = LoggerFactory.getLogger(Geoparser.class);
 
+	/**
+	 * The geoparsing steps in the order they are run.
+	 */
+	public enum Stage {
+		RECOGNITION, LINKING, DISAMBIGUATION, SPATIAL_INFERENCE
+	}
+
+	/**
+	 * Number of documents per worker that are read from the input in advance of the geoparsing results being consumed.
+	 */
+	public static final int PENDING_DOCUMENTS_PER_WORKER = 4;
+
 	private final AnnotationPipeline recognitionPipeline;
 	private final AnnotationPipeline linkingPipeline;
 	private final AnnotationPipeline disambiguationPipeline;
 	private final AnnotationPipeline spatialInferencePipeline;
+	private final List<AutoCloseable> resources;
 
 	/**
 	 * Create a {@link Geoparser} with the given {@link AnnotationPipeline}s that represent the respective geoparsing
@@ -39,13 +78,17 @@ public class Geoparser {
 	 * @param linkingPipeline pipeline for linking toponyms to matching gazetteer entries
 	 * @param disambiguationPipeline pipeline for disambiguating toponyms to unique spatial references
 	 * @param spatialInferencePipeline pipeline for inferring spatial location of unresolved toponyms
+	 * @param resources resources used by the pipelines that are owned by the geoparser (e.g., {@link Gazetteer}
+	 *            instances), which are closed by {@link #close()}
 	 */
 	public Geoparser(final AnnotationPipeline recognitionPipeline, final AnnotationPipeline linkingPipeline,
-			final AnnotationPipeline disambiguationPipeline, final AnnotationPipeline spatialInferencePipeline) {
+			final AnnotationPipeline disambiguationPipeline, final AnnotationPipeline spatialInferencePipeline,
+			final AutoCloseable... resources) {
 		this.recognitionPipeline = recognitionPipeline;
 		this.linkingPipeline = linkingPipeline;
 		this.disambiguationPipeline = disambiguationPipeline;
 		this.spatialInferencePipeline = spatialInferencePipeline;
+		this.resources = new ArrayList<>(Arrays.asList(resources));
 	}
 
 	/**
@@ -124,14 +167,220 @@ public class Geoparser {
 	}
 
 	/**
+	 * Run all geoparsing steps on the given document.
 	 *
 	 * @param document the document to be parsed.
 	 */
 	public void geoparse(final Document document) {
-		recognitionPipeline.annotate(document);
-		linkingPipeline.annotate(document);
-		disambiguationPipeline.annotate(document);
-		spatialInferencePipeline.annotate(document);
+		for (final Stage stage : Stage.values()) {
+			annotate(stage, document);
+		}
+	}
+
+	/**
+	 * Run a single geoparsing step on the given document. The steps must be run in the order of {@link Stage}.
+	 *
+	 * @param stage the geoparsing step.
+	 * @param document the document to be parsed; annotations are added during processing.
+	 */
+	public void annotate(final Stage stage, final Document document) {
+		switch (stage) {
+		case RECOGNITION:
+			recognitionPipeline.annotate(document);
+			break;
+		case LINKING:
+			linkingPipeline.annotate(document);
+			break;
+		case DISAMBIGUATION:
+			disambiguationPipeline.annotate(document);
+			break;
+		case SPATIAL_INFERENCE:
+			spatialInferencePipeline.annotate(document);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown stage " + stage);
+		}
+	}
+
+	/**
+	 * Geoparse multiple documents in parallel on a pool of worker threads.
+	 * <p>
+	 * Each worker creates its own {@link Geoparser} with the given factory before geoparsing its first document, so
+	 * pipelines and gazetteer sessions are never shared between threads. Hence, the factory must create new annotators
+	 * and {@link Gazetteer} instances on each call (expensive language models can still be shared, if they are
+	 * thread-safe). The geoparsers are closed when the returned stream is exhausted or closed.
+	 * <p>
+	 * The documents are read lazily: at most {@link #PENDING_DOCUMENTS_PER_WORKER} documents per worker are read ahead
+	 * of the consumer of the returned stream. If geoparsing a document fails, the failure is rethrown by the stream.
+	 * <p>
+	 * <b>Note:</b> Close the returned stream if it is not consumed completely, otherwise the workers are kept alive.
+	 *
+	 * @param documents the documents to be parsed; annotations are added during processing.
+	 * @param geoparserFactory creates the geoparser of a worker.
+	 * @param workerCount the number of worker threads.
+	 * @param ordered if <code>true</code>, the documents are returned in input order, otherwise in the order they are
+	 *            completed.
+	 * @return the geoparsed documents.
+	 */
+	public static Stream<Document> geoparseAll(final Iterable<Document> documents,
+			final Supplier<Geoparser> geoparserFactory, final int workerCount, final boolean ordered) {
+		Objects.requireNonNull(documents);
+		Objects.requireNonNull(geoparserFactory);
+		if (workerCount < 1) {
+			throw new IllegalArgumentException("`workerCount` must be a positive number!");
+		}
+
+		final BatchIterator iterator = new BatchIterator(documents.iterator(), geoparserFactory, workerCount, ordered);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(iterator,
+						Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0)), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * Geoparse multiple documents in parallel on a pool of worker threads as described for
+	 * {@link #geoparseAll(Iterable, Supplier, int, boolean)}. The input stream is closed with the returned stream.
+	 *
+	 * @param documents the documents to be parsed; annotations are added during processing.
+	 * @param geoparserFactory creates the geoparser of a worker.
+	 * @param workerCount the number of worker threads.
+	 * @param ordered if <code>true</code>, the documents are returned in input order, otherwise in the order they are
+	 *            completed.
+	 * @return the geoparsed documents.
+	 */
+	public static Stream<Document> geoparseAll(final Stream<Document> documents,
+			final Supplier<Geoparser> geoparserFactory, final int workerCount, final boolean ordered) {
+		Objects.requireNonNull(documents);
+		return geoparseAll(documents::iterator, geoparserFactory, workerCount, ordered).onClose(documents::close);
+	}
+
+	/**
+	 * Close the resources owned by the geoparser. Failures are logged, but do not prevent closing the other resources.
+	 */
+	@Override
+	public void close() {
+		for (final AutoCloseable resource : resources) {
+			try {
+				resource.close();
+			}
+			catch (final Exception e) {
+				logger.warn("Failed to close geoparser resource " + resource, e);
+			}
+		}
+		resources.clear();
+	}
+
+	/**
+	 * Iterator over documents that are geoparsed by a pool of workers.
+	 */
+	private static class BatchIterator implements Iterator<Document>, AutoCloseable {
+		private final Iterator<Document> documents;
+		private final Supplier<Geoparser> geoparserFactory;
+		private final boolean ordered;
+		private final int maxPendingDocuments;
+		private final ExecutorService executor;
+		private final CompletionService<Document> completionService;
+		private final Deque<Future<Document>> pendingDocuments = new ArrayDeque<>();
+		private final List<Geoparser> geoparsers = Collections.synchronizedList(new ArrayList<>());
+		private final ThreadLocal<Geoparser> workerGeoparser = new ThreadLocal<>();
+		private boolean closed = false;
+
+		private BatchIterator(final Iterator<Document> documents, final Supplier<Geoparser> geoparserFactory,
+				final int workerCount, final boolean ordered) {
+			this.documents = documents;
+			this.geoparserFactory = geoparserFactory;
+			this.ordered = ordered;
+			this.maxPendingDocuments = workerCount * PENDING_DOCUMENTS_PER_WORKER;
+			this.executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+				final Thread thread = new Thread(runnable, "geoparser-worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			// only unordered iteration takes finished futures from the completion service, otherwise its queue would
+			// keep all of them
+			this.completionService = ordered ? null : new ExecutorCompletionService<>(executor);
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!closed && pendingDocuments.size() < maxPendingDocuments && documents.hasNext()) {
+				final Document document = documents.next();
+				final Callable<Document> task = () -> geoparse(document);
+				pendingDocuments.add(ordered ? executor.submit(task) : completionService.submit(task));
+			}
+			if (pendingDocuments.isEmpty()) {
+				close();
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public Document next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			try {
+				final Future<Document> future;
+				if (ordered) {
+					future = pendingDocuments.poll();
+				}
+				else {
+					future = completionService.take();
+					pendingDocuments.remove(future);
+				}
+				return future.get();
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new RuntimeException("Interrupted while waiting for geoparsing workers!", e);
+			}
+			catch (final ExecutionException e) {
+				close();
+				throw new RuntimeException("Geoparsing failed!", e.getCause());
+			}
+		}
+
+		private Document geoparse(final Document document) {
+			Geoparser geoparser = workerGeoparser.get();
+			if (geoparser == null) {
+				geoparser = geoparserFactory.get();
+				geoparsers.add(geoparser);
+				workerGeoparser.set(geoparser);
+			}
+			geoparser.geoparse(document);
+			return document;
+		}
+
+		/**
+		 * Stop the workers and close their geoparsers. Documents that are not yet geoparsed are discarded.
+		 */
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			pendingDocuments.forEach(future -> future.cancel(true));
+			pendingDocuments.clear();
+			executor.shutdownNow();
+			try {
+				// wait for the workers, so geoparsers are not closed while they are still in use if possible
+				if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					logger.warn("Geoparsing workers did not terminate, closing their geoparsers anyway");
+				}
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (geoparsers) {
+				geoparsers.forEach(Geoparser::close);
+				geoparsers.clear();
+			}
+		}
 	}
 
-}
\ No newline at end of file
+}
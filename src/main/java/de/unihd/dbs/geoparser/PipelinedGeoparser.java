@@ -0,0 +1,375 @@
+package de.unihd.dbs.geoparser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.unihd.dbs.geoparser.Geoparser.Stage;
+import de.unihd.dbs.geoparser.core.Document;
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+
+/**
+ * Geoparser that runs the geoparsing steps ({@link Stage}s) of multiple documents concurrently.
+ * <p>
+ * Each stage runs on its own threads and the stages are connected by bounded queues, i.e., while one document is
+ * linked, the next document can already be recognized. If a stage is slower than its predecessor, the queue in between
+ * fills up and the predecessor blocks (backpressure). Additionally, documents are only read while less than
+ * {@link #getMaxDocumentsInProcess()} documents are in process or wait to be returned, so the number of buffered
+ * documents is also bounded if the documents are returned in input order and a single document is slow. Since the
+ * stages have different costs (e.g., recognition is CPU-bound, while linking and disambiguation mostly wait for the
+ * gazetteer database), the number of threads can be configured per stage.
+ * <p>
+ * Each thread creates its own {@link Geoparser} with the given factory before processing its first document, and only
+ * runs the step of its stage. Hence, pipelines and gazetteer sessions are never shared between threads, and the
+ * factory must create new annotators and {@link Gazetteer} instances on each call (expensive language models can still
+ * be shared, if they are thread-safe). The geoparser of a thread is closed when the thread terminates.
+ *
+ * @author lrichter
+ *
+ */
+public class PipelinedGeoparser {
+
+	private static final Logger logger = LoggerFactory.getLogger(PipelinedGeoparser.class);
+
+	/**
+	 * Default capacity of the queues between the stages.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	private final Supplier<Geoparser> geoparserFactory;
+	private final int[] threadCounts;
+	private final int queueCapacity;
+
+	/**
+	 * Create a {@link PipelinedGeoparser} with {@link #DEFAULT_QUEUE_CAPACITY}.
+	 *
+	 * @param geoparserFactory creates the geoparser of a thread.
+	 * @param recognitionThreads the number of threads for {@link Stage#RECOGNITION}.
+	 * @param linkingThreads the number of threads for {@link Stage#LINKING}.
+	 * @param disambiguationThreads the number of threads for {@link Stage#DISAMBIGUATION}.
+	 * @param spatialInferenceThreads the number of threads for {@link Stage#SPATIAL_INFERENCE}.
+	 */
+	public PipelinedGeoparser(final Supplier<Geoparser> geoparserFactory, final int recognitionThreads,
+			final int linkingThreads, final int disambiguationThreads, final int spatialInferenceThreads) {
+		this(geoparserFactory, recognitionThreads, linkingThreads, disambiguationThreads, spatialInferenceThreads,
+				DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Create a {@link PipelinedGeoparser}.
+	 *
+	 * @param geoparserFactory creates the geoparser of a thread.
+	 * @param recognitionThreads the number of threads for {@link Stage#RECOGNITION}.
+	 * @param linkingThreads the number of threads for {@link Stage#LINKING}.
+	 * @param disambiguationThreads the number of threads for {@link Stage#DISAMBIGUATION}.
+	 * @param spatialInferenceThreads the number of threads for {@link Stage#SPATIAL_INFERENCE}.
+	 * @param queueCapacity the maximum number of documents waiting for each stage.
+	 */
+	public PipelinedGeoparser(final Supplier<Geoparser> geoparserFactory, final int recognitionThreads,
+			final int linkingThreads, final int disambiguationThreads, final int spatialInferenceThreads,
+			final int queueCapacity) {
+		Objects.requireNonNull(geoparserFactory);
+		this.geoparserFactory = geoparserFactory;
+		this.threadCounts = new int[] { recognitionThreads, linkingThreads, disambiguationThreads,
+				spatialInferenceThreads };
+		for (final int threadCount : threadCounts) {
+			if (threadCount < 1) {
+				throw new IllegalArgumentException("The number of threads per stage must be a positive number!");
+			}
+		}
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("`queueCapacity` must be a positive number!");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Get the number of threads of a stage.
+	 *
+	 * @param stage the stage.
+	 * @return the number of threads.
+	 */
+	public int getThreadCount(final Stage stage) {
+		return threadCounts[stage.ordinal()];
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Get the maximum number of documents that have been read but not yet returned, i.e., the capacity of all queues.
+	 *
+	 * @return the maximum number of documents in process.
+	 */
+	public int getMaxDocumentsInProcess() {
+		return (threadCounts.length + 1) * queueCapacity;
+	}
+
+	/**
+	 * Geoparse multiple documents. The documents are read by a separate thread as soon as there is space in the queue
+	 * of the first stage. If geoparsing a document fails, the failure is rethrown by the stream.
+	 * <p>
+	 * <b>Note:</b> Close the returned stream if it is not consumed completely, otherwise the threads are kept alive.
+	 *
+	 * @param documents the documents to be parsed; annotations are added during processing.
+	 * @param ordered if <code>true</code>, the documents are returned in input order, otherwise in the order they are
+	 *            completed.
+	 * @return the geoparsed documents.
+	 */
+	public Stream<Document> geoparseAll(final Iterable<Document> documents, final boolean ordered) {
+		Objects.requireNonNull(documents);
+		final PipelineIterator iterator = new PipelineIterator(documents.iterator(), ordered);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(iterator,
+						Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0)), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * Geoparse multiple documents as described for {@link #geoparseAll(Iterable, boolean)}. The input stream is closed
+	 * with the returned stream.
+	 *
+	 * @param documents the documents to be parsed; annotations are added during processing.
+	 * @param ordered if <code>true</code>, the documents are returned in input order, otherwise in the order they are
+	 *            completed.
+	 * @return the geoparsed documents.
+	 */
+	public Stream<Document> geoparseAll(final Stream<Document> documents, final boolean ordered) {
+		Objects.requireNonNull(documents);
+		return geoparseAll(documents::iterator, ordered).onClose(documents::close);
+	}
+
+	/**
+	 * A document passed between the stages, numbered by its input position. {@link #END} marks the end of the input.
+	 */
+	private static class Item {
+		private static final Item END = new Item(-1, null);
+
+		private final long sequenceNumber;
+		private final Document document;
+		private Throwable failure;
+
+		private Item(final long sequenceNumber, final Document document) {
+			this.sequenceNumber = sequenceNumber;
+			this.document = document;
+		}
+	}
+
+	/**
+	 * Iterator over documents that are geoparsed by the stage threads.
+	 */
+	private class PipelineIterator implements Iterator<Document>, AutoCloseable {
+		private final boolean ordered;
+		// the queue in front of each stage and the output queue
+		private final List<BlockingQueue<Item>> queues = new ArrayList<>();
+		private final List<AtomicInteger> runningThreads = new ArrayList<>();
+		private final List<ExecutorService> executors = new ArrayList<>();
+		private final Map<Long, Item> completedItems = new HashMap<>();
+		// permits for reading documents; released when a document is returned, so the reorder buffer is bounded, too
+		private final Semaphore documentPermits = new Semaphore(getMaxDocumentsInProcess());
+		private long nextSequenceNumber = 0;
+		private boolean endReached = false;
+		private volatile boolean closed = false;
+
+		private PipelineIterator(final Iterator<Document> documents, final boolean ordered) {
+			this.ordered = ordered;
+			final Stage[] stages = Stage.values();
+			for (final Stage stage : stages) {
+				queues.add(new ArrayBlockingQueue<>(queueCapacity));
+				runningThreads.add(new AtomicInteger(getThreadCount(stage)));
+			}
+			queues.add(new ArrayBlockingQueue<>(queueCapacity));
+
+			// the threads are started after initializing the queues, so they do not need to be synchronized
+			final ExecutorService reader = createExecutor(1, "geoparser-reader");
+			reader.execute(() -> read(documents));
+			for (final Stage stage : stages) {
+				final ExecutorService executor = createExecutor(getThreadCount(stage),
+						"geoparser-" + stage.name().toLowerCase().replace('_', '-'));
+				for (int i = 0; i < getThreadCount(stage); i++) {
+					executor.execute(() -> process(stage));
+				}
+			}
+		}
+
+		private ExecutorService createExecutor(final int threadCount, final String threadName) {
+			final ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+				final Thread thread = new Thread(runnable, threadName);
+				thread.setDaemon(true);
+				return thread;
+			});
+			executors.add(executor);
+			return executor;
+		}
+
+		private void read(final Iterator<Document> documents) {
+			final BlockingQueue<Item> queue = queues.get(0);
+			try {
+				long sequenceNumber = 0;
+				try {
+					while (true) {
+						documentPermits.acquire();
+						if (!documents.hasNext()) {
+							break;
+						}
+						queue.put(new Item(sequenceNumber++, documents.next()));
+					}
+				}
+				catch (final RuntimeException e) {
+					// the permit acquired for the failed document is used for the failure
+					final Item item = new Item(sequenceNumber, null);
+					item.failure = e;
+					queue.put(item);
+				}
+				for (int i = 0; i < threadCounts[0]; i++) {
+					queue.put(Item.END);
+				}
+			}
+			catch (final InterruptedException e) {
+				// closed
+			}
+		}
+
+		private void process(final Stage stage) {
+			final BlockingQueue<Item> input = queues.get(stage.ordinal());
+			final BlockingQueue<Item> output = queues.get(stage.ordinal() + 1);
+			Geoparser geoparser = null;
+			try {
+				Item item;
+				while ((item = input.take()) != Item.END) {
+					// failed documents are passed on to the output without processing
+					if (item.failure == null) {
+						try {
+							if (geoparser == null) {
+								geoparser = geoparserFactory.get();
+							}
+							geoparser.annotate(stage, item.document);
+						}
+						catch (final RuntimeException | Error e) {
+							// the failure must not stop the thread, otherwise the end of the input is never signaled
+							item.failure = e;
+						}
+					}
+					// annotation pipelines clear the interrupted flag, so it cannot be relied on for stopping
+					if (closed) {
+						return;
+					}
+					output.put(item);
+				}
+
+				// the last thread of the stage signals the end of the input to all threads of the next stage
+				if (runningThreads.get(stage.ordinal()).decrementAndGet() == 0) {
+					final int nextThreadCount = stage.ordinal() + 1 < threadCounts.length
+							? threadCounts[stage.ordinal() + 1] : 1;
+					for (int i = 0; i < nextThreadCount; i++) {
+						output.put(Item.END);
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				// closed
+			}
+			finally {
+				if (geoparser != null) {
+					geoparser.close();
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (closed) {
+				return false;
+			}
+
+			try {
+				while (!endReached && !isNextAvailable()) {
+					final Item item = queues.get(queues.size() - 1).take();
+					if (item == Item.END) {
+						endReached = true;
+					}
+					else {
+						completedItems.put(item.sequenceNumber, item);
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new RuntimeException("Interrupted while waiting for geoparsing stages!", e);
+			}
+
+			if (!isNextAvailable()) {
+				close();
+				return false;
+			}
+			return true;
+		}
+
+		private boolean isNextAvailable() {
+			return ordered ? completedItems.containsKey(nextSequenceNumber) : !completedItems.isEmpty();
+		}
+
+		@Override
+		public Document next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			final Item item = ordered ? completedItems.remove(nextSequenceNumber)
+					: completedItems.remove(completedItems.keySet().iterator().next());
+			nextSequenceNumber++;
+			documentPermits.release();
+			if (item.failure != null) {
+				close();
+				throw new RuntimeException("Geoparsing failed!", item.failure);
+			}
+			return item.document;
+		}
+
+		/**
+		 * Stop the threads, which close their geoparsers. Documents that are not yet geoparsed are discarded.
+		 */
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			executors.forEach(ExecutorService::shutdownNow);
+			try {
+				for (final ExecutorService executor : executors) {
+					if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+						logger.warn("Geoparsing threads did not terminate");
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			completedItems.clear();
+		}
+	}
+
+}
@@ -4,18 +4,38 @@ import de.unihd.dbs.geoparser.core.GeoparserConfig;
 import de.unihd.dbs.geoparser.core.GeoparserConfig.UnknownConfigLabelException;
 import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
 import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceRanking;
 import de.unihd.dbs.geoparser.gazetteer.types.PlaceTypes;
 import de.unihd.dbs.geoparser.process.disambiguation.*;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.*;
+import de.unihd.dbs.geoparser.process.linking.CandidatePruningAnnotator;
 import de.unihd.dbs.geoparser.process.linking.GazetteerExactToponymLinker;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
+import de.unihd.dbs.geoparser.process.recognition.CachingToponymRecognizer;
+import de.unihd.dbs.geoparser.process.recognition.EnsembleToponymRecognizer;
+import de.unihd.dbs.geoparser.process.recognition.EnsembleToponymRecognizer.MergeStrategy;
 import de.unihd.dbs.geoparser.process.recognition.GazetteerLookupRecognizer;
+import de.unihd.dbs.geoparser.process.recognition.GazetteerLookupRecognizer.CandidateGenerationMode;
 import de.unihd.dbs.geoparser.process.recognition.OpenNLPExtractor;
+import de.unihd.dbs.geoparser.process.recognition.RecognitionResultCache;
+import de.unihd.dbs.geoparser.process.recognition.SharedPOSTaggerAnnotator;
 import de.unihd.dbs.geoparser.process.recognition.StanfordNER;
 import de.unihd.dbs.geoparser.process.recognition.ToponymRecognitionAnnotator;
+import de.unihd.dbs.geoparser.process.spatialinference.ContainmentSpatialInference;
+import de.unihd.dbs.geoparser.process.spatialinference.SpatialInferenceAnnotator;
+import de.unihd.dbs.geoparser.process.util.AdminContainmentIndex;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
+import de.unihd.dbs.geoparser.util.StopWordProvider;
+import edu.stanford.nlp.io.RuntimeIOException;
 import edu.stanford.nlp.pipeline.*;
 import edu.stanford.nlp.pipeline.TokenizerAnnotator.TokenizerType;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This factory aids in creating annotation pipelines useful for the geoparsing process.
@@ -25,6 +45,11 @@ import java.io.IOException;
 // Refactoring lrichter 16.03.2017: this factory is really clumsy to use. should rework this!! quite in demo state...
 public class GeoparsingPipelineFactory extends AnnotationPipeline {
 
+    // candidates are ranked by the gazetteer, so the most plausible ones are kept
+    public static final int MAX_LINKING_MATCHES = 1000;
+    // graph- and distance-based disambiguators are quadratic in the number of candidates of a document
+    public static final int MAX_DISAMBIGUATION_CANDIDATES = 20;
+    public static final double MIN_RELATIVE_CANDIDATE_SCORE = 0.1;
     public static final String CONFIG_STANFORD_POS_MODEL_LABEL = "stanford.pos.model.path";
 
     public static AnnotationPipeline buildCommonPreprocessingPipeline(final GeoparserConfig config) {
@@ -61,12 +86,56 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
         return pipeline;
     }
 
+    /**
+     * Build a gazetteer lookup recognition pipeline that derives lookup candidates from orthographic features instead
+     * of POS tags. Considerably faster than {@link #buildGazetteerLookupRecognizerPipeline}, but less precise.
+     */
+    public static AnnotationPipeline buildOrthographicGazetteerLookupRecognizerPipeline(final GeoparserConfig config,
+                                                                                       final Gazetteer gazetteer)
+            throws UnknownConfigLabelException, IOException, URISyntaxException {
+        final AnnotationPipeline pipeline = buildCommonPreprocessingPipeline(config);
+        pipeline.addAnnotator(buildOrthographicGazetteerLookupRecognitionAnnotator(gazetteer,
+                new StopWordProvider(config).getStopWordsForLanguage("english")));
+
+        return pipeline;
+    }
+
+    /**
+     * Build a recognition pipeline that runs Stanford NER, OpenNLP and the gazetteer lookup recognizer concurrently and
+     * merges their results according to the given strategy. The recognizers are prioritized in the given order. The
+     * gazetteer lookup recognizer runs on the calling thread, since the gazetteer must not be shared between threads.
+     */
+    public static AnnotationPipeline buildEnsembleRecognitionPipeline(final GeoparserConfig config,
+                                                                      final Gazetteer gazetteer,
+                                                                      final MergeStrategy mergeStrategy,
+                                                                      final int minVotes)
+            throws UnknownConfigLabelException, IOException {
+        final AnnotationPipeline pipeline = buildCommonPreprocessingPipeline(config);
+        pipeline.addAnnotator(buildStanfordPOSAnnotator(config));
+        pipeline.addAnnotator(new ToponymRecognitionAnnotator(new EnsembleToponymRecognizer(
+                Arrays.asList(new StanfordNER(config), new OpenNLPExtractor(config),
+                        new GazetteerLookupRecognizer(gazetteer)), mergeStrategy, minVotes)));
+
+        return pipeline;
+    }
+
     public static AnnotationPipeline buildGazetteerLookupRecognizerAndExactLinkingPipeline(final GeoparserConfig config,
                                                                                            final Gazetteer gazetteer) throws UnknownConfigLabelException {
         final AnnotationPipeline pipeline = buildCommonPreprocessingPipeline(config);
         pipeline.addAnnotator(buildStanfordPOSAnnotator(config));
         pipeline.addAnnotator(buildGazetteerLookupRecognitionAnnotator(gazetteer));
-        pipeline.addAnnotator(buildGazetteerExactToponymLinkerAnnotator(gazetteer, 1000));
+        pipeline.addAnnotator(buildGazetteerExactToponymLinkerAnnotator(gazetteer, MAX_LINKING_MATCHES));
+
+        return pipeline;
+    }
+
+    /**
+     * Build the spatial inference pipeline of a {@link de.unihd.dbs.geoparser.Geoparser}, which infers the location of
+     * toponyms that were not resolved by the disambiguation from the administrative containment of the resolved ones.
+     */
+    public static AnnotationPipeline buildSpatialInferencePipeline(final Gazetteer gazetteer) {
+        final AnnotationPipeline pipeline = new AnnotationPipeline();
+        pipeline.addAnnotator(buildContainmentSpatialInferenceAnnotator(gazetteer));
 
         return pipeline;
     }
@@ -77,7 +146,7 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
         final PlaceType adminType = (PlaceType) gazetteer.getType(PlaceTypes.ADMINISTRATIVE_DIVISION.typeName);
         pipeline.addAnnotator(buildStanfordPOSAnnotator(config));
         pipeline.addAnnotator(buildGazetteerLookupRecognitionAnnotator(gazetteer));
-        pipeline.addAnnotator(buildGazetteerExactToponymLinkerAnnotator(gazetteer, 1000));
+        pipeline.addAnnotator(buildGazetteerExactToponymLinkerAnnotator(gazetteer, MAX_LINKING_MATCHES));
 
         switch (disambiguation) {
             case "FMTD":
@@ -90,14 +159,28 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
                 pipeline.addAnnotator(buildHighestPopulationDisambiguationAnnotator());
                 break;
             case "ND":
+                pipeline.addAnnotator(buildCandidatePruningAnnotator(gazetteer, MAX_DISAMBIGUATION_CANDIDATES,
+                        MIN_RELATIVE_CANDIDATE_SCORE));
                 pipeline.addAnnotator(buildNaiveDisambiguator(gazetteer));
                 break;
             case "WLND":
+                pipeline.addAnnotator(buildCandidatePruningAnnotator(gazetteer, MAX_DISAMBIGUATION_CANDIDATES,
+                        MIN_RELATIVE_CANDIDATE_SCORE));
                 pipeline.addAnnotator(buildAdvancedWikipediaLocationNetworkDisambiguator(gazetteer));
                 break;
             case "PDWD":
+                pipeline.addAnnotator(buildCandidatePruningAnnotator(gazetteer, MAX_DISAMBIGUATION_CANDIDATES,
+                        MIN_RELATIVE_CANDIDATE_SCORE));
                 pipeline.addAnnotator(buildPopulationDistanceDisambiguator(gazetteer));
                 break;
+            case "LSD":
+                pipeline.addAnnotator(buildCandidatePruningAnnotator(gazetteer, MAX_DISAMBIGUATION_CANDIDATES,
+                        MIN_RELATIVE_CANDIDATE_SCORE));
+                pipeline.addAnnotator(buildLinearScoringDisambiguator(gazetteer, adminType, null));
+                break;
+            case "SMD":
+                pipeline.addAnnotator(buildSpatialMinimalityDisambiguationAnnotator());
+                break;
         }
 
         return pipeline;
@@ -111,12 +194,21 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
         return new TokenizerAnnotator(false, tokenizerType);
     }
 
-    public static Annotator buildStanfordPOSAnnotator(final GeoparserConfig config) throws UnknownConfigLabelException {
+    public static SharedPOSTaggerAnnotator buildStanfordPOSAnnotator(final GeoparserConfig config)
+            throws UnknownConfigLabelException {
         return buildStanfordPOSAnnotator(config.getConfigStringByLabel(CONFIG_STANFORD_POS_MODEL_LABEL));
     }
 
-    public static Annotator buildStanfordPOSAnnotator(final String POSmodelPath) {
-        return new POSTaggerAnnotator(POSmodelPath, false);
+    /**
+     * Build a POS annotator sharing its tagger model with all other POS annotators using the same model. The annotator
+     * holds a reference to the model until it is closed.
+     */
+    public static SharedPOSTaggerAnnotator buildStanfordPOSAnnotator(final String POSmodelPath) {
+        try {
+            return SharedPOSTaggerAnnotator.create(POSmodelPath);
+        } catch (final IOException e) {
+            throw new RuntimeIOException(e);
+        }
     }
 
     public static Annotator buildStanfordNERAnnotator(final String NERmodelPath, final String NERpropPath)
@@ -129,6 +221,15 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
         return new ToponymRecognitionAnnotator(new StanfordNER(config));
     }
 
+    public static ToponymRecognitionAnnotator buildCachingStanfordNERAnnotator(final GeoparserConfig config,
+                                                                               final RecognitionResultCache cache)
+            throws UnknownConfigLabelException, IOException {
+        final String configurationKey = StanfordNER.class.getName() + ":"
+                + config.getConfigStringByLabel(StanfordNER.CONFIG_STANFORD_NER_MODEL_PATH_LABEL);
+        return new ToponymRecognitionAnnotator(
+                new CachingToponymRecognizer(new StanfordNER(config), cache, configurationKey));
+    }
+
     public static ToponymRecognitionAnnotator buildOpenNLPToponymRecognitionAnnotator(final GeoparserConfig config)
             throws UnknownConfigLabelException, IOException {
         return new ToponymRecognitionAnnotator(new OpenNLPExtractor(config));
@@ -138,9 +239,19 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
         return new ToponymRecognitionAnnotator(new GazetteerLookupRecognizer(gazetteer));
     }
 
+    public static ToponymRecognitionAnnotator buildOrthographicGazetteerLookupRecognitionAnnotator(
+            final Gazetteer gazetteer, final Set<String> stopWords) {
+        final GazetteerLookupRecognizer recognizer = new GazetteerLookupRecognizer(gazetteer,
+                CandidateGenerationMode.ORTHOGRAPHIC);
+        recognizer.setStopWords(stopWords);
+        return new ToponymRecognitionAnnotator(recognizer);
+    }
+
     public static ToponymLinkingAnnotator buildGazetteerExactToponymLinkerAnnotator(final Gazetteer gazetteer,
                                                                                     final int maxMatches) {
-        return new ToponymLinkingAnnotator(new GazetteerExactToponymLinker(gazetteer, maxMatches));
+        final GazetteerExactToponymLinker linker = new GazetteerExactToponymLinker(gazetteer, maxMatches);
+        linker.setCandidateRanking(PlaceRanking.createDefault(gazetteer));
+        return new ToponymLinkingAnnotator(linker, true);
     }
 
     public static ToponymDisambiguationAnnotator buildFirstMatchDisambiguationAnnotator() {
@@ -156,6 +267,10 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
         return new ToponymDisambiguationAnnotator(new HighestAdminLevelDisambiguator(adminLevelRootType));
     }
 
+    public static ToponymDisambiguationAnnotator buildSpatialMinimalityDisambiguationAnnotator() {
+        return new ToponymDisambiguationAnnotator(new SpatialMinimalityDisambiguator());
+    }
+
     public static ToponymDisambiguationAnnotator buildNaiveDisambiguator(final Gazetteer gazetteer) {
         return new ToponymDisambiguationAnnotator(new NaiveDisambiguator(gazetteer));
     }
@@ -167,4 +282,74 @@ public class GeoparsingPipelineFactory extends AnnotationPipeline {
     public static ToponymDisambiguationAnnotator buildPopulationDistanceDisambiguator(final Gazetteer gazetteer) {
         return new ToponymDisambiguationAnnotator(new PopulationDistanceWeightDisambiguator(gazetteer));
     }
+
+    public static ToponymDisambiguationAnnotator buildNaiveDisambiguator(final Gazetteer gazetteer,
+                                                                         final WikipediaLocationNetwork network) {
+        return new ToponymDisambiguationAnnotator(new NaiveDisambiguator(gazetteer, network));
+    }
+
+    public static ToponymDisambiguationAnnotator buildAdvancedWikipediaLocationNetworkDisambiguator(
+            final Gazetteer gazetteer, final WikipediaLocationNetwork network) {
+        return new ToponymDisambiguationAnnotator(new WikipediaLocationNetworkDisambiguator(gazetteer, network));
+    }
+
+    public static ToponymDisambiguationAnnotator buildPopulationDistanceDisambiguator(final Gazetteer gazetteer,
+                                                                                      final WikipediaLocationNetwork network) {
+        return new ToponymDisambiguationAnnotator(new PopulationDistanceWeightDisambiguator(gazetteer, network));
+    }
+
+    /**
+     * Build a {@link LinearScoringDisambiguator} combining all available candidate features.
+     *
+     * @param gazetteer          the gazetteer to fetch WLN edges from, if no network is given.
+     * @param adminLevelRootType the root of the administrative hierarchy.
+     * @param network            the in-memory WLN. May be <code>null</code>.
+     * @return the annotator.
+     */
+    public static ToponymDisambiguationAnnotator buildLinearScoringDisambiguator(final Gazetteer gazetteer,
+                                                                                 final PlaceType adminLevelRootType,
+                                                                                 final WikipediaLocationNetwork network) {
+        final Map<CandidateFeature, Double> weights = new LinkedHashMap<>();
+        weights.put(new DistanceFeature(), 1.0);
+        weights.put(new EdgeWeightFeature(gazetteer, network), 1.0);
+        weights.put(new PopulationFeature(), 0.75);
+        weights.put(new AdminLevelFeature(adminLevelRootType), 0.5);
+        weights.put(new NameFeature(), 0.25);
+        return new ToponymDisambiguationAnnotator(new LinearScoringDisambiguator(weights));
+    }
+
+    /**
+     * Build a {@link CandidatePruningAnnotator} scoring candidates by population, place type and name match.
+     *
+     * @param gazetteer        the gazetteer to load the place types from.
+     * @param maxCandidates    the maximum number of candidates per toponym.
+     * @param minRelativeScore the minimum score of a candidate relative to the best candidate of the toponym.
+     * @return the annotator.
+     */
+    public static CandidatePruningAnnotator buildCandidatePruningAnnotator(final Gazetteer gazetteer,
+                                                                           final int maxCandidates,
+                                                                           final double minRelativeScore) {
+        final Map<CandidateFeature, Double> weights = new LinkedHashMap<>();
+        weights.put(new PopulationFeature(), 1.0);
+        weights.put(new PlaceTypeFeature(PlaceRanking.createDefault(gazetteer).getTypeImportance()), 1.0);
+        weights.put(new NameFeature(), 0.5);
+        return new CandidatePruningAnnotator(new LinearScorer(weights), maxCandidates, minRelativeScore);
+    }
+
+    /**
+     * Build a {@link SpatialInferenceAnnotator} inferring unresolved toponyms from the administrative containment of
+     * the resolved toponyms. The containment index is loaded from the gazetteer.
+     *
+     * @param gazetteer the gazetteer to load the administrative relationships from.
+     * @return the annotator.
+     */
+    public static SpatialInferenceAnnotator buildContainmentSpatialInferenceAnnotator(final Gazetteer gazetteer) {
+        return buildContainmentSpatialInferenceAnnotator(AdminContainmentIndex.loadFromGazetteer(gazetteer));
+    }
+
+    public static SpatialInferenceAnnotator buildContainmentSpatialInferenceAnnotator(
+            final AdminContainmentIndex index) {
+        // the resolved toponyms of the whole document are the evidence, so collect them once per document
+        return new SpatialInferenceAnnotator(new ContainmentSpatialInference(index), true);
+    }
 }
@@ -1,15 +1,25 @@
 package de.unihd.dbs.geoparser.gazetteer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Selection;
@@ -17,9 +27,19 @@ import javax.persistence.criteria.Selection;
 import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Geometry;
+
 import de.unihd.dbs.geoparser.gazetteer.models.AbstractEntity;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceName;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
 import de.unihd.dbs.geoparser.gazetteer.models.Type;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceIdPlaceFilter;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceRanking;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceTypePlaceFilter;
+import de.unihd.dbs.geoparser.gazetteer.query.ProximityPlaceFilter;
 import de.unihd.dbs.geoparser.gazetteer.query.QueryFilter;
 import de.unihd.dbs.geoparser.gazetteer.util.GazetteerPersistenceManager;
 
@@ -205,6 +225,157 @@ public class Gazetteer implements AutoCloseable {
 		return query.getSingleResult();
 	}
 
+	/**
+	 * Retrieve places for multiple names at once using a single query.
+	 * <p>
+	 * Places are matched if they have a name that exactly (case sensitive) equals one of the given names. Additionally,
+	 * all filters of the given {@link GazetteerQuery} must hold. In contrast to the other query methods,
+	 * {@link GazetteerQuery#maxResults} limits the number of places per name.
+	 * 
+	 * @param names the names to look up. Must not be <code>null</code>.
+	 * @param queryData configuration parameters for the query. Must not be <code>null</code>.
+	 * @return matched {@link Place} instances per name. Names without matches are not contained.
+	 */
+	public Map<String, List<Place>> getPlacesByExactNames(final Collection<String> names,
+			final GazetteerQuery<Place> queryData) {
+		return getPlacesByExactNames(names, queryData, null);
+	}
+
+	/**
+	 * Retrieve the top ranked places for multiple names at once.
+	 * <p>
+	 * Places are matched as described for {@link #getPlacesByExactNames(Collection, GazetteerQuery)}. The matches are
+	 * ranked by the database according to the given {@link PlaceRanking} and only the Ids of the matches are
+	 * retrieved. Afterwards, only the top {@link GazetteerQuery#maxResults} places per name are loaded with a second
+	 * query. Hence, ambiguous names do not cause loading lots of {@link Place} instances.
+	 * <p>
+	 * If all filters are {@link PlaceTypePlaceFilter}s or inclusive {@link PlaceIdPlaceFilter}s, the top places per name
+	 * are selected by the database with a native window query, so only the Ids of the top places are transferred.
+	 * <b>Note:</b> other filters cannot be rendered in the native query. With such filters, the Ids of all matches are
+	 * retrieved in ranked order and cut per name afterwards, so the number of transferred Ids is not bounded by
+	 * {@link GazetteerQuery#maxResults}.
+	 * <p>
+	 * Inclusive {@link PlaceTypePlaceFilter}s are resolved to a flat set of type Ids and joined directly with the
+	 * matched names, so type-restricted lookups are about as fast as unrestricted ones.
+	 * 
+	 * @param names the names to look up. Must not be <code>null</code>.
+	 * @param queryData configuration parameters for the query. Must not be <code>null</code>.
+	 * @param ranking the ranking of matched places. If <code>null</code>, places are ranked by their Id.
+	 * @return matched {@link Place} instances per name, ordered by their rank. Names without matches are not
+	 *         contained.
+	 */
+	public Map<String, List<Place>> getPlacesByExactNames(final Collection<String> names,
+			final GazetteerQuery<Place> queryData, final PlaceRanking ranking) {
+		Objects.requireNonNull(names);
+		Objects.requireNonNull(queryData);
+		final Map<String, List<Place>> placesByName = new HashMap<>();
+		if (names.isEmpty()) {
+			return placesByName;
+		}
+
+		final List<String> nativeFilterConditions = queryData.maxResults > 0
+				? buildNativeFilterConditions(queryData.filters) : null;
+		final List<Object[]> rows = nativeFilterConditions != null
+				? getTopRankedPlaceIdsByName(names, nativeFilterConditions, queryData.maxResults, ranking)
+				: buildRankedPlaceIdsByNameQuery(names, queryData, ranking).getResultList();
+
+		final Map<String, Set<Long>> placeIdsByName = collectPlaceIdsByName(rows, queryData.maxResults);
+		final Set<Long> allPlaceIds = new HashSet<>();
+		placeIdsByName.values().forEach(allPlaceIds::addAll);
+		if (allPlaceIds.isEmpty()) {
+			return placesByName;
+		}
+
+		final Map<Long, Place> placesById = new HashMap<>();
+		getPlaces(new GazetteerQuery<>(Arrays.asList(new PlaceIdPlaceFilter(allPlaceIds, false))))
+				.forEach(place -> placesById.put(place.getId(), place));
+		placeIdsByName.forEach((name, placeIds) -> placesByName.put(name,
+				placeIds.stream().map(placesById::get).collect(Collectors.toList())));
+
+		return placesByName;
+	}
+
+	/**
+	 * Retrieve the Ids of places for multiple names at once using a single query.
+	 * <p>
+	 * Places are matched as described for {@link #getPlacesByExactNames(Collection, GazetteerQuery)}, but no
+	 * {@link Place} instances are loaded.
+	 * 
+	 * @param names the names to look up. Must not be <code>null</code>.
+	 * @param queryData configuration parameters for the query. Must not be <code>null</code>.
+	 * @return matched place Ids per name, ordered by Id. Names without matches are not contained.
+	 */
+	public Map<String, Set<Long>> getPlaceIdsByExactNames(final Collection<String> names,
+			final GazetteerQuery<Place> queryData) {
+		Objects.requireNonNull(names);
+		Objects.requireNonNull(queryData);
+		if (names.isEmpty()) {
+			return new HashMap<>();
+		}
+
+		return collectPlaceIdsByName(buildRankedPlaceIdsByNameQuery(names, queryData, null).getResultList(),
+				queryData.maxResults);
+	}
+
+	private static Map<String, Set<Long>> collectPlaceIdsByName(final List<Object[]> rows, final int maxResults) {
+		final Map<String, Set<Long>> placeIdsByName = new HashMap<>();
+		for (final Object[] row : rows) {
+			final Set<Long> placeIds = placeIdsByName.computeIfAbsent((String) row[0], name -> new LinkedHashSet<>());
+			if (maxResults == 0 || placeIds.size() < maxResults) {
+				placeIds.add(((Number) row[1]).longValue());
+			}
+		}
+		return placeIdsByName;
+	}
+
+	/**
+	 * Retrieve the places closest to a point.
+	 * <p>
+	 * Places are matched if they have a footprint that passes the given {@link ProximityPlaceFilter} and all filters of
+	 * the given {@link GazetteerQuery} hold. The matches are ordered by the database by the great-circle distance of
+	 * their closest footprint to the point, and only the Ids of the top {@link GazetteerQuery#maxResults} places are
+	 * retrieved before loading the places with a second query. Hence, no distances need to be computed for places
+	 * outside the radius or beyond the top places.
+	 *
+	 * @param queryData configuration parameters for the query. Must not be <code>null</code>.
+	 * @param proximityFilter the point and radius to search. Must not be <code>null</code> and must be inclusive.
+	 * @return matched {@link Place} instances ordered by increasing distance; ties are ordered by Id.
+	 */
+	public List<Place> getPlacesByProximity(final GazetteerQuery<Place> queryData,
+			final ProximityPlaceFilter proximityFilter) {
+		Objects.requireNonNull(queryData);
+		Objects.requireNonNull(proximityFilter);
+		if (proximityFilter.isExclusive()) {
+			throw new IllegalArgumentException("The proximity filter must be inclusive!");
+		}
+
+		final TypedQuery<Long> query = buildPlaceIdsByProximityQuery(queryData, proximityFilter);
+		// a place is returned once per matched footprint, so fetch further pages until enough places are found
+		final int pageSize = queryData.maxResults > 0 ? queryData.maxResults : Integer.MAX_VALUE;
+		final Set<Long> placeIds = new LinkedHashSet<>();
+		int firstResult = 0;
+		List<Long> page;
+		do {
+			page = query.setFirstResult(firstResult).setMaxResults(pageSize).getResultList();
+			for (final Long placeId : page) {
+				if (queryData.maxResults == 0 || placeIds.size() < queryData.maxResults) {
+					placeIds.add(placeId);
+				}
+			}
+			firstResult += page.size();
+		}
+		while (page.size() == pageSize && placeIds.size() < pageSize);
+
+		if (placeIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		final Map<Long, Place> placesById = new HashMap<>();
+		getPlaces(new GazetteerQuery<>(Arrays.asList(new PlaceIdPlaceFilter(placeIds, false))))
+				.forEach(place -> placesById.put(place.getId(), place));
+		return placeIds.stream().map(placesById::get).collect(Collectors.toList());
+	}
+
 	@FunctionalInterface
 	public interface PlaceFeatureSelectionBuilder {
 		Selection<? extends Object[]> buildSelectClause(final CriteriaBuilder criteriaBuilder,
@@ -288,6 +459,129 @@ public class Gazetteer implements AutoCloseable {
 		return entityManager.createQuery(query);
 	}
 
+	private TypedQuery<Object[]> buildRankedPlaceIdsByNameQuery(final Collection<String> names,
+			final GazetteerQuery<Place> queryData, final PlaceRanking ranking) {
+		final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		final CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+		final Root<Place> queryRoot = query.from(Place.class);
+		final Join<Place, PlaceName> placeNames = queryRoot.join("placeNames");
+		final List<Predicate> predicates = new ArrayList<>();
+		predicates.add(placeNames.get("name").in(new HashSet<>(names)));
+
+		// inclusive type filters are applied to joined type assignments instead of using a subquery per filter
+		final List<QueryFilter<Place>> filters = new ArrayList<>();
+		for (final QueryFilter<Place> filter : queryData.filters) {
+			if (filter instanceof PlaceTypePlaceFilter && !filter.isExclusive()) {
+				final Join<Place, PlaceTypeAssignment> typeAssignments = queryRoot.join("placeTypeAssignments");
+				predicates.add(((PlaceTypePlaceFilter) filter).buildTypeAssignmentPredicate(typeAssignments));
+			}
+			else {
+				filters.add(filter);
+			}
+		}
+		buildWhereClause(query, filters, criteriaBuilder, Place.class, queryRoot, predicates);
+		query.multiselect(placeNames.get("name"), queryRoot.get("id"));
+
+		final List<Order> orders = new ArrayList<>();
+		if (ranking != null) {
+			ranking.buildRankingExpressions(criteriaBuilder, query, queryRoot, placeNames)
+					.forEach(expression -> orders.add(criteriaBuilder.desc(expression)));
+		}
+		orders.add(criteriaBuilder.asc(queryRoot.get("id")));
+		query.orderBy(orders);
+
+		return entityManager.createQuery(query);
+	}
+
+	/**
+	 * Retrieve the Ids of the top ranked places per name. The matches are ranked per name with a window function,
+	 * which cannot be expressed with the criteria API. Hence, the filters must be rendered as native conditions (see
+	 * {@link #buildNativeFilterConditions(List)}).
+	 */
+	private List<Object[]> getTopRankedPlaceIdsByName(final Collection<String> names,
+			final List<String> filterConditions, final int maxResults, final PlaceRanking ranking) {
+		final StringBuilder matches = new StringBuilder("SELECT pn.name, pn.place_id");
+		final List<String> rankingExpressions = ranking == null ? new ArrayList<>()
+				: ranking.buildRankingSql("pn.place_id", "bool_or(pn.is_preferred)");
+		for (int i = 0; i < rankingExpressions.size(); i++) {
+			matches.append(", ").append(rankingExpressions.get(i)).append(" AS rank_").append(i);
+		}
+		matches.append(" FROM place_name pn WHERE pn.name IN ?1");
+		filterConditions.forEach(condition -> matches.append(" AND ").append(condition));
+		// a place may have the same name multiple times, e.g., in different languages
+		matches.append(" GROUP BY pn.name, pn.place_id");
+
+		final StringBuilder order = new StringBuilder();
+		for (int i = 0; i < rankingExpressions.size(); i++) {
+			order.append("rank_").append(i).append(" DESC, ");
+		}
+		order.append("place_id");
+
+		final String query = "SELECT name, place_id FROM (SELECT name, place_id, row_number() OVER (PARTITION BY name"
+				+ " ORDER BY " + order + ") AS place_rank FROM (" + matches + ") matches) ranked"
+				+ " WHERE place_rank <= ?2 ORDER BY name, place_rank";
+
+		@SuppressWarnings("unchecked")
+		final List<Object[]> rows = entityManager.createNativeQuery(query).setParameter(1, new HashSet<>(names))
+				.setParameter(2, maxResults).getResultList();
+		return rows;
+	}
+
+	/**
+	 * Render the filters as conditions on the matched place names <code>pn</code> of
+	 * {@link #getTopRankedPlaceIdsByName}. Only {@link PlaceTypePlaceFilter}s and inclusive {@link PlaceIdPlaceFilter}s
+	 * can be rendered.
+	 *
+	 * @param filters the filters.
+	 * @return the conditions or <code>null</code>, if any filter cannot be rendered.
+	 */
+	private static List<String> buildNativeFilterConditions(final List<QueryFilter<Place>> filters) {
+		final List<String> conditions = new ArrayList<>(filters.size());
+		for (final QueryFilter<Place> filter : filters) {
+			if (filter instanceof PlaceTypePlaceFilter) {
+				final Set<Long> typeIds = ((PlaceTypePlaceFilter) filter).getPlaceTypeIds();
+				final String condition = typeIds.isEmpty() ? "FALSE"
+						: "EXISTS (SELECT 1 FROM place_type_assignment ta WHERE ta.place_id = pn.place_id"
+								+ " AND ta.type_id IN (" + joinIds(typeIds) + "))";
+				conditions.add(filter.isExclusive() ? "NOT " + condition : condition);
+			}
+			else if (filter instanceof PlaceIdPlaceFilter && !filter.isExclusive()) {
+				final Set<Long> placeIds = ((PlaceIdPlaceFilter) filter).getPlaceIds();
+				conditions.add(placeIds.isEmpty() ? "FALSE" : "pn.place_id IN (" + joinIds(placeIds) + ")");
+			}
+			else {
+				return null;
+			}
+		}
+		return conditions;
+	}
+
+	private static String joinIds(final Set<Long> ids) {
+		return ids.stream().map(String::valueOf).collect(Collectors.joining(", "));
+	}
+
+	private TypedQuery<Long> buildPlaceIdsByProximityQuery(final GazetteerQuery<Place> queryData,
+			final ProximityPlaceFilter proximityFilter) {
+		final CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		final CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+		final Root<Place> queryRoot = query.from(Place.class);
+		final Root<Footprint> footprints = query.from(Footprint.class);
+		final Path<Geometry> geometry = footprints.get("geometry");
+
+		// the footprints are matched directly instead of using a subquery, so they can be ordered by their distance
+		final List<Predicate> predicates = new ArrayList<>();
+		predicates.add(criteriaBuilder.equal(footprints.get("place"), queryRoot));
+		predicates.add(proximityFilter.buildFootprintPredicate(criteriaBuilder, geometry));
+		buildWhereClause(query, queryData.filters, criteriaBuilder, Place.class, queryRoot, predicates);
+		query.select(queryRoot.get("id"));
+
+		final Expression<Double> distance = criteriaBuilder.function("ST_DistanceSphere", Double.class, geometry,
+				criteriaBuilder.literal(proximityFilter.getPoint()));
+		query.orderBy(criteriaBuilder.asc(distance), criteriaBuilder.asc(queryRoot.get("id")));
+
+		return entityManager.createQuery(query);
+	}
+
 	private static <S, T> void buildWhereClause(final CriteriaQuery<S> query, final List<QueryFilter<T>> filters,
 			final CriteriaBuilder criteriaBuilder, final Class<T> clazz, final Root<T> queryRoot,
 			final List<Predicate> defaultPredicates) {
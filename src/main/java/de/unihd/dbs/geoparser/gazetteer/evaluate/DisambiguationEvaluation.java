@@ -164,12 +164,14 @@ public class DisambiguationEvaluation {
 
                 resolvedMap.forEach((integer, coordinate) -> {
                     try {
+                        final double distance = Haversine.distance(coords.get(integer).y, coords.get(integer).x,
+                                coordinate.y, coordinate.x);
                         if (wrongFootprints.contains(integer)) {
                             meanDistance.add(0.0);
-                            writer.println(Haversine.distance(coords.get(integer).y, coords.get(integer).x, coordinate.y, coordinate.x) + "\t" + 1);
+                            writer.println(distance + "\t" + 1);
                         } else {
-                            meanDistance.add(Haversine.distance(coords.get(integer).y, coords.get(integer).x, coordinate.y, coordinate.x));
-                            writer.println(Haversine.distance(coords.get(integer).y, coords.get(integer).x, coordinate.y, coordinate.x));
+                            meanDistance.add(distance);
+                            writer.println(distance);
                         }
                         //System.out.println(meanDistance.get(meanDistance.size()-1) + " " + coords.get(integer).y + " " + coordinate.x);
                     } catch (Exception ignored) {
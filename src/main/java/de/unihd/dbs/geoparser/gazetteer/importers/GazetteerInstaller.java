@@ -9,6 +9,7 @@ import com.jcraft.jsch.JSchException;
 
 import de.unihd.dbs.geoparser.core.GeoparserConfig;
 import de.unihd.dbs.geoparser.core.GeoparserConfig.UnknownConfigLabelException;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceProperty;
 import de.unihd.dbs.geoparser.gazetteer.util.GazetteerPersistenceManager;
 import de.unihd.dbs.geoparser.gazetteer.util.GazetteerPersistenceManager.HibernateDDLMode;
 
@@ -62,6 +63,7 @@ public class GazetteerInstaller implements AutoCloseable {
 		logger.info("Updating table schema to re-create foreign key constraints. This may take some time...");
 		try (final GazetteerPersistenceManager gazetteerPersistenceManager = new GazetteerPersistenceManager(config,
 				HibernateDDLMode.UPDATE)) {
+			materializeNumericPropertyValues(gazetteerPersistenceManager.getEntityManager());
 			ensureExtraIndicesExist(gazetteerPersistenceManager.getEntityManager());
 		}
 	}
@@ -144,6 +146,25 @@ public class GazetteerInstaller implements AutoCloseable {
 		em.getTransaction().commit();
 	}
 
+	/**
+	 * Fill the numeric values of all place properties whose text value represents a number, but which have no numeric
+	 * value yet (e.g., properties imported before numeric values were introduced).
+	 *
+	 * @param em the entity manager session used for persistence management
+	 */
+	public static void materializeNumericPropertyValues(final EntityManager em) {
+		logger.info("Materializing numeric property values. This may take a while...");
+		em.getTransaction().begin();
+		final int updated = em.createNativeQuery(
+		// @formatter:off
+				"UPDATE place_property SET numeric_value = CAST(trim(value) AS double precision) " +
+				"WHERE numeric_value IS NULL AND value ~ '" + PlaceProperty.NUMERIC_VALUE_PATTERN + "'")
+				// @formatter:on
+				.executeUpdate();
+		em.getTransaction().commit();
+		logger.info("Materialized " + updated + " numeric property values");
+	}
+
 	/**
 	 * Ensure that a number of indices are set up to speed up the gazetteer query performance.
 	 *
@@ -182,6 +203,8 @@ public class GazetteerInstaller implements AutoCloseable {
 		ensureIndexExists(em, "place_property_place_id_type_id_idx",
 				"ON place_property USING btree(place_id, type_id)");
 		ensureIndexExists(em, "place_property_type_id_idx", "ON place_property(type_id)");
+		ensureIndexExists(em, "place_property_type_id_numeric_value_idx",
+				"ON place_property(type_id, numeric_value)");
 		ensureIndexExists(em, "place_type_assignment_place_id_type_id_idx",
 				"ON place_type_assignment(place_id, type_id)");
 		ensureIndexExists(em, "footprint_geom_idx", "ON footprint USING gist(geom)");
@@ -1,5 +1,7 @@
 package de.unihd.dbs.geoparser.gazetteer.models;
 
+import java.util.regex.Pattern;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -17,6 +19,10 @@ import de.unihd.dbs.geoparser.gazetteer.models.AbstractEntity.ValidTime;
  * Each {@link PlaceProperty} instance is associated with a non-null {@link Place} entity and a non-null
  * {@link PlacePropertyType} instance. An optional value may be assigned. The constraints are not enforced by the class
  * accessors itself, but by the JPA provider.
+ * <p>
+ * Values are stored as text. If a value represents a number (e.g., a population number), it is additionally stored as
+ * numeric value, so numeric comparisons and orderings can be evaluated (and indexed) by the database without parsing
+ * the text.
  * 
  * @author lrichter
  */
@@ -25,9 +31,20 @@ import de.unihd.dbs.geoparser.gazetteer.models.AbstractEntity.ValidTime;
 @PrimaryKeyJoinColumn(foreignKey = @ForeignKey(name = "property_entity_fk") )
 public class PlaceProperty extends AbstractEntity {
 
+	/**
+	 * Regular expression matching values that represent a number. Understood by Java and PostgreSQL; avoids
+	 * <code>?</code> quantifiers, which clash with parameters of native queries.
+	 */
+	public static final String NUMERIC_VALUE_PATTERN =
+			"^\\s*[-+]{0,1}([0-9]+[.]{0,1}[0-9]*|[.][0-9]+)([eE][-+]{0,1}[0-9]+){0,1}\\s*$";
+	private static final Pattern NUMERIC_VALUE = Pattern.compile(NUMERIC_VALUE_PATTERN);
+
 	@Column(name = "value", columnDefinition = "text")
 	private String value;
 
+	@Column(name = "numeric_value")
+	private Double numericValue;
+
 	@ManyToOne(fetch = FetchType.LAZY, optional = false)
 	@JoinColumn(name = "type_id", foreignKey = @ForeignKey(name = "place_property_place_property_type_fk") )
 	private PlacePropertyType type;
@@ -64,8 +81,38 @@ public class PlaceProperty extends AbstractEntity {
 		return value;
 	}
 
+	/**
+	 * Set the value of the property. The numeric value is updated accordingly.
+	 *
+	 * @param value the new value.
+	 */
 	public void setValue(final String value) {
 		this.value = value;
+		this.numericValue = parseNumericValue(value);
+	}
+
+	/**
+	 * Get the value of the property as number.
+	 *
+	 * @return the numeric value, or <code>null</code> if the value does not represent a number.
+	 */
+	public Double getNumericValue() {
+		return numericValue;
+	}
+
+	/**
+	 * Parse the given property value as number.
+	 *
+	 * @param value the property value.
+	 * @return the numeric value, or <code>null</code> if the value does not represent a number (see
+	 *         {@link #NUMERIC_VALUE_PATTERN}) or exceeds the range of {@link Double}.
+	 */
+	public static Double parseNumericValue(final String value) {
+		if (value == null || !NUMERIC_VALUE.matcher(value).matches()) {
+			return null;
+		}
+		final double numericValue = Double.parseDouble(value.trim());
+		return Double.isInfinite(numericValue) ? null : numericValue;
 	}
 
 	public PlacePropertyType getType() {
@@ -4,6 +4,7 @@ import java.util.Objects;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
@@ -17,23 +18,45 @@ import com.vividsolutions.jts.geom.Geometry;
 
 /**
  * Implementation of a {@link QueryFilter} that filters {@link Place}s whose footprints are within a bounding box.
- * 
+ * <p>
+ * The footprints are matched with a {@link WithinPredicate}. PostGIS answers <code>ST_Within</code> with an
+ * index-assisted bounding box check before the exact check. By default, the footprints are matched in an uncorrelated
+ * subquery, i.e., the database first collects the Ids of places with matching footprints via the spatial index and
+ * then semi-joins the places. Hence, the query cost depends on the number of footprints in the bounding box rather
+ * than the number of places. Alternatively, the footprints of each place can be checked in a correlated subquery,
+ * which may be preferable if the other filters already select only few places.
+ *
  * @author lrichter
  *
  */
 public class BoundingBoxPlaceFilter extends QueryFilter<Place> {
 
 	private Geometry boundingBox;
+	private final boolean semiJoin;
 
 	/**
-	 * Create a {@link BoundingBoxPlaceFilter} with the given parameters.
-	 * 
+	 * Create a {@link BoundingBoxPlaceFilter} with the given parameters that semi-joins the matching footprints.
+	 *
 	 * @param boundingBox the bounding box to check for.
 	 * @param exclusive if <code>true</code> all places outside `boundingBox` pass the filter. Otherwise, only places
 	 *            within `boundingBox` pass the filter.
 	 */
 	public BoundingBoxPlaceFilter(final Geometry boundingBox, final boolean exclusive) {
+		this(boundingBox, true, exclusive);
+	}
+
+	/**
+	 * Create a {@link BoundingBoxPlaceFilter} with the given parameters.
+	 *
+	 * @param boundingBox the bounding box to check for.
+	 * @param semiJoin if <code>true</code>, places are semi-joined with the matching footprints. Otherwise, the
+	 *            footprints of each place are checked in a correlated subquery.
+	 * @param exclusive if <code>true</code> all places outside `boundingBox` pass the filter. Otherwise, only places
+	 *            within `boundingBox` pass the filter.
+	 */
+	public BoundingBoxPlaceFilter(final Geometry boundingBox, final boolean semiJoin, final boolean exclusive) {
 		super(exclusive);
+		this.semiJoin = semiJoin;
 		setBoundingBox(boundingBox);
 	}
 
@@ -46,18 +69,42 @@ public class BoundingBoxPlaceFilter extends QueryFilter<Place> {
 		this.boundingBox = boundingBox;
 	}
 
+	public boolean isSemiJoin() {
+		return semiJoin;
+	}
+
+	/**
+	 * Create a {@link Predicate} that checks, if the given footprint geometry passes the filter. In contrast to
+	 * {@link #applyFilterCriteria}, this allows joining the footprints directly instead of using a subquery.
+	 * <p>
+	 * <b>Note:</b> the exclusive flag is not considered, since joined footprints can only be used for inclusive
+	 * filters.
+	 *
+	 * @param criteriaBuilder the {@link CriteriaBuilder} to be used for construction.
+	 * @param geometry the path to the geometry of a {@link Footprint}.
+	 * @return the predicate.
+	 */
+	public Predicate buildFootprintPredicate(final CriteriaBuilder criteriaBuilder,
+			final Expression<Geometry> geometry) {
+		return new WithinPredicate((CriteriaBuilderImpl) criteriaBuilder, geometry, boundingBox);
+	}
+
 	@Override
 	public Predicate applyFilterCriteria(final CriteriaBuilder criteriaBuilder, final CriteriaQuery<?> query,
 			final Root<Place> placeRoot) {
-		final Subquery<Footprint> subQuery = query.subquery(Footprint.class);
+		final Subquery<Long> subQuery = query.subquery(Long.class);
 		final Root<Footprint> footprints = subQuery.from(Footprint.class);
 
-		Predicate predicate;
-
-		predicate = new WithinPredicate((CriteriaBuilderImpl) criteriaBuilder, footprints.get("geometry"), boundingBox);
+		Predicate predicate = buildFootprintPredicate(criteriaBuilder, footprints.get("geometry"));
 
-		predicate = criteriaBuilder.exists(subQuery.select(footprints).where(criteriaBuilder
-				.and(criteriaBuilder.equal(placeRoot.get("id"), footprints.get("place").get("id")), predicate)));
+		if (semiJoin) {
+			// uncorrelated subquery, so the footprints are only scanned once
+			predicate = placeRoot.get("id").in(subQuery.select(footprints.get("place").get("id")).where(predicate));
+		}
+		else {
+			predicate = criteriaBuilder.exists(subQuery.select(footprints.get("id")).where(criteriaBuilder
+					.and(criteriaBuilder.equal(placeRoot.get("id"), footprints.get("place").get("id")), predicate)));
+		}
 
 		if (isExclusive()) {
 			return criteriaBuilder.not(predicate);
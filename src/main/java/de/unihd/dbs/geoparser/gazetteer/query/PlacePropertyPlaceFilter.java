@@ -126,18 +126,17 @@ public class PlacePropertyPlaceFilter<T> extends QueryFilter<Place> {
 		Predicate predicate = criteriaBuilder.equal(properties.get("type"), propertyType);
 		if (!checkOnlyExisistence) {
 			if (rangeCheck) {
-				final Expression<? extends Number> value = properties.get("value").as(rangeValueType);
+				// compare the materialized numeric value, so the database does not need to cast the text values
+				final Expression<Double> value = properties.get("numericValue");
 				if (minValue != null && maxValue != null) {
-					predicate = criteriaBuilder.and(predicate, criteriaBuilder.ge(value, rangeValueType.cast(minValue)),
-							criteriaBuilder.le(value, rangeValueType.cast(maxValue)));
+					predicate = criteriaBuilder.and(predicate, criteriaBuilder.ge(value, toDouble(minValue)),
+							criteriaBuilder.le(value, toDouble(maxValue)));
 				}
 				else if (minValue != null) {
-					predicate = criteriaBuilder.and(predicate,
-							criteriaBuilder.ge(value, rangeValueType.cast(minValue)));
+					predicate = criteriaBuilder.and(predicate, criteriaBuilder.ge(value, toDouble(minValue)));
 				}
 				else {
-					predicate = criteriaBuilder.and(predicate,
-							criteriaBuilder.le(value, rangeValueType.cast(maxValue)));
+					predicate = criteriaBuilder.and(predicate, criteriaBuilder.le(value, toDouble(maxValue)));
 				}
 			}
 			else {
@@ -158,4 +157,8 @@ public class PlacePropertyPlaceFilter<T> extends QueryFilter<Place> {
 		}
 	}
 
+	private double toDouble(final T value) {
+		return rangeValueType.cast(value).doubleValue();
+	}
+
 }
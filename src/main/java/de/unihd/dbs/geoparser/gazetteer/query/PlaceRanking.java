@@ -0,0 +1,173 @@
+package de.unihd.dbs.geoparser.gazetteer.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.persistence.NoResultException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaBuilder.SimpleCase;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceName;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceProperty;
+import de.unihd.dbs.geoparser.gazetteer.models.PlacePropertyType;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
+import de.unihd.dbs.geoparser.gazetteer.types.PlaceTypes;
+import de.unihd.dbs.geoparser.gazetteer.types.PropertyTypes;
+
+/**
+ * Definition of a ranking for places matched by a name, which is evaluated by the database.
+ * <p>
+ * Places are ranked by the following criteria (in that order):
+ * <ol>
+ * <li>the highest importance of the place types assigned to a place (e.g., countries before counties),</li>
+ * <li>the population number of a place,</li>
+ * <li>whether the matched name is the preferred name of a place,</li>
+ * <li>the place Id (for deterministic results).</li>
+ * </ol>
+ * Places without an importance or population number are ranked as if the value was 0.
+ *
+ * @author lrichter
+ *
+ */
+public class PlaceRanking {
+
+	private final Map<PlaceType, Integer> typeImportance;
+	private final PlacePropertyType populationType;
+
+	/**
+	 * Create a {@link PlaceRanking} instance.
+	 *
+	 * @param typeImportance the importance per place type; higher values are ranked first. May be empty.
+	 * @param populationType the property type of population numbers. May be <code>null</code>, if the population
+	 *            should be ignored.
+	 */
+	public PlaceRanking(final Map<PlaceType, Integer> typeImportance, final PlacePropertyType populationType) {
+		Objects.requireNonNull(typeImportance);
+		this.typeImportance = new LinkedHashMap<>(typeImportance);
+		this.populationType = populationType;
+	}
+
+	/**
+	 * Create the default {@link PlaceRanking} for the given gazetteer. Continents and political entities are ranked
+	 * first, followed by the GeoNames administrative levels 1 to 5 and populated places. Place types that do not exist
+	 * in the gazetteer are ignored.
+	 *
+	 * @param gazetteer the gazetteer to load the types from.
+	 * @return the default ranking.
+	 */
+	public static PlaceRanking createDefault(final Gazetteer gazetteer) {
+		final Map<PlaceType, Integer> typeImportance = new LinkedHashMap<>();
+		final PlaceTypes[] rankedTypes = new PlaceTypes[] { PlaceTypes.CONTINENT, PlaceTypes.POLITICAL_ENTITY,
+				PlaceTypes.ADMIN1, PlaceTypes.ADMIN2, PlaceTypes.ADMIN3, PlaceTypes.ADMIN4, PlaceTypes.ADMIN5,
+				PlaceTypes.POPULATED_PLACE };
+		for (int i = 0; i < rankedTypes.length; i++) {
+			try {
+				typeImportance.put((PlaceType) gazetteer.getType(rankedTypes[i].typeName), rankedTypes.length - i);
+			}
+			catch (final NoResultException e) {
+				// type is not used by the gazetteer
+			}
+		}
+
+		PlacePropertyType populationType;
+		try {
+			populationType = (PlacePropertyType) gazetteer.getType(PropertyTypes.POPULATION.typeName);
+		}
+		catch (final NoResultException e) {
+			populationType = null;
+		}
+
+		return new PlaceRanking(typeImportance, populationType);
+	}
+
+	public Map<PlaceType, Integer> getTypeImportance() {
+		return Collections.unmodifiableMap(typeImportance);
+	}
+
+	public PlacePropertyType getPopulationType() {
+		return populationType;
+	}
+
+	/**
+	 * Create the ranking expressions for a query using the given {@link CriteriaBuilder}. Higher values of the
+	 * expressions are ranked first.
+	 *
+	 * @param criteriaBuilder the {@link CriteriaBuilder} to be used for construction.
+	 * @param query the {@link CriteriaQuery} that is constructed.
+	 * @param placeRoot the {@link Root} of the query.
+	 * @param matchedName the path to the matched {@link PlaceName}.
+	 * @return the ranking expressions ordered by their priority.
+	 */
+	public List<Expression<? extends Number>> buildRankingExpressions(final CriteriaBuilder criteriaBuilder,
+			final CriteriaQuery<?> query, final Root<Place> placeRoot, final Path<PlaceName> matchedName) {
+		final List<Expression<? extends Number>> expressions = new ArrayList<>(3);
+
+		if (!typeImportance.isEmpty()) {
+			final Subquery<Integer> importanceQuery = query.subquery(Integer.class);
+			final Root<PlaceTypeAssignment> assignments = importanceQuery.from(PlaceTypeAssignment.class);
+			final SimpleCase<Long, Integer> importance = criteriaBuilder.selectCase(assignments.get("type").get("id"));
+			typeImportance.forEach((type, value) -> importance.when(type.getId(), value));
+			importanceQuery.select(criteriaBuilder.max(importance.otherwise(0)))
+					.where(criteriaBuilder.equal(assignments.get("place"), placeRoot));
+			expressions.add(criteriaBuilder.coalesce(importanceQuery, 0));
+		}
+
+		if (populationType != null) {
+			final Subquery<Double> populationQuery = query.subquery(Double.class);
+			final Root<PlaceProperty> properties = populationQuery.from(PlaceProperty.class);
+			populationQuery.select(criteriaBuilder.max(properties.<Double> get("numericValue"))).where(
+					criteriaBuilder.equal(properties.get("place"), placeRoot),
+					criteriaBuilder.equal(properties.get("type"), populationType));
+			expressions.add(criteriaBuilder.coalesce(populationQuery, 0.0));
+		}
+
+		expressions.add(criteriaBuilder.<Integer> selectCase()
+				.when(criteriaBuilder.isTrue(matchedName.get("isPreferred")), 1).otherwise(0));
+
+		return expressions;
+	}
+
+	/**
+	 * Create the ranking expressions as native SQL, e.g., for window functions that cannot be expressed with the
+	 * criteria API. The expressions are equivalent to those of {@link #buildRankingExpressions}.
+	 *
+	 * @param placeId the SQL expression of the place Id. Columns must be qualified, since the expressions contain
+	 *            subqueries.
+	 * @param matchedNameIsPreferred the SQL expression of the preferred flag of the matched name.
+	 * @return the ranking expressions ordered by their priority.
+	 */
+	public List<String> buildRankingSql(final String placeId, final String matchedNameIsPreferred) {
+		final List<String> expressions = new ArrayList<>(3);
+
+		if (!typeImportance.isEmpty()) {
+			final StringBuilder importance = new StringBuilder("coalesce((SELECT max(CASE type_id");
+			typeImportance.forEach((type, value) -> importance.append(" WHEN ").append(type.getId()).append(" THEN ")
+					.append(value));
+			importance.append(" ELSE 0 END) FROM place_type_assignment WHERE place_id = ").append(placeId)
+					.append("), 0)");
+			expressions.add(importance.toString());
+		}
+
+		if (populationType != null) {
+			expressions.add("coalesce((SELECT max(numeric_value) FROM place_property WHERE place_id = " + placeId
+					+ " AND type_id = " + populationType.getId() + "), 0.0)");
+		}
+
+		expressions.add("CASE WHEN " + matchedNameIsPreferred + " THEN 1 ELSE 0 END");
+
+		return expressions;
+	}
+
+}
@@ -1,10 +1,15 @@
 package de.unihd.dbs.geoparser.gazetteer.query;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
@@ -12,9 +17,13 @@ import javax.persistence.criteria.Subquery;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
 import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
 import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
+import de.unihd.dbs.geoparser.gazetteer.models.Type;
 
 /**
  * Implementation of a {@link QueryFilter} that filters {@link Place}s based on their type.
+ * <p>
+ * The filter types are resolved to a flat set of type Ids (optionally including all subtypes wrt. the type hierarchy),
+ * so the database only needs to compare the type Ids of the type assignments.
  * 
  * @author lrichter
  * 
@@ -22,6 +31,8 @@ import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
 public class PlaceTypePlaceFilter extends QueryFilter<Place> {
 
 	private Set<PlaceType> placeTypes;
+	private final boolean includeSubtypes;
+	private Set<Long> placeTypeIds;
 
 	/**
 	 * Create a {@link PlacePropertyPlaceFilter} with the given parameters that filters places based on a list of values
@@ -32,7 +43,22 @@ public class PlaceTypePlaceFilter extends QueryFilter<Place> {
 	 *            only those do.
 	 */
 	public PlaceTypePlaceFilter(final Set<PlaceType> placeTypes, final boolean exclusive) {
+		this(placeTypes, false, exclusive);
+	}
+
+	/**
+	 * Create a {@link PlaceTypePlaceFilter} with the given parameters that filters places based on their type.
+	 * 
+	 * @param placeTypes the {@link PlaceType}s the place must have.
+	 * @param includeSubtypes if <code>true</code>, places that have a subtype of any of the given types are treated as
+	 *            if they had the given type.
+	 * @param exclusive if <code>true</code>, places that are of any of the given type do not pass the filter, otherwise
+	 *            only those do.
+	 */
+	public PlaceTypePlaceFilter(final Set<PlaceType> placeTypes, final boolean includeSubtypes,
+			final boolean exclusive) {
 		super(exclusive);
+		this.includeSubtypes = includeSubtypes;
 		setPlaceTypes(placeTypes);
 	}
 
@@ -43,6 +69,46 @@ public class PlaceTypePlaceFilter extends QueryFilter<Place> {
 	public void setPlaceTypes(final Set<PlaceType> placeTypes) {
 		Objects.requireNonNull(placeTypes);
 		this.placeTypes = placeTypes;
+		this.placeTypeIds = resolvePlaceTypeIds(placeTypes, includeSubtypes);
+	}
+
+	public boolean isIncludeSubtypes() {
+		return includeSubtypes;
+	}
+
+	/**
+	 * Get the Ids of all types that pass the filter, i.e., the filter types and, if enabled, their subtypes.
+	 * 
+	 * @return an unmodifiable set of type Ids.
+	 */
+	public Set<Long> getPlaceTypeIds() {
+		return placeTypeIds;
+	}
+
+	private static Set<Long> resolvePlaceTypeIds(final Set<PlaceType> placeTypes, final boolean includeSubtypes) {
+		final Set<Long> typeIds = new HashSet<>();
+		final Deque<Type> pendingTypes = new ArrayDeque<>(placeTypes);
+		while (!pendingTypes.isEmpty()) {
+			final Type type = pendingTypes.pop();
+			if (typeIds.add(type.getId()) && includeSubtypes) {
+				pendingTypes.addAll(type.getChildTypes());
+			}
+		}
+		return Collections.unmodifiableSet(typeIds);
+	}
+
+	/**
+	 * Create a {@link Predicate} that checks, if the type of the given type assignment passes the filter. In contrast
+	 * to {@link #applyFilterCriteria}, this allows joining the type assignments directly instead of using a subquery.
+	 * <p>
+	 * <b>Note:</b> the exclusive flag is not considered, since joined type assignments can only be used for inclusive
+	 * filters.
+	 * 
+	 * @param typeAssignment the path to a {@link PlaceTypeAssignment}.
+	 * @return the predicate.
+	 */
+	public Predicate buildTypeAssignmentPredicate(final Path<PlaceTypeAssignment> typeAssignment) {
+		return typeAssignment.get("type").get("id").in(placeTypeIds);
 	}
 
 	@Override
@@ -51,7 +117,7 @@ public class PlaceTypePlaceFilter extends QueryFilter<Place> {
 		final Subquery<PlaceTypeAssignment> subQuery = query.subquery(PlaceTypeAssignment.class);
 		final Root<PlaceTypeAssignment> typeAssignments = subQuery.from(PlaceTypeAssignment.class);
 
-		Predicate predicate = typeAssignments.get("type").as(PlaceType.class).in(placeTypes);
+		Predicate predicate = buildTypeAssignmentPredicate(typeAssignments);
 
 		predicate = criteriaBuilder.exists(subQuery.select(typeAssignments).where(criteriaBuilder
 				.and(criteriaBuilder.equal(placeRoot.get("id"), typeAssignments.get("place").get("id")), predicate)));
@@ -0,0 +1,108 @@
+package de.unihd.dbs.geoparser.gazetteer.query;
+
+import java.util.Objects;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.hibernate.query.criteria.internal.CriteriaBuilderImpl;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+import de.unihd.dbs.geoparser.gazetteer.GazetteerQuery;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.query.predicates.DistanceWithinPredicate;
+
+/**
+ * Implementation of a {@link QueryFilter} that filters {@link Place}s with a footprint within a given great-circle
+ * distance of a point.
+ * <p>
+ * The filter is answered by the spatial index of the footprints (see {@link DistanceWithinPredicate}). Use
+ * {@link Gazetteer#getPlacesByProximity(GazetteerQuery, ProximityPlaceFilter)} to retrieve the places ordered by their
+ * distance to the point.
+ *
+ * @author lrichter
+ *
+ */
+public class ProximityPlaceFilter extends QueryFilter<Place> {
+
+	private Point point;
+	private double radius;
+
+	/**
+	 * Create a {@link ProximityPlaceFilter} with the given parameters.
+	 *
+	 * @param point the point to check for. Must use the reference system {@link Footprint#REFERENCE_SYSTEM_SRID}.
+	 * @param radius the maximum distance of a footprint to `point` in kilometers.
+	 * @param exclusive if <code>true</code>, all places without a footprint within `radius` pass the filter.
+	 *            Otherwise, only places with such a footprint pass the filter.
+	 */
+	public ProximityPlaceFilter(final Point point, final double radius, final boolean exclusive) {
+		super(exclusive);
+		setPoint(point);
+		setRadius(radius);
+	}
+
+	public Point getPoint() {
+		return point;
+	}
+
+	public void setPoint(final Point point) {
+		Objects.requireNonNull(point);
+		this.point = point;
+	}
+
+	public double getRadius() {
+		return radius;
+	}
+
+	public void setRadius(final double radius) {
+		if (!(radius >= 0)) {
+			throw new IllegalArgumentException("`radius` must be a non-negative number!");
+		}
+		this.radius = radius;
+	}
+
+	/**
+	 * Create a {@link Predicate} that checks, if the given footprint geometry passes the filter. In contrast to
+	 * {@link #applyFilterCriteria}, this allows joining the footprints directly instead of using a subquery.
+	 * <p>
+	 * <b>Note:</b> the exclusive flag is not considered, since joined footprints can only be used for inclusive
+	 * filters.
+	 *
+	 * @param criteriaBuilder the {@link CriteriaBuilder} to be used for construction.
+	 * @param geometry the path to the geometry of a {@link Footprint}.
+	 * @return the predicate.
+	 */
+	public Predicate buildFootprintPredicate(final CriteriaBuilder criteriaBuilder,
+			final Expression<Geometry> geometry) {
+		return new DistanceWithinPredicate((CriteriaBuilderImpl) criteriaBuilder, geometry, point, radius);
+	}
+
+	@Override
+	public Predicate applyFilterCriteria(final CriteriaBuilder criteriaBuilder, final CriteriaQuery<?> query,
+			final Root<Place> placeRoot) {
+		final Subquery<Footprint> subQuery = query.subquery(Footprint.class);
+		final Root<Footprint> footprints = subQuery.from(Footprint.class);
+
+		Predicate predicate = buildFootprintPredicate(criteriaBuilder, footprints.get("geometry"));
+
+		predicate = criteriaBuilder.exists(subQuery.select(footprints).where(criteriaBuilder
+				.and(criteriaBuilder.equal(placeRoot.get("id"), footprints.get("place").get("id")), predicate)));
+
+		if (isExclusive()) {
+			return criteriaBuilder.not(predicate);
+		}
+		else {
+			return predicate;
+		}
+	}
+
+}
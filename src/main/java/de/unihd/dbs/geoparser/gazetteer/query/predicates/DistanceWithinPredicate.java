@@ -0,0 +1,117 @@
+package de.unihd.dbs.geoparser.gazetteer.query.predicates;
+
+import javax.persistence.criteria.Expression;
+
+import org.hibernate.query.criteria.internal.CriteriaBuilderImpl;
+import org.hibernate.query.criteria.internal.ParameterRegistry;
+import org.hibernate.query.criteria.internal.Renderable;
+import org.hibernate.query.criteria.internal.compile.RenderingContext;
+import org.hibernate.query.criteria.internal.expression.LiteralExpression;
+import org.hibernate.query.criteria.internal.predicate.AbstractSimplePredicate;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+
+/**
+ * Implementation of a {@link AbstractSimplePredicate} that checks if a {@link Geometry} lies within a given
+ * great-circle distance of a point.
+ * <p>
+ * The distance is converted into a radius in degrees that is large enough for all latitudes covered by the search
+ * circle, and checked with <code>ST_DWithin</code>, which is answered by the spatial index of the geometry column. Only
+ * the remaining geometries are checked exactly with <code>ST_DistanceSphere</code>. If the search circle covers a pole
+ * or crosses the antimeridian, only the exact check is used.
+ * <p>
+ * <b>Note:</b> This class requires PostgreSQL and PostGIS 2.2 or newer! The geometries must use longitude/latitude
+ * coordinates.
+ *
+ * @author lrichter
+ *
+ */
+public class DistanceWithinPredicate extends AbstractSimplePredicate {
+
+	private static final long serialVersionUID = 2914286617024470845L;
+
+	/**
+	 * Length of one degree of latitude in kilometers on a sphere with the mean earth radius.
+	 */
+	private static final double KILOMETERS_PER_DEGREE = 6371 * Math.PI / 180;
+
+	private final Expression<Geometry> matchExpression;
+	private final Point point;
+	private final double distance;
+
+	/**
+	 * Create a {@link DistanceWithinPredicate} instance.
+	 *
+	 * @param criteriaBuilder the criteria builder.
+	 * @param matchExpression the geometries to check.
+	 * @param point the center of the search circle.
+	 * @param distance the radius of the search circle in kilometers.
+	 */
+	public DistanceWithinPredicate(final CriteriaBuilderImpl criteriaBuilder,
+			final Expression<Geometry> matchExpression, final Point point, final double distance) {
+		super(criteriaBuilder);
+		if (!(distance >= 0)) {
+			throw new IllegalArgumentException("The distance must be a non-negative number!");
+		}
+		this.matchExpression = matchExpression;
+		this.point = point;
+		this.distance = distance;
+	}
+
+	public Expression<Geometry> getMatchExpression() {
+		return matchExpression;
+	}
+
+	public Point getPoint() {
+		return point;
+	}
+
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Get a radius in degrees that contains all coordinates within {@link #getDistance()} of the point.
+	 *
+	 * @return the radius in degrees or {@link Double#NaN}, if the search circle covers a pole or crosses the
+	 *         antimeridian.
+	 */
+	public double getDegreeRadius() {
+		final double latitudeRadius = distance / KILOMETERS_PER_DEGREE;
+		final double maxLatitude = Math.abs(point.getY()) + latitudeRadius;
+		if (maxLatitude >= 90) {
+			return Double.NaN;
+		}
+		final double longitudeRadius = latitudeRadius / Math.cos(Math.toRadians(maxLatitude));
+		if (Math.abs(point.getX()) + longitudeRadius > 180) {
+			return Double.NaN;
+		}
+		return longitudeRadius;
+	}
+
+	@Override
+	public void registerParameters(final ParameterRegistry registry) {
+		// Nothing to register
+	}
+
+	@Override
+	public String render(final boolean isNegated, final RenderingContext renderingContext) {
+		final String geometry = ((Renderable) getMatchExpression()).render(renderingContext);
+		final double degreeRadius = getDegreeRadius();
+
+		final StringBuilder buffer = new StringBuilder();
+		buffer.append(isNegated ? " not (" : " (");
+		if (!Double.isNaN(degreeRadius)) {
+			buffer.append("dwithin(").append(geometry).append(", ").append(renderPoint(renderingContext)).append(", ")
+					.append(degreeRadius).append(") = true and ");
+		}
+		buffer.append("ST_DistanceSphere(").append(geometry).append(", ").append(renderPoint(renderingContext))
+				.append(") <= ").append(distance * 1000).append(") ");
+		return buffer.toString();
+	}
+
+	private String renderPoint(final RenderingContext renderingContext) {
+		return new LiteralExpression<>((CriteriaBuilderImpl) criteriaBuilder(), point).render(renderingContext);
+	}
+}
@@ -0,0 +1,183 @@
+package de.unihd.dbs.geoparser.process.disambiguation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreAnnotations.MentionsAnnotation;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Holds the state of a single {@link ToponymDisambiguator#disambiguate(DisambiguationContext)} call, i.e., the named
+ * entities to disambiguate, their source and everything derived from them while disambiguating.
+ * <p>
+ * A new context is created for every call, so {@link ToponymDisambiguator}s do not need to keep per-document state in
+ * fields and can be shared by concurrently processed documents. Derived data that is expensive to compute can be stored
+ * via {@link #computeIfAbsent(Key, Function)}. A context itself is not thread-safe.
+ *
+ * @author lrichter
+ *
+ */
+public class DisambiguationContext {
+
+	/**
+	 * Typed key for data stored in a {@link DisambiguationContext}. Keys are compared by identity, so they are usually
+	 * held in constants.
+	 *
+	 * @param <T> the type of the stored data.
+	 */
+	public static final class Key<T> {
+		private final String name;
+
+		/**
+		 * Create a {@link Key}.
+		 *
+		 * @param name the name of the key, used for debugging only.
+		 */
+		public Key(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private final List<CoreMap> namedEntities;
+	private final Annotation document;
+	private final CoreMap sentence;
+	private final Map<Key<?>, Object> attributes = new HashMap<>();
+	private List<List<Place>> linkedPlaces;
+	private Set<Long> linkedPlaceIds;
+
+	/**
+	 * Create a {@link DisambiguationContext}.
+	 *
+	 * @param namedEntities the {@link MentionsAnnotation}, from which to disambiguate contained toponyms.
+	 * @param document the source document. May be <code>null</code>.
+	 * @param sentence the source sentence. May be <code>null</code>.
+	 */
+	public DisambiguationContext(final List<CoreMap> namedEntities, final Annotation document,
+			final CoreMap sentence) {
+		Objects.requireNonNull(namedEntities);
+		this.namedEntities = namedEntities;
+		this.document = document;
+		this.sentence = sentence;
+	}
+
+	public List<CoreMap> getNamedEntities() {
+		return namedEntities;
+	}
+
+	public Annotation getDocument() {
+		return document;
+	}
+
+	public CoreMap getSentence() {
+		return sentence;
+	}
+
+	/**
+	 * Get the candidate places of a named entity.
+	 *
+	 * @param index the index of the named entity.
+	 * @return the linked places of the named entity, or <code>null</code> if the named entity is not a location or has
+	 *         no linked places.
+	 */
+	public List<Place> getCandidates(final int index) {
+		final CoreMap namedEntity = namedEntities.get(index);
+		if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
+				NamedEntityType.LOCATION.name)) {
+			return null;
+		}
+
+		final List<Place> candidates = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
+		return candidates == null || candidates.isEmpty() ? null : candidates;
+	}
+
+	/**
+	 * Get the linked places of all named entities that have a {@link GeoparsingAnnotations.GazetteerEntriesAnnotation},
+	 * in the order of the named entities.
+	 *
+	 * @return unmodifiable list of the linked places per named entity.
+	 */
+	public List<List<Place>> getLinkedPlaces() {
+		if (linkedPlaces == null) {
+			final List<List<Place>> places = new ArrayList<>(namedEntities.size());
+			for (final CoreMap namedEntity : namedEntities) {
+				final List<Place> entries = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
+				if (entries != null) {
+					places.add(Collections.unmodifiableList(entries));
+				}
+			}
+			linkedPlaces = Collections.unmodifiableList(places);
+		}
+		return linkedPlaces;
+	}
+
+	/**
+	 * Get the Ids of all places returned by {@link #getLinkedPlaces()}.
+	 *
+	 * @return unmodifiable set of place Ids, in the order of their first occurrence.
+	 */
+	public Set<Long> getLinkedPlaceIds() {
+		if (linkedPlaceIds == null) {
+			final Set<Long> ids = new LinkedHashSet<>();
+			getLinkedPlaces().forEach(places -> places.forEach(place -> ids.add(place.getId())));
+			linkedPlaceIds = Collections.unmodifiableSet(ids);
+		}
+		return linkedPlaceIds;
+	}
+
+	/**
+	 * Get the data stored for the given key, or compute and store it if absent.
+	 *
+	 * @param key the key of the data.
+	 * @param function the function computing the data from this context.
+	 * @return the stored data.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T computeIfAbsent(final Key<T> key, final Function<DisambiguationContext, T> function) {
+		T value = (T) attributes.get(key);
+		if (value == null) {
+			value = function.apply(this);
+			attributes.put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Get the data stored for the given key.
+	 *
+	 * @param key the key of the data.
+	 * @return the stored data, or <code>null</code> if absent.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(final Key<T> key) {
+		return (T) attributes.get(key);
+	}
+
+	/**
+	 * Store data for the given key.
+	 *
+	 * @param key the key of the data.
+	 * @param value the data to store.
+	 */
+	public <T> void set(final Key<T> key, final T value) {
+		attributes.put(key, value);
+	}
+
+}
@@ -3,19 +3,13 @@ package de.unihd.dbs.geoparser.process.disambiguation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 
-import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
-import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
 
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.Annotator.Requirement;
-import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Implementation of {@link ToponymDisambiguator} that disambiguates toponyms by taking the first matched gazetteer
@@ -36,20 +30,14 @@ public class FirstMatchToponymDisambiguator extends ToponymDisambiguator {
 	}
 
 	@Override
-	public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-			final CoreMap sentence) {
-		final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
+	public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+		final int size = context.getNamedEntities().size();
+		final List<ResolvedLocation> output = new ArrayList<>(size);
 
-		for (final CoreMap namedEntity : namedEntities) {
-			if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
-					NamedEntityType.LOCATION.name)) {
-				output.add(null);
-				continue;
-			}
-
-			final List<Place> linkedPlaces = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
+		for (int i = 0; i < size; i++) {
+			final List<Place> linkedPlaces = context.getCandidates(i);
 
-			if (linkedPlaces == null || linkedPlaces.isEmpty()) {
+			if (linkedPlaces == null) {
 				output.add(null);
 				continue;
 			}
@@ -6,31 +6,29 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
-import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
-import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
 import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
-import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
-import de.unihd.dbs.geoparser.gazetteer.models.Type;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
+import de.unihd.dbs.geoparser.process.util.AdminLevelCache;
 
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.Annotator.Requirement;
-import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Implementation of {@link ToponymDisambiguator} that disambiguates toponyms by taking the gazetteer entry with the
  * highest administrative level as the correct match. A {@link PlaceType} representing the administrative hierarchy root
- * must be specified. The highest admin level is the one that is closest to the root.
+ * must be specified. The highest admin level is the one with the most hierarchy levels between the root and the place
+ * type, i.e., the most specific administrative division.
+ * <p>
+ * The administrative levels of places are looked up in an {@link AdminLevelCache}, which may be shared with other
+ * modules using the same root.
  *
  * @author lrichter
  *
  */
-public class  HighestAdminLevelDisambiguator extends ToponymDisambiguator {
+public class HighestAdminLevelDisambiguator extends ToponymDisambiguator {
 
-	private static PlaceType adminLevelRootType = null;
+	private final AdminLevelCache adminLevels;
 
 	@Override
 	public Set<Requirement> requires() {
@@ -43,42 +41,57 @@ public class  HighestAdminLevelDisambiguator extends ToponymDisambiguator {
 	}
 
 	public HighestAdminLevelDisambiguator(final PlaceType adminLevelRootType) {
+		this(new AdminLevelCache(adminLevelRootType));
+	}
+
+	public HighestAdminLevelDisambiguator(final AdminLevelCache adminLevels) {
 		super();
-		Objects.requireNonNull(adminLevelRootType);
-		HighestAdminLevelDisambiguator.adminLevelRootType = adminLevelRootType;
+		Objects.requireNonNull(adminLevels);
+		this.adminLevels = adminLevels;
 	}
 
 	@Override
-	public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-			final CoreMap sentence) {
-		final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
-
-		for (final CoreMap namedEntity : namedEntities) {
-			if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
-					NamedEntityType.LOCATION.name)) {
-				output.add(null);
-				continue;
-			}
+	public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+		final int size = context.getNamedEntities().size();
+		final List<ResolvedLocation> output = new ArrayList<>(size);
 
-			final List<Place> linkedPlaces = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
+		for (int i = 0; i < size; i++) {
+			final List<Place> linkedPlaces = context.getCandidates(i);
 
-			if (linkedPlaces == null || linkedPlaces.isEmpty()) {
+			if (linkedPlaces == null) {
 				output.add(null);
 				continue;
 			}
 
-			output.add(new ResolvedLocation(getPlaceWithHighestAdminLevel(linkedPlaces)));
+			output.add(new ResolvedLocation(getPlaceWithHighestAdminLevel(linkedPlaces, adminLevels)));
 		}
 
 		return output;
 	}
 
-	public static Place getPlaceWithHighestAdminLevel(final List<Place> linkedPlaces) {
+	public PlaceType getAdminLevelRootType() {
+		return adminLevels.getRootType();
+	}
+
+	public AdminLevelCache getAdminLevels() {
+		return adminLevels;
+	}
+
+	/**
+	 * Get the place with the highest administrative level, i.e., the place whose type is farthest below the given root
+	 * of the administrative hierarchy.
+	 *
+	 * @param linkedPlaces the candidate places. Must not be empty.
+	 * @param adminLevels the administrative levels relative to the hierarchy root.
+	 * @return the place with the highest administrative level, or the first place if none has an administrative level.
+	 */
+	public static Place getPlaceWithHighestAdminLevel(final List<Place> linkedPlaces,
+			final AdminLevelCache adminLevels) {
 		Place highestAdminLevelPlace = linkedPlaces.get(0);
 		int highestAdminLevel = 0;
 
 		for (final Place place : linkedPlaces) {
-			final int adminLevel = getAdminLevel(place);
+			final int adminLevel = adminLevels.getAdminLevel(place);
 			if (adminLevel > highestAdminLevel) {
 				highestAdminLevelPlace = place;
 				highestAdminLevel = adminLevel;
@@ -88,32 +101,4 @@ public class  HighestAdminLevelDisambiguator extends ToponymDisambiguator {
 		return highestAdminLevelPlace;
 	}
 
-	private static int getAdminLevel(final Place place) {
-		final Set<PlaceTypeAssignment> placeTypes = place.getPlaceTypeAssignments();
-
-		int highestAdminLevel = Integer.MIN_VALUE;
-
-		for (final PlaceTypeAssignment placeType : placeTypes) {
-			if (!placeType.getType().isChildOf(adminLevelRootType))
-				continue;
-
-			final int adminLevel = getHierachyLevelDifference(adminLevelRootType, placeType.getType());
-
-			highestAdminLevel = Math.max(adminLevel, highestAdminLevel);
-		}
-
-		return highestAdminLevel;
-	}
-
-	private static int getHierachyLevelDifference(final PlaceType root, final PlaceType child) {
-		int level = 0;
-		Type currentChild = child;
-		while (currentChild != root) {
-			currentChild = currentChild.getParentType();
-			level++;
-		}
-
-		return level;
-
-	}
 }
@@ -3,21 +3,15 @@ package de.unihd.dbs.geoparser.process.disambiguation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 
-import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
-import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
 import de.unihd.dbs.geoparser.gazetteer.models.PlaceProperty;
 import de.unihd.dbs.geoparser.gazetteer.types.PropertyTypes;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
 
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.Annotator.Requirement;
-import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Implementation of {@link ToponymDisambiguator} that disambiguates toponyms by taking the gazetteer entry with the
@@ -46,20 +40,14 @@ public class HighestPopulationDisambiguator extends ToponymDisambiguator {
 	// }
 
 	@Override
-	public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-			final CoreMap sentence) {
-		final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
+	public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+		final int size = context.getNamedEntities().size();
+		final List<ResolvedLocation> output = new ArrayList<>(size);
 
-		for (final CoreMap namedEntity : namedEntities) {
-			if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
-					NamedEntityType.LOCATION.name)) {
-				output.add(null);
-				continue;
-			}
-
-			final List<Place> linkedPlaces = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
+		for (int i = 0; i < size; i++) {
+			final List<Place> linkedPlaces = context.getCandidates(i);
 
-			if (linkedPlaces == null || linkedPlaces.isEmpty()) {
+			if (linkedPlaces == null) {
 				output.add(null);
 				continue;
 			}
@@ -94,10 +82,11 @@ public class HighestPopulationDisambiguator extends ToponymDisambiguator {
 
 		for (final PlaceProperty populationNumber : populationNumbers) {
 			if (populationNumber.getValue() != null) {
-				try {
-					populationValue = Integer.parseInt(populationNumber.getValue());
+				final Double numericValue = populationNumber.getNumericValue();
+				if (numericValue != null) {
+					populationValue = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, numericValue));
 				}
-				catch (Exception e){
+				else {
 					populationValue = Integer.MAX_VALUE;
 				}
 				// good for now. could do more fancy stuff, if multiple population numbers are available...
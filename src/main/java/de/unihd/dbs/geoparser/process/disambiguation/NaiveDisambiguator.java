@@ -1,15 +1,11 @@
 package de.unihd.dbs.geoparser.process.disambiguation;
 
-import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
-import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
 import edu.stanford.nlp.pipeline.Annotator.Requirement;
-import edu.stanford.nlp.util.CoreMap;
 
 import java.util.*;
 
@@ -21,7 +17,7 @@ import java.util.*;
  */
 public class NaiveDisambiguator extends ToponymDisambiguator {
     private final Gazetteer gazetteer;
-    private final Set<Long> allLinkedIds = new HashSet<>();
+    private final WikipediaLocationNetwork network;
 
     /**
      * Constructor.
@@ -29,8 +25,20 @@ public class NaiveDisambiguator extends ToponymDisambiguator {
      * @param gazetteer currently used gazetteer instance.
      */
     public NaiveDisambiguator(final Gazetteer gazetteer) {
+        this(gazetteer, null);
+    }
+
+    /**
+     * Constructor using an in-memory WikipediaLocationNetwork instead of querying the edge weights.
+     *
+     * @param gazetteer currently used gazetteer instance.
+     * @param network   the network built from the WLN place relationships. If <code>null</code>, edge weights are
+     *                  queried from the gazetteer.
+     */
+    public NaiveDisambiguator(final Gazetteer gazetteer, final WikipediaLocationNetwork network) {
         super();
         this.gazetteer = gazetteer;
+        this.network = network;
     }
 
     /**
@@ -57,46 +65,28 @@ public class NaiveDisambiguator extends ToponymDisambiguator {
      * Overridden implementation of the abstract disambiguate method. Gathering all ids and iterating over each
      * linked toponym, then calling the resolvePlace function to determine the best fitting location.
      *
-     * @param namedEntities the {@link CoreAnnotations.MentionsAnnotation}, from which to disambiguate contained toponyms.
-     * @param document      the source document.
-     * @param sentence      the source sentence.
-     * @return
+     * @param context the context holding the named entities to disambiguate.
+     * @return list of resolved locations.
      */
     @Override
-    public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-                                               final CoreMap sentence) {
-        final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
-        List<Place> allLinkedPlaces = new ArrayList<>();
-
-
-        namedEntities.forEach(entity -> {
-            if (entity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class) != null) {
-                allLinkedPlaces.addAll(entity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class));
-            }
-        });
-
-        allLinkedPlaces.forEach(list -> allLinkedIds.add(list.getId()));
-
-        for (final CoreMap namedEntity : namedEntities) {
-            if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
-                    NamedEntityType.LOCATION.name)) {
-                output.add(null);
-                continue;
-            }
-
-            final List<Place> linkedPlaces = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
-            if (linkedPlaces == null || linkedPlaces.isEmpty()) {
+    public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+        final int size = context.getNamedEntities().size();
+        final List<ResolvedLocation> output = new ArrayList<>(size);
+        final Set<Long> allLinkedIds = context.getLinkedPlaceIds();
+
+        for (int i = 0; i < size; i++) {
+            final List<Place> linkedPlaces = context.getCandidates(i);
+            if (linkedPlaces == null) {
                 output.add(null);
                 continue;
             }
-            Place resolvedLocation = resolvePlace(linkedPlaces);
+            Place resolvedLocation = resolvePlace(linkedPlaces, allLinkedIds);
 
             if (resolvedLocation == null) {
                 resolvedLocation = HighestPopulationDisambiguator.getPlaceWithHighestPopulation(linkedPlaces);
             }
             output.add(new ResolvedLocation(resolvedLocation));
         }
-        allLinkedIds.clear();
 
         return output;
     }
@@ -106,9 +96,10 @@ public class NaiveDisambiguator extends ToponymDisambiguator {
      * all edge weights from the WikipediaLocationNetwork.
      *
      * @param linkedPlaces All candidate locations for one mentioned entity.
+     * @param allLinkedIds identifiers of all candidate locations of the document.
      * @return Candidate with the highest scores/sum of edge weights.
      */
-    private Place resolvePlace(final List<Place> linkedPlaces) {
+    private Place resolvePlace(final List<Place> linkedPlaces, final Set<Long> allLinkedIds) {
         final Set<Long> idsSamePlace = new HashSet<>();
         final Set<Long> filteredPlaceIds = new HashSet<>(allLinkedIds);
         double topScore = 0.0;
@@ -123,20 +114,8 @@ public class NaiveDisambiguator extends ToponymDisambiguator {
         }
 
         for (final Place linkedPlace : linkedPlaces) {
-            double tmpScore = 0.0;
-
-            // retrieve all edge weights between this place and all candidates from other named entities
-            final List relationships = gazetteer.getEntityManger().createNativeQuery("SELECT value " +
-                    "FROM place_relationship WHERE left_place_id = ?1 AND right_place_id IN ?2 AND type_id=33 OR " +
-                    "right_place_id = ?1 AND left_place_id IN ?2 AND type_id=33")
-                    .setParameter(1, linkedPlace.getId())
-                    .setParameter(2, allLinkedIds)
-                    .getResultList();
-
-            // sum up edge weights to temporal score
-            for (Object relationship : relationships) {
-                tmpScore = tmpScore + Double.parseDouble(relationship.toString());
-            }
+            final double tmpScore = network != null ? getNetworkEdgeWeightSum(linkedPlace.getId(), allLinkedIds)
+                    : queryEdgeWeightSum(linkedPlace.getId(), allLinkedIds);
 
             //check if score is new high score
             if (tmpScore > topScore) {
@@ -147,4 +126,46 @@ public class NaiveDisambiguator extends ToponymDisambiguator {
 
         return resolvedPlace;
     }
+
+    /**
+     * Sum up the edge weights between the given place and all candidates of the document using the in-memory network.
+     *
+     * @param placeId      identifier of the candidate location.
+     * @param allLinkedIds identifiers of all candidate locations of the document.
+     * @return sum of edge weights.
+     */
+    private double getNetworkEdgeWeightSum(final Long placeId, final Set<Long> allLinkedIds) {
+        double sum = 0.0;
+        for (final Long otherPlaceId : allLinkedIds) {
+            sum += network.getWeight(placeId, otherPlaceId);
+        }
+        return sum;
+    }
+
+    /**
+     * Sum up the edge weights between the given place and all candidates of the document by querying the
+     * WikipediaLocationNetwork relationships.
+     *
+     * @param placeId      identifier of the candidate location.
+     * @param allLinkedIds identifiers of all candidate locations of the document.
+     * @return sum of edge weights.
+     */
+    private double queryEdgeWeightSum(final Long placeId, final Set<Long> allLinkedIds) {
+        double sum = 0.0;
+
+        // retrieve all edge weights between this place and all candidates from other named entities
+        final List relationships = gazetteer.getEntityManger().createNativeQuery("SELECT value " +
+                "FROM place_relationship WHERE left_place_id = ?1 AND right_place_id IN ?2 AND type_id=33 OR " +
+                "right_place_id = ?1 AND left_place_id IN ?2 AND type_id=33")
+                .setParameter(1, placeId)
+                .setParameter(2, allLinkedIds)
+                .getResultList();
+
+        // sum up edge weights to temporal score
+        for (Object relationship : relationships) {
+            sum = sum + Double.parseDouble(relationship.toString());
+        }
+
+        return sum;
+    }
 }
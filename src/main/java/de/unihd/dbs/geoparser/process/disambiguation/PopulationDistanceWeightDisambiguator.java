@@ -1,18 +1,15 @@
 package de.unihd.dbs.geoparser.process.disambiguation;
 
 import com.vividsolutions.jts.geom.Coordinate;
-import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
-import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
 import de.unihd.dbs.geoparser.gazetteer.models.AbstractEntity;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceProperty;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
-import de.unihd.dbs.geoparser.process.util.Haversine;
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
+import de.unihd.dbs.geoparser.process.util.DistanceSumCalculator;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
 import edu.stanford.nlp.pipeline.Annotator;
-import edu.stanford.nlp.util.CoreMap;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -25,8 +22,9 @@ import java.util.stream.Collectors;
  * @author Fabio Becker
  */
 public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator {
-    private Gazetteer gazetteer;
-    private Map<Long, Double> placeDistances;
+    private final Gazetteer gazetteer;
+    private final WikipediaLocationNetwork network;
+    private final DistanceSumCalculator distanceCalculator = new DistanceSumCalculator();
 
     /**
      * Constructor.
@@ -34,8 +32,20 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
      * @param gazetteer currently used gazetteer instance.
      */
     public PopulationDistanceWeightDisambiguator(final Gazetteer gazetteer) {
+        this(gazetteer, null);
+    }
+
+    /**
+     * Constructor using an in-memory WikipediaLocationNetwork instead of querying the <code>wln</code> table.
+     *
+     * @param gazetteer currently used gazetteer instance.
+     * @param network   the network built from the <code>wln</code> table. If <code>null</code>, edge weights are
+     *                  queried from the gazetteer.
+     */
+    public PopulationDistanceWeightDisambiguator(final Gazetteer gazetteer, final WikipediaLocationNetwork network) {
         super();
         this.gazetteer = gazetteer;
+        this.network = network;
     }
 
     /**
@@ -61,53 +71,39 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
     /**
      * Core function used by the geoparsing pipeline.
      *
-     * @param namedEntities the {@link CoreAnnotations.MentionsAnnotation}, from which to disambiguate contained toponyms.
-     * @param document      the source document.
-     * @param sentence      the source sentence.
-     * @return set of resolved locations.
+     * @param context the context holding the named entities to disambiguate.
+     * @return the resolved location per named entity, or <code>null</code> for named entities without candidates.
      */
     @Override
-    public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-                                               final CoreMap sentence) {
-        final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
-        final List<ArrayList<Long>> allLinkedPlacesIdList = new ArrayList<>();
-        final List<ArrayList<Place>> allLinkedPlacesList = new ArrayList<>();
-        final Map<Long, Coordinate> placeCoordinates;
-
-        namedEntities.forEach(entity -> {
-            try {
-                allLinkedPlacesList.add(new ArrayList<>(entity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class)));
-            } catch (NullPointerException ignored) {
-            }
-        });
-        placeCoordinates = getAllCoordinates(allLinkedPlacesList);
+    public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+        final int size = context.getNamedEntities().size();
+        final List<ResolvedLocation> output = new ArrayList<>(size);
+        final List<List<Place>> allLinkedPlacesList = context.getLinkedPlaces();
 
         if (allLinkedPlacesList.isEmpty()) {
-            output.add(null);
-            return output;
+            return new ArrayList<>(Collections.nCopies(size, null));
         }
 
-        allLinkedPlacesList.forEach(list -> allLinkedPlacesIdList.add(new ArrayList<>(list.stream().map(AbstractEntity::getId).collect(Collectors.toList()))));
+        final List<List<Long>> allLinkedPlacesIdList = new ArrayList<>(allLinkedPlacesList.size());
+        allLinkedPlacesList.forEach(list -> allLinkedPlacesIdList.add(list.stream().map(AbstractEntity::getId)
+                .collect(Collectors.toList())));
 
-        placeDistances = getAllDistances(placeCoordinates, allLinkedPlacesIdList);
+        final Map<Long, Double> placeDistances = getAllDistances(getAllCoordinates(allLinkedPlacesList));
+        final WikipediaLocationNetwork edges = network != null ? network
+                : WikipediaLocationNetwork.loadFromWlnTable(gazetteer, context.getLinkedPlaceIds());
+        final Map<Long, Double> weightSums = getWeightSums(edges, allLinkedPlacesIdList);
 
-        for (final CoreMap namedEntity : namedEntities) {
+        for (int i = 0; i < size; i++) {
             Place resolvedPlace;
 
-            if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
-                    NamedEntityType.LOCATION.name)) {
-                output.add(null);
-                continue;
-            }
-
-            final List<Place> linkedPlaces = namedEntity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class);
+            final List<Place> linkedPlaces = context.getCandidates(i);
 
-            if (linkedPlaces == null || linkedPlaces.isEmpty()) {
+            if (linkedPlaces == null) {
                 output.add(null);
                 continue;
             }
 
-            resolvedPlace = resolveByScore(linkedPlaces, allLinkedPlacesIdList);
+            resolvedPlace = resolveByScore(linkedPlaces, placeDistances, weightSums);
 
             if (resolvedPlace == null) {
                 resolvedPlace = linkedPlaces.get(0);
@@ -115,7 +111,6 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
 
             output.add(new ResolvedLocation(resolvedPlace));
         }
-        placeDistances.clear();
         return output;
     }
 
@@ -125,7 +120,7 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
      * @param allLinkedPlaces all candidate locations retrieved for a toponym.
      * @return map containing coordinates associated with a place identifier.
      */
-    private Map<Long, Coordinate> getAllCoordinates(final List<ArrayList<Place>> allLinkedPlaces) {
+    private Map<Long, Coordinate> getAllCoordinates(final List<List<Place>> allLinkedPlaces) {
         Map<Long, Coordinate> resultMap = new HashMap<>();
 
         for (final List<Place> places : allLinkedPlaces) {
@@ -141,25 +136,27 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
     /**
      * Creates a map for each linked toponym with the sum of its distances to all other toponyms.
      *
-     * @param allCoordinates place identifier and coordinate mapping
-     * @param allPlaceIds    list of all candidate places retrieved from the document.
+     * @param allCoordinates place identifier and coordinate mapping of all candidate places retrieved from the document
      * @return map containing place identifiers and the according sum of distances to all candidate locations
      */
-    private Map<Long, Double> getAllDistances(final Map<Long, Coordinate> allCoordinates, final List<ArrayList<Long>> allPlaceIds) {
-        Map<Long, Double> resultMap = new HashMap<>();
-
-        for (final ArrayList<Long> places : allPlaceIds) {
-            for (final Long place : places) {
-                List<Double> sum = new ArrayList<>();
-
-                allCoordinates.forEach((aLong, coordinate) -> {
-                    if (!aLong.equals(place)) {
-                        sum.add(Haversine.distance(coordinate.y, coordinate.x, allCoordinates.get(place).y, allCoordinates.get(place).x));
-                    }
-                });
+    private Map<Long, Double> getAllDistances(final Map<Long, Coordinate> allCoordinates) {
+        final Map<Long, Double> resultMap = new HashMap<>();
+        final int count = allCoordinates.size();
+        final long[] placeIds = new long[count];
+        final double[] latitudes = new double[count];
+        final double[] longitudes = new double[count];
+
+        int i = 0;
+        for (final Map.Entry<Long, Coordinate> entry : allCoordinates.entrySet()) {
+            placeIds[i] = entry.getKey();
+            latitudes[i] = entry.getValue().y;
+            longitudes[i] = entry.getValue().x;
+            i++;
+        }
 
-                resultMap.put(place, sum.stream().mapToDouble(Double::doubleValue).sum());
-            }
+        final double[] distanceSums = distanceCalculator.calculateDistanceSums(latitudes, longitudes, count);
+        for (i = 0; i < count; i++) {
+            resultMap.put(placeIds[i], distanceSums[i]);
         }
 
         return resultMap;
@@ -172,14 +169,15 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
      * Note that this calculation can be weighted in various ways and may be extended by additional components, such as
      * administrative levels.
      *
-     * @param places candidate locations.
+     * @param places         candidate locations.
+     * @param placeDistances summarized distances of all candidate locations of the document.
+     * @param weightSums     edge weight scores of all candidate locations of the document.
      * @return candidate with best score.
      */
-
-    private Place resolveByScore(final List<Place> places, final List<ArrayList<Long>> allLinkedIds) {
+    private Place resolveByScore(final List<Place> places, final Map<Long, Double> placeDistances,
+                                 final Map<Long, Double> weightSums) {
         Place resolvedPlace = null;
         double tmpScore = 0.0;
-        final Map<Long, Double> weightMap = getWeightSum(places, allLinkedIds);
 
         for (final Place place : places) {
             final Long placeId = place.getId();
@@ -187,14 +185,16 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
             double weightBonus = 1.0;
             double popBonus = 1.0;
 
-            if (weightMap.containsKey(placeId)) {
-                weightBonus = 0.5 - weightMap.get(placeId);
+            if (weightSums.containsKey(placeId)) {
+                weightBonus = 0.5 - weightSums.get(placeId);
             }
 
-            try {
-                popBonus = (1 / Double.parseDouble(place.getPropertiesByType("population")
-                        .iterator().next().getValue()));
-            } catch (Exception ignored) {
+            final Set<PlaceProperty> populationNumbers = place.getPropertiesByType("population");
+            if (!populationNumbers.isEmpty()) {
+                final Double population = populationNumbers.iterator().next().getNumericValue();
+                if (population != null) {
+                    popBonus = 1 / population;
+                }
             }
 
             try {
@@ -212,38 +212,34 @@ public class PopulationDistanceWeightDisambiguator extends ToponymDisambiguator
     }
 
     /**
-     * Compute a score by retrieving the best edge weight of a place to a bucket of candidates (candidate set for a
-     * specific location in the document). All score are summed up and stored in a map.
+     * Compute a score for every candidate by retrieving the best edge weight of a place to each bucket of candidates
+     * (candidate set for a specific location in the document). All scores of a candidate are summed up and stored in
+     * a map.
      *
-     * @param linkedPlaces candidate locations for the current toponym
+     * @param edges        network containing (at least) all edges among the candidates
      * @param allLinkedIds all candidate location identifiers retrieved from the document
      * @return map containing the identifier of a location and its according score.
      */
-    private Map<Long, Double> getWeightSum(final List<Place> linkedPlaces, final List<ArrayList<Long>> allLinkedIds) {
+    private Map<Long, Double> getWeightSums(final WikipediaLocationNetwork edges, final List<List<Long>> allLinkedIds) {
         Map<Long, Double> resultMap = new HashMap<>();
 
-        for (final Place linkedPlace : linkedPlaces) {
-            Long placeId = linkedPlace.getId();
-            double tmpScore = 0.0;
-
-            for (ArrayList<Long> bucket : allLinkedIds) {
-                if (bucket.contains(placeId)) continue;
+        for (final List<Long> places : allLinkedIds) {
+            for (final Long placeId : places) {
+                if (resultMap.containsKey(placeId) || !edges.contains(placeId)) continue;
+                double tmpScore = 0.0;
 
-                // retrieve all edge weights between this place and all candidates from other named entities
-                final List<Object[]> relationships = gazetteer.getEntityManger().createNativeQuery("SELECT place_1, place_2, weight " +
-                        "FROM wln WHERE place_1 = ?1 AND place_2 IN ?2 OR " +
-                        "place_2 = ?1 AND place_1 IN ?2 ORDER BY cast(weight AS DOUBLE PRECISION) DESC LIMIT 1")
-                        .setParameter(1, placeId)
-                        .setParameter(2, bucket)
-                        .getResultList();
+                for (List<Long> bucket : allLinkedIds) {
+                    if (bucket.contains(placeId)) continue;
 
-                if (relationships.isEmpty()) {
-                    continue;
+                    float bestWeight = 0.0f;
+                    for (final Long otherPlaceId : bucket) {
+                        bestWeight = Math.max(bestWeight, edges.getWeight(placeId, otherPlaceId));
+                    }
+                    tmpScore += bestWeight;
+                }
+                if (tmpScore != 0.0) {
+                    resultMap.put(placeId, tmpScore);
                 }
-                tmpScore += Double.parseDouble(relationships.get(0)[2].toString());
-            }
-            if (tmpScore != 0.0) {
-                resultMap.put(placeId, tmpScore);
             }
         }
 
@@ -0,0 +1,169 @@
+package de.unihd.dbs.geoparser.process.disambiguation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.strtree.ItemDistance;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.CandidateMatrix;
+import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
+
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+
+/**
+ * Implementation of {@link ToponymDisambiguator} that disambiguates toponyms by spatial minimality, i.e., it selects
+ * the combination of candidates that lie closest together.
+ * <p>
+ * The combination is built greedily like a minimum spanning tree: first, the candidate with the smallest sum of
+ * distances to the closest candidates of all other toponyms is selected as anchor. Then, the toponym whose closest
+ * candidate is nearest to any of the selected candidates is resolved to that candidate, until all toponyms are
+ * resolved. The candidates of each toponym are stored in an {@link STRtree}, so nearest neighbors are found in
+ * logarithmic time instead of comparing all pairs of candidates. The tree search uses planar distances of the
+ * coordinates, while the selection uses great-circle distances.
+ * <p>
+ * Toponyms without any candidate with coordinates are resolved to the candidate with the highest population.
+ *
+ * @author lrichter
+ *
+ */
+public class SpatialMinimalityDisambiguator extends ToponymDisambiguator {
+
+	private static final int NODE_CAPACITY = 10;
+
+	@Override
+	public Set<Requirement> requires() {
+		return Collections.singleton(ToponymLinkingAnnotator.TOPONYM_LINKING_REQUIREMENT);
+	}
+
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+		final CandidateMatrix matrix = CandidateMatrix.of(context);
+		final int mentionCount = matrix.getMentionCount();
+		final STRtree[] trees = buildTrees(matrix);
+		final ItemDistance planarDistance = (item1, item2) -> {
+			final int row1 = (Integer) item1.getItem();
+			final int row2 = (Integer) item2.getItem();
+			return Math.hypot(matrix.getLongitude(row1) - matrix.getLongitude(row2),
+					matrix.getLatitude(row1) - matrix.getLatitude(row2));
+		};
+
+		final int[] resolvedRows = new int[mentionCount];
+		Arrays.fill(resolvedRows, -1);
+		final int anchor = findAnchor(matrix, trees, planarDistance);
+		if (anchor >= 0) {
+			final int[] nearestRows = new int[mentionCount];
+			final double[] nearestDistances = new double[mentionCount];
+			Arrays.fill(nearestDistances, Double.POSITIVE_INFINITY);
+
+			int row = anchor;
+			while (row >= 0) {
+				resolvedRows[matrix.getMentionIndex(row)] = row;
+
+				// update the closest candidate of each unresolved toponym with the newly resolved candidate
+				int nextMention = -1;
+				for (int mention = 0; mention < mentionCount; mention++) {
+					if (trees[mention] == null || resolvedRows[mention] >= 0) {
+						continue;
+					}
+					final int nearestRow = getNearestRow(trees[mention], row, matrix, planarDistance);
+					final double distance = getDistance(matrix, row, nearestRow);
+					if (distance < nearestDistances[mention]) {
+						nearestRows[mention] = nearestRow;
+						nearestDistances[mention] = distance;
+					}
+					if (nextMention < 0 || nearestDistances[mention] < nearestDistances[nextMention]) {
+						nextMention = mention;
+					}
+				}
+				row = nextMention >= 0 ? nearestRows[nextMention] : -1;
+			}
+		}
+
+		final List<ResolvedLocation> output = new ArrayList<>(mentionCount);
+		for (int mention = 0; mention < mentionCount; mention++) {
+			if (resolvedRows[mention] >= 0) {
+				output.add(new ResolvedLocation(matrix.getPlace(resolvedRows[mention])));
+			}
+			else if (context.getCandidates(mention) != null) {
+				output.add(new ResolvedLocation(
+						HighestPopulationDisambiguator.getPlaceWithHighestPopulation(context.getCandidates(mention))));
+			}
+			else {
+				output.add(null);
+			}
+		}
+
+		return output;
+	}
+
+	private static STRtree[] buildTrees(final CandidateMatrix matrix) {
+		final STRtree[] trees = new STRtree[matrix.getMentionCount()];
+		for (int mention = 0; mention < trees.length; mention++) {
+			for (int row = matrix.getBegin(mention); row < matrix.getEnd(mention); row++) {
+				if (matrix.hasCoordinate(row)) {
+					if (trees[mention] == null) {
+						trees[mention] = new STRtree(NODE_CAPACITY);
+					}
+					trees[mention].insert(getEnvelope(matrix, row), row);
+				}
+			}
+			if (trees[mention] != null) {
+				trees[mention].build();
+			}
+		}
+		return trees;
+	}
+
+	/**
+	 * Find the candidate with the smallest sum of distances to the closest candidates of all other toponyms. Ties are
+	 * resolved in favor of the candidate ranked first by the linker.
+	 */
+	private static int findAnchor(final CandidateMatrix matrix, final STRtree[] trees,
+			final ItemDistance planarDistance) {
+		int anchor = -1;
+		double smallestDistanceSum = Double.POSITIVE_INFINITY;
+		for (int row = 0; row < matrix.size(); row++) {
+			if (!matrix.hasCoordinate(row)) {
+				continue;
+			}
+			double distanceSum = 0;
+			for (int mention = 0; mention < trees.length && distanceSum < smallestDistanceSum; mention++) {
+				if (trees[mention] != null && mention != matrix.getMentionIndex(row)) {
+					distanceSum += getDistance(matrix, row,
+							getNearestRow(trees[mention], row, matrix, planarDistance));
+				}
+			}
+			if (distanceSum < smallestDistanceSum) {
+				anchor = row;
+				smallestDistanceSum = distanceSum;
+			}
+		}
+		return anchor;
+	}
+
+	private static int getNearestRow(final STRtree tree, final int row, final CandidateMatrix matrix,
+			final ItemDistance planarDistance) {
+		return (Integer) tree.nearestNeighbour(getEnvelope(matrix, row), row, planarDistance);
+	}
+
+	private static Envelope getEnvelope(final CandidateMatrix matrix, final int row) {
+		return new Envelope(new Coordinate(matrix.getLongitude(row), matrix.getLatitude(row)));
+	}
+
+	private static double getDistance(final CandidateMatrix matrix, final int row1, final int row2) {
+		return matrix.getPoints().distance(row1, row2);
+	}
+
+}
@@ -14,6 +14,10 @@ import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Base class for toponym disambiguation modules.
+ * <p>
+ * Implementations must not keep per-document state in fields. All state of a single call belongs to the
+ * {@link DisambiguationContext} passed to {@link #disambiguate(DisambiguationContext)}, so a disambiguator can be
+ * shared by concurrently processed documents.
  * 
  * @author lrichter
  * 
@@ -72,7 +76,19 @@ public abstract class ToponymDisambiguator {
 	 *         Undisambiguated or non-toponym entities are represented by a <code>null</code> entry. Consequently, the
 	 *         input list has the same size as the output list.
 	 */
-	public abstract List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-			final CoreMap sentence);
+	public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
+			final CoreMap sentence) {
+		return disambiguate(new DisambiguationContext(namedEntities, document, sentence));
+	}
+
+	/**
+	 * Disambiguate toponyms.
+	 * 
+	 * @param context the context holding the named entities to disambiguate and their source.
+	 * @return a list of {@link ResolvedLocationAnnotation} entries representing the disambiguated toponyms.
+	 *         Undisambiguated or non-toponym entities are represented by a <code>null</code> entry. Consequently, the
+	 *         list of named entities has the same size as the output list.
+	 */
+	public abstract List<ResolvedLocation> disambiguate(final DisambiguationContext context);
 
 }
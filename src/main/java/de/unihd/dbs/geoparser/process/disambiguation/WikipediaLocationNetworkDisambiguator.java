@@ -1,32 +1,35 @@
 package de.unihd.dbs.geoparser.process.disambiguation;
 
-import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
-import de.unihd.dbs.geoparser.gazetteer.models.AbstractEntity;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
-import edu.stanford.nlp.ling.CoreAnnotations;
-import edu.stanford.nlp.pipeline.Annotation;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
 import edu.stanford.nlp.pipeline.Annotator.Requirement;
-import edu.stanford.nlp.util.CollectionUtils;
-import edu.stanford.nlp.util.CoreMap;
 
-import java.math.BigInteger;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of {@link ToponymDisambiguator} that disambiguates toponyms by the edges of the Wikipedia-Location-Network.
- * The edge between two toponyms in a sentence with the highest value predicts the most likely match for the linked toponyms.
+ * <p>
+ * The candidates of all toponyms of a document and the WLN edges between candidates of different toponyms form a
+ * candidate graph, which is built in memory from a single query (or from an in-memory network). Toponyms with exactly
+ * one candidate in this graph are seeds and resolved to that candidate. Starting from the seeds, relevance is
+ * propagated along the weighted edges by a personalized PageRank, and every other toponym is resolved to its candidate
+ * that received the most relevance. If there are no seeds, the propagation starts from all candidates instead. Toponyms
+ * without connected candidates are resolved to the candidate with the highest population.
  *
  * @author fbecker
  */
 public class WikipediaLocationNetworkDisambiguator extends ToponymDisambiguator {
     private final Gazetteer gazetteer;
-    private List<Place> unambiguousPlaces = new ArrayList<>();
-    private Map<Long, List<Double>> seeds = new HashMap<>();
+    private final WikipediaLocationNetwork network;
     private static final Double WEIGHT_THRESHOLD = 0.0;
+    private static final double DAMPING_FACTOR = 0.85;
+    private static final int MAX_ITERATIONS = 50;
+    private static final double CONVERGENCE_THRESHOLD = 1e-6;
+    private static final int PARALLEL_THRESHOLD = 1024;
 
     /**
      * Constructor.
@@ -34,8 +37,20 @@ public class WikipediaLocationNetworkDisambiguator extends ToponymDisambiguator
      * @param gazetteer currently used gazetteer instance.
      */
     public WikipediaLocationNetworkDisambiguator(final Gazetteer gazetteer) {
+        this(gazetteer, null);
+    }
+
+    /**
+     * Constructor using an in-memory WikipediaLocationNetwork instead of querying the <code>wln</code> table.
+     *
+     * @param gazetteer currently used gazetteer instance.
+     * @param network   the network built from the <code>wln</code> table. If <code>null</code>, edges are queried from
+     *                  the gazetteer.
+     */
+    public WikipediaLocationNetworkDisambiguator(final Gazetteer gazetteer, final WikipediaLocationNetwork network) {
         super();
         this.gazetteer = gazetteer;
+        this.network = network;
     }
 
     /**
@@ -61,55 +76,49 @@ public class WikipediaLocationNetworkDisambiguator extends ToponymDisambiguator
     /**
      * Core function used by the geoparsing pipeline.
      *
-     * @param namedEntities the {@link CoreAnnotations.MentionsAnnotation}, from which to disambiguate contained toponyms.
-     * @param document      the source document.
-     * @param sentence      the source sentence.
-     * @return set of resolved locations.
+     * @param context the context holding the named entities to disambiguate.
+     * @return the resolved location per named entity, or <code>null</code> for named entities without candidates.
      */
     @Override
-    public List<ResolvedLocation> disambiguate(final List<CoreMap> namedEntities, final Annotation document,
-                                               final CoreMap sentence) {
-        final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
-        final List<ArrayList<Long>> allLinkedPlacesIdList = new ArrayList<>();
-        final List<ArrayList<Place>> allLinkedPlacesList = new ArrayList<>();
-
-        namedEntities.forEach(entity -> {
-            try {
-                allLinkedPlacesList.add(new ArrayList<>(entity.get(GeoparsingAnnotations.GazetteerEntriesAnnotation.class)));
-            } catch (NullPointerException ignored) {
-            }
-        });
-
-        if (allLinkedPlacesList.isEmpty()) {
-            output.add(null);
-            return output;
+    public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+        final int size = context.getNamedEntities().size();
+        final List<ResolvedLocation> output = new ArrayList<>(size);
+        final List<List<Place>> allLinkedPlacesList = new ArrayList<>(size);
+        boolean linked = false;
+
+        for (int i = 0; i < size; i++) {
+            final List<Place> linkedPlaces = context.getCandidates(i);
+            allLinkedPlacesList.add(linkedPlaces == null ? Collections.emptyList() : linkedPlaces);
+            linked |= linkedPlaces != null;
         }
 
-        allLinkedPlacesList.forEach(list -> allLinkedPlacesIdList.add(new ArrayList<>(list.stream().map(AbstractEntity::getId).collect(Collectors.toList()))));
+        if (!linked) {
+            return new ArrayList<>(Collections.nCopies(size, null));
+        }
 
-        final List<Long> allLinkedIds = allLinkedPlacesIdList.stream().flatMap(Collection::stream).collect(Collectors.toList());
+        final WikipediaLocationNetwork edges = network != null ? network
+                : WikipediaLocationNetwork.loadFromWlnTable(gazetteer, context.getLinkedPlaceIds());
+        final CandidateGraph graph = new CandidateGraph(allLinkedPlacesList, edges);
+        final int[] seedRows = graph.getSeedRows();
+        final double[] relevance = graph.propagate(seedRows);
 
-        allLinkedPlacesList.forEach(places -> {
-            try {
-                getSeed(places, allLinkedIds);
-            } catch (NullPointerException ignored) {
+        for (int mention = 0; mention < size; mention++) {
+            if (allLinkedPlacesList.get(mention).isEmpty()) {
+                output.add(null);
+                continue;
             }
-        });
 
-        for (final List<Place> linkedPlaces : allLinkedPlacesList) {
             Place resolvedLocation = null;
 
-            if (!Collections.disjoint(unambiguousPlaces, linkedPlaces)) {
-                List<Place> getIntersection = new ArrayList<>(unambiguousPlaces);
-
-                getIntersection.retainAll(linkedPlaces);
-                resolvedLocation = getIntersection.get(0);
-            } else if (!unambiguousPlaces.isEmpty() && unambiguousPlaces.size() != namedEntities.size()) {
-                resolvedLocation = getPlaceByEdgeWeightSum(new HashSet<>(linkedPlaces));
+            if (seedRows[mention] >= 0) {
+                resolvedLocation = graph.places[seedRows[mention]];
+            } else {
+                resolvedLocation = getPlaceByRelevance(graph, mention, relevance);
             }
 
             if (resolvedLocation == null) {
-                resolvedLocation = HighestPopulationDisambiguator.getPlaceWithHighestPopulation(new ArrayList<>(linkedPlaces));
+                resolvedLocation = HighestPopulationDisambiguator.getPlaceWithHighestPopulation(
+                        new ArrayList<>(allLinkedPlacesList.get(mention)));
             }
 
             try {
@@ -119,140 +128,192 @@ public class WikipediaLocationNetworkDisambiguator extends ToponymDisambiguator
             }
         }
 
-        seeds.clear();
-        unambiguousPlaces.clear();
-
         return output;
     }
 
     /**
-     * Retrieves the intersecting ids of all candidate locations and those present in the WLN.
+     * Retrieves the candidate of a toponym that received the most relevance from the other toponyms.
      *
-     * @param allLinkedIds identifiers for all candidate locations.
-     * @return identifiers that occur in the WLN.
+     * @param graph     the candidate graph.
+     * @param mention   index of the current toponym.
+     * @param relevance relevance received by each candidate via the edges of the graph.
+     * @return best scoring candidate location or <code>null</code>, if no candidate received relevance.
      */
-    private Set<Long> getIdsInWLN(final List<Long> allLinkedIds) {
-        final Set<Long> occurredIds = new HashSet<>();
-        final List<Object> checkSeedList = new ArrayList<Object>(gazetteer.getEntityManger().createNativeQuery("SELECT * FROM " +
-                "(SELECT DISTINCT place_1 FROM wln " +
-                "WHERE wln.place_1 IN :ids UNION DISTINCT " +
-                "SELECT DISTINCT place_2 FROM wln WHERE wln.place_2 IN :ids) AS ids")
-                .setParameter("ids", allLinkedIds)
-                .getResultList());
-
-        checkSeedList.forEach(id -> occurredIds.add(((BigInteger) id).longValue()));
-        return occurredIds;
-    }
-
-    /**
-     * Retrieves seed locations, i.e., locations where exactly one candidate appears in the WLN.
-     * These locations are used as the base neighbourhood of locations in a document.
-     *
-     * @param linkedPlaces    candidate locations for the current place.
-     * @param allLinkedPlaces identifiers of all candidate locations.
-     */
-    private void getSeed(final List<Place> linkedPlaces, final List<Long> allLinkedPlaces) {
-        Place seedPlace;
-        Set<Long> linkedIds = new HashSet<>(linkedPlaces.size());
-
-        linkedPlaces.forEach(place -> linkedIds.add(place.getId()));
+    private Place getPlaceByRelevance(final CandidateGraph graph, final int mention, final double[] relevance) {
+        double bestRelevance = WEIGHT_THRESHOLD;
+        Place output = null;
 
-        final List<Long> intersection = new ArrayList<>(CollectionUtils.intersection(linkedIds, getIdsInWLN(allLinkedPlaces)));
-        if (intersection.size() == 1) {
-            seedPlace = gazetteer.getPlace(intersection.get(0));
-            fillSeedMap(seedPlace.getId(), allLinkedPlaces);
-            unambiguousPlaces.add(seedPlace);
+        for (int row = graph.mentionBegin[mention]; row < graph.mentionBegin[mention + 1]; row++) {
+            if (relevance[row] > bestRelevance) {
+                bestRelevance = relevance[row];
+                output = graph.places[row];
+            }
         }
+        return output;
     }
 
     /**
-     * Computes the sum of edge weights between a candidate and all seed locations.
-     *
-     * @param place current candidate location.
-     * @return sum of edge weights to all seed locations.
+     * Graph of the candidates of a document, stored in compressed sparse row format. Each candidate of each toponym is
+     * a row, and rows are connected by the WLN edges between candidates of different toponyms.
      */
-    private double getSeedRelations(final Place place) {
-        double sum = 0.0;
-        List<Double> seedWeights = seeds.get(place.getId());
-
-        if (seedWeights != null) {
-            for (double aDouble : seedWeights) {
-                sum += aDouble;
+    private static final class CandidateGraph {
+        private final Place[] places;
+        private final int[] mentionBegin;
+        private final int[] edgeBegin;
+        private final int[] edgeRows;
+        private final double[] edgeWeights;
+        private final double[] outWeights;
+
+        private CandidateGraph(final List<List<Place>> allLinkedPlacesList, final WikipediaLocationNetwork network) {
+            mentionBegin = new int[allLinkedPlacesList.size() + 1];
+            for (int mention = 0; mention < allLinkedPlacesList.size(); mention++) {
+                mentionBegin[mention + 1] = mentionBegin[mention] + allLinkedPlacesList.get(mention).size();
             }
-        }
-        return sum;
-    }
 
-    /**
-     * Retrieves the best scoring candidate per bucket (set of candidates).
-     *
-     * @param linkedPlaces candidate locations of the current toponym.
-     * @return best scoring candidate location.
-     */
-    private Place getPlaceByEdgeWeightSum(final Set<Place> linkedPlaces) {
-        double edgeWeightSum = 0.0;
-        Place output = null;
+            final int rowCount = mentionBegin[allLinkedPlacesList.size()];
+            places = new Place[rowCount];
+            final int[] rowMentions = new int[rowCount];
+            final Map<Long, List<Integer>> rowsById = new HashMap<>(rowCount * 2);
+            for (int mention = 0; mention < allLinkedPlacesList.size(); mention++) {
+                int row = mentionBegin[mention];
+                for (final Place place : allLinkedPlacesList.get(mention)) {
+                    places[row] = place;
+                    rowMentions[row] = mention;
+                    if (place.getId() != null) {
+                        rowsById.computeIfAbsent(place.getId(), id -> new ArrayList<>(1)).add(row);
+                    }
+                    row++;
+                }
+            }
 
-        for (final Place place : linkedPlaces) {
-            double tempSum = getSeedRelations(place);
-            if (tempSum > edgeWeightSum && tempSum > WEIGHT_THRESHOLD) {
-                edgeWeightSum = tempSum;
-                output = place;
+            edgeBegin = new int[rowCount + 1];
+            int[] rows = new int[rowCount];
+            double[] weights = new double[rowCount];
+            int edgeCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                edgeBegin[row] = edgeCount;
+                final int ordinal = places[row].getId() != null ? network.getOrdinal(places[row].getId()) : -1;
+                if (ordinal < 0) {
+                    continue;
+                }
+                for (int edge = network.getEdgeBegin(ordinal); edge < network.getEdgeEnd(ordinal); edge++) {
+                    final List<Integer> neighborRows = rowsById.get(network.getPlaceId(network.getNeighborOrdinal(edge)));
+                    if (neighborRows == null || network.getEdgeWeight(edge) <= 0) {
+                        continue;
+                    }
+                    for (final int neighborRow : neighborRows) {
+                        if (rowMentions[neighborRow] == rowMentions[row]) {
+                            continue;
+                        }
+                        if (edgeCount == rows.length) {
+                            rows = Arrays.copyOf(rows, rows.length * 2);
+                            weights = Arrays.copyOf(weights, weights.length * 2);
+                        }
+                        rows[edgeCount] = neighborRow;
+                        weights[edgeCount] = network.getEdgeWeight(edge);
+                        edgeCount++;
+                    }
+                }
+            }
+            edgeBegin[rowCount] = edgeCount;
+            edgeRows = rows;
+            edgeWeights = weights;
+
+            outWeights = new double[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                for (int edge = edgeBegin[row]; edge < edgeBegin[row + 1]; edge++) {
+                    outWeights[row] += edgeWeights[edge];
+                }
             }
         }
-        return output;
-    }
-
-    /**
-     * Fill the map with seed locations and a list of edges to candidates from the document.
-     *
-     * @param id              current seed id.
-     * @param allLinkedPlaces identifiers of all candidate locations.
-     */
-    private void fillSeedMap(final Long id, final List<Long> allLinkedPlaces) {
-        final List<Object[]> queryList = new ArrayList<Object[]>(gazetteer.getEntityManger().createNativeQuery("SELECT " +
-                "weight, place_1, place_2 FROM wln " +
-                "WHERE (place_1 = CAST((:id) AS BIGINT) OR place_2 = CAST((:id) AS BIGINT))")
-                .setParameter("id", id).getResultList());
 
-        queryList.forEach(objects -> {
-            final List<Double> tmpList;
+        private boolean isConnected(final int row) {
+            return edgeBegin[row + 1] > edgeBegin[row];
+        }
 
-            if (objects[1] == id && allLinkedPlaces.contains(toLong(objects[2]))) {
-                tmpList = seeds.computeIfAbsent(toLong(objects[2]), aLong -> new ArrayList<Double>() {{
-                    add(strToDouble(objects[0].toString()));
-                }});
-                if (tmpList.size() > 1 || seeds.get(toLong(objects[2])).get(0).equals(strToDouble(objects[0].toString()))) {
-                    tmpList.add(strToDouble(objects[0].toString()));
+        /**
+         * Retrieves seed locations, i.e., candidates of toponyms where exactly one candidate is connected.
+         *
+         * @return the row of the seed per toponym or <code>-1</code>, if the toponym has no seed.
+         */
+        private int[] getSeedRows() {
+            final int[] seedRows = new int[mentionBegin.length - 1];
+            for (int mention = 0; mention < seedRows.length; mention++) {
+                seedRows[mention] = -1;
+                for (int row = mentionBegin[mention]; row < mentionBegin[mention + 1]; row++) {
+                    if (isConnected(row)) {
+                        if (seedRows[mention] != -1) {
+                            seedRows[mention] = -1;
+                            break;
+                        }
+                        seedRows[mention] = row;
+                    }
                 }
+            }
+            return seedRows;
+        }
+
+        /**
+         * Propagates relevance from the seeds along the edges by a personalized PageRank. If there are no seeds, all
+         * connected candidates are used as start, with each toponym receiving the same share.
+         *
+         * @param seedRows the row of the seed per toponym or <code>-1</code>.
+         * @return the relevance each candidate received via its edges, excluding the relevance of the start.
+         */
+        private double[] propagate(final int[] seedRows) {
+            final int rowCount = places.length;
+            final double[] start = new double[rowCount];
+            final long seedCount = Arrays.stream(seedRows).filter(row -> row >= 0).count();
+            if (seedCount > 0) {
+                Arrays.stream(seedRows).filter(row -> row >= 0).forEach(row -> start[row] += 1.0 / seedCount);
             } else {
-                tmpList = seeds.computeIfAbsent(toLong(objects[1]), aLong -> new ArrayList<Double>() {{
-                    add(strToDouble(objects[0].toString()));
-                }});
-                if (tmpList.size() > 1 || seeds.get(toLong(objects[1])).get(0).equals(strToDouble(objects[0].toString()))) {
-                    tmpList.add(strToDouble(objects[0].toString()));
+                int connectedMentions = 0;
+                for (int mention = 0; mention < seedRows.length; mention++) {
+                    if (IntStream.range(mentionBegin[mention], mentionBegin[mention + 1]).anyMatch(this::isConnected)) {
+                        connectedMentions++;
+                    }
+                }
+                for (int mention = 0; mention < seedRows.length; mention++) {
+                    final long connectedRows = IntStream.range(mentionBegin[mention], mentionBegin[mention + 1])
+                            .filter(this::isConnected).count();
+                    for (int row = mentionBegin[mention]; row < mentionBegin[mention + 1]; row++) {
+                        if (isConnected(row)) {
+                            start[row] = 1.0 / (connectedMentions * connectedRows);
+                        }
+                    }
                 }
             }
-        });
-    }
 
-    /**
-     * Util function for casting objects to type long.
-     *
-     * @param object to be cast.
-     * @return cast object.
-     */
-    private Long toLong(final Object object) {
-        return ((BigInteger) object).longValue();
-    }
+            double[] ranks = start.clone();
+            double[] nextRanks = new double[rowCount];
+            for (int iteration = 0; iteration < MAX_ITERATIONS && edgeBegin[rowCount] > 0; iteration++) {
+                final double[] currentRanks = ranks;
+                final double[] updatedRanks = nextRanks;
+                final IntStream rows = IntStream.range(0, rowCount);
+                (rowCount >= PARALLEL_THRESHOLD ? rows.parallel() : rows).forEach(row -> {
+                    double received = 0.0;
+                    for (int edge = edgeBegin[row]; edge < edgeBegin[row + 1]; edge++) {
+                        final int neighborRow = edgeRows[edge];
+                        received += currentRanks[neighborRow] * edgeWeights[edge] / outWeights[neighborRow];
+                    }
+                    updatedRanks[row] = (1 - DAMPING_FACTOR) * start[row] + DAMPING_FACTOR * received;
+                });
+
+                double change = 0.0;
+                for (int row = 0; row < rowCount; row++) {
+                    change += Math.abs(updatedRanks[row] - currentRanks[row]);
+                }
+                nextRanks = currentRanks;
+                ranks = updatedRanks;
+                if (change < CONVERGENCE_THRESHOLD) {
+                    break;
+                }
+            }
 
-    /**
-     * Util function for casting objects to type string.
-     *
-     * @param object to be cast.
-     * @return cast object.
-     */
-    private Double strToDouble(final Object object) {
-        return Double.parseDouble((String) object);
+            for (int row = 0; row < rowCount; row++) {
+                ranks[row] -= (1 - DAMPING_FACTOR) * start[row];
+            }
+            return ranks;
+        }
     }
 }
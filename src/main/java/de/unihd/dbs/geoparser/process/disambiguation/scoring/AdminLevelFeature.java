@@ -0,0 +1,55 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.Objects;
+
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.disambiguation.HighestAdminLevelDisambiguator;
+import de.unihd.dbs.geoparser.process.util.AdminLevelCache;
+
+/**
+ * {@link CandidateFeature} based on the administrative level of a candidate (see {@link AdminLevelCache}). The value
+ * is the level itself, so candidates farther below the administrative hierarchy root have higher values. This is the
+ * same preference as the one of {@link HighestAdminLevelDisambiguator}. Candidates that are no administrative divisions
+ * have the value 0.
+ *
+ * @author lrichter
+ *
+ */
+public class AdminLevelFeature implements CandidateFeature {
+
+	private final AdminLevelCache adminLevels;
+
+	/**
+	 * Create an {@link AdminLevelFeature}.
+	 *
+	 * @param adminLevelRootType the {@link PlaceType} representing the administrative hierarchy root.
+	 */
+	public AdminLevelFeature(final PlaceType adminLevelRootType) {
+		this(new AdminLevelCache(adminLevelRootType));
+	}
+
+	/**
+	 * Create an {@link AdminLevelFeature}.
+	 *
+	 * @param adminLevels the administrative levels relative to the hierarchy root.
+	 */
+	public AdminLevelFeature(final AdminLevelCache adminLevels) {
+		Objects.requireNonNull(adminLevels);
+		this.adminLevels = adminLevels;
+	}
+
+	@Override
+	public String getName() {
+		return "adminLevel";
+	}
+
+	@Override
+	public void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values) {
+		for (int row = 0; row < matrix.size(); row++) {
+			final int level = adminLevels.getAdminLevel(matrix.getPlace(row));
+			values[row] = level > 0 ? level : 0;
+		}
+	}
+
+}
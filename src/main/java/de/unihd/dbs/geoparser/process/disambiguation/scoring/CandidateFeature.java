@@ -0,0 +1,32 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+
+/**
+ * A feature of candidate places used for scoring the candidates of a document, see {@link LinearScoringDisambiguator}.
+ * A feature is computed for all candidates of a document at once, so expensive work like database queries or pairwise
+ * comparisons is done only once per document.
+ * <p>
+ * Implementations must be stateless, so a feature can be shared by concurrently processed documents.
+ *
+ * @author lrichter
+ *
+ */
+public interface CandidateFeature {
+
+	/**
+	 * @return the name of the feature.
+	 */
+	String getName();
+
+	/**
+	 * Compute the feature values of all candidates. Higher values indicate better candidates. Use {@link Double#NaN}
+	 * for candidates the feature cannot be computed for.
+	 *
+	 * @param matrix the candidates of the document.
+	 * @param context the disambiguation context of the document.
+	 * @param values the array to store the values into, with one entry per candidate row of the matrix.
+	 */
+	void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values);
+
+}
@@ -0,0 +1,155 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.util.Haversine;
+
+/**
+ * Columnar view of all candidate places of a document. The candidates of all named entities are stored consecutively,
+ * i.e., the candidates of named entity <code>i</code> occupy the rows {@link #getBegin(int)} (inclusive) to
+ * {@link #getEnd(int)} (exclusive). Named entities that are not locations or have no linked places occupy no rows.
+ * <p>
+ * Place Ids and coordinates are extracted once when the matrix is built, so {@link CandidateFeature}s can work on
+ * primitive arrays instead of walking the {@link Place} entities. Use {@link #of(DisambiguationContext)} to share a
+ * matrix between all consumers of a {@link DisambiguationContext}.
+ *
+ * @author lrichter
+ *
+ */
+public class CandidateMatrix {
+
+	private static final DisambiguationContext.Key<CandidateMatrix> KEY = new DisambiguationContext.Key<>(
+			"candidateMatrix");
+
+	private final int[] offsets;
+	private final int[] mentionIndices;
+	private final Place[] places;
+	private final long[] placeIds;
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private final Haversine.Points points;
+
+	/**
+	 * Build the candidate matrix of the given context.
+	 *
+	 * @param context the disambiguation context.
+	 */
+	public CandidateMatrix(final DisambiguationContext context) {
+		final int mentionCount = context.getNamedEntities().size();
+		offsets = new int[mentionCount + 1];
+		for (int i = 0; i < mentionCount; i++) {
+			final List<Place> candidates = context.getCandidates(i);
+			offsets[i + 1] = offsets[i] + (candidates == null ? 0 : candidates.size());
+		}
+
+		final int size = offsets[mentionCount];
+		mentionIndices = new int[size];
+		places = new Place[size];
+		placeIds = new long[size];
+		latitudes = new double[size];
+		longitudes = new double[size];
+		Arrays.fill(latitudes, Double.NaN);
+		Arrays.fill(longitudes, Double.NaN);
+
+		for (int i = 0; i < mentionCount; i++) {
+			final List<Place> candidates = context.getCandidates(i);
+			for (int row = offsets[i]; row < offsets[i + 1]; row++) {
+				final Place place = candidates.get(row - offsets[i]);
+				mentionIndices[row] = i;
+				places[row] = place;
+				// transient places have no Id yet
+				placeIds[row] = place.getId() != null ? place.getId() : -1;
+				for (final Footprint footprint : place.getFootprints()) {
+					if (footprint.getGeometry() != null) {
+						final Coordinate coordinate = footprint.getGeometry().getCoordinate();
+						latitudes[row] = coordinate.y;
+						longitudes[row] = coordinate.x;
+						break;
+					}
+				}
+			}
+		}
+		points = new Haversine.Points(latitudes, longitudes, size);
+	}
+
+	/**
+	 * Get the candidate matrix of the given context. The matrix is built only once per context.
+	 *
+	 * @param context the disambiguation context.
+	 * @return the candidate matrix.
+	 */
+	public static CandidateMatrix of(final DisambiguationContext context) {
+		return context.computeIfAbsent(KEY, CandidateMatrix::new);
+	}
+
+	/**
+	 * @return the number of named entities, including those without candidates.
+	 */
+	public int getMentionCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * @return the total number of candidates.
+	 */
+	public int size() {
+		return places.length;
+	}
+
+	public int getBegin(final int mentionIndex) {
+		return offsets[mentionIndex];
+	}
+
+	public int getEnd(final int mentionIndex) {
+		return offsets[mentionIndex + 1];
+	}
+
+	public int getMentionIndex(final int row) {
+		return mentionIndices[row];
+	}
+
+	public Place getPlace(final int row) {
+		return places[row];
+	}
+
+	public long getPlaceId(final int row) {
+		return placeIds[row];
+	}
+
+	/**
+	 * @param row the candidate row.
+	 * @return the latitude of the candidate, or {@link Double#NaN} if the candidate has no footprint.
+	 */
+	public double getLatitude(final int row) {
+		return latitudes[row];
+	}
+
+	/**
+	 * @param row the candidate row.
+	 * @return the longitude of the candidate, or {@link Double#NaN} if the candidate has no footprint.
+	 */
+	public double getLongitude(final int row) {
+		return longitudes[row];
+	}
+
+	public boolean hasCoordinate(final int row) {
+		return !Double.isNaN(latitudes[row]);
+	}
+
+	/**
+	 * Get the coordinates of all candidates for batch distance computations. Candidates without coordinates have
+	 * <code>NaN</code> distances.
+	 *
+	 * @return the coordinates, indexed by candidate row.
+	 */
+	public Haversine.Points getPoints() {
+		return points;
+	}
+
+}
@@ -0,0 +1,48 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.util.Haversine;
+
+/**
+ * {@link CandidateFeature} based on the spatial proximity of a candidate to the other toponyms of the document. For
+ * each other named entity, the distance to its closest candidate is determined. The value is the negative mean of
+ * these distances (in kilometers), so candidates close to the other toponyms have higher values. Candidates without
+ * coordinates or without other located named entities have no value.
+ *
+ * @author lrichter
+ *
+ */
+public class DistanceFeature implements CandidateFeature {
+
+	@Override
+	public String getName() {
+		return "distance";
+	}
+
+	@Override
+	public void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values) {
+		final Haversine.Points points = matrix.getPoints();
+		for (int row = 0; row < matrix.size(); row++) {
+			if (!matrix.hasCoordinate(row)) {
+				values[row] = Double.NaN;
+				continue;
+			}
+
+			final int ownMention = matrix.getMentionIndex(row);
+			double distanceSum = 0;
+			int mentions = 0;
+			for (int mention = 0; mention < matrix.getMentionCount(); mention++) {
+				if (mention == ownMention) {
+					continue;
+				}
+				final double minDistance = points.minDistance(row, matrix.getBegin(mention), matrix.getEnd(mention));
+				if (minDistance != Double.POSITIVE_INFINITY) {
+					distanceSum += minDistance;
+					mentions++;
+				}
+			}
+			values[row] = mentions > 0 ? -distanceSum / mentions : Double.NaN;
+		}
+	}
+
+}
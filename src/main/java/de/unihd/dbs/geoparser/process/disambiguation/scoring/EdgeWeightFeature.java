@@ -0,0 +1,100 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
+
+/**
+ * {@link CandidateFeature} based on the edges of the {@link WikipediaLocationNetwork} (WLN). For each other named
+ * entity, the highest edge weight between the candidate and the candidates of the named entity is determined. The
+ * value is the sum of these weights.
+ * <p>
+ * If no in-memory network is given, the edges among the candidates of a document are fetched from the gazetteer with
+ * a single query.
+ *
+ * @author lrichter
+ *
+ */
+public class EdgeWeightFeature implements CandidateFeature {
+
+	private final Gazetteer gazetteer;
+	private final WikipediaLocationNetwork network;
+
+	/**
+	 * Create an {@link EdgeWeightFeature} using an in-memory network.
+	 *
+	 * @param network the network.
+	 */
+	public EdgeWeightFeature(final WikipediaLocationNetwork network) {
+		this(null, network);
+	}
+
+	/**
+	 * Create an {@link EdgeWeightFeature}.
+	 *
+	 * @param gazetteer the gazetteer to fetch the edges from, if <code>network</code> is <code>null</code>.
+	 * @param network the network. May be <code>null</code>.
+	 */
+	public EdgeWeightFeature(final Gazetteer gazetteer, final WikipediaLocationNetwork network) {
+		if (network == null) {
+			Objects.requireNonNull(gazetteer);
+		}
+		this.gazetteer = gazetteer;
+		this.network = network;
+	}
+
+	@Override
+	public String getName() {
+		return "edgeWeight";
+	}
+
+	@Override
+	public void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values) {
+		final WikipediaLocationNetwork edges = network != null ? network
+				: WikipediaLocationNetwork.loadFromWlnTable(gazetteer, context.getLinkedPlaceIds());
+
+		// rows per network ordinal, so the neighbors of a candidate can be mapped back to candidates
+		final int[] ordinals = new int[matrix.size()];
+		final Map<Integer, List<Integer>> rowsByOrdinal = new HashMap<>();
+		for (int row = 0; row < matrix.size(); row++) {
+			ordinals[row] = edges.getOrdinal(matrix.getPlaceId(row));
+			if (ordinals[row] >= 0) {
+				rowsByOrdinal.computeIfAbsent(ordinals[row], ordinal -> new ArrayList<>()).add(row);
+			}
+		}
+
+		final double[] bestWeights = new double[matrix.getMentionCount()];
+		for (int row = 0; row < matrix.size(); row++) {
+			values[row] = 0;
+			if (ordinals[row] < 0) {
+				continue;
+			}
+
+			Arrays.fill(bestWeights, 0);
+			final int ownMention = matrix.getMentionIndex(row);
+			for (int edge = edges.getEdgeBegin(ordinals[row]); edge < edges.getEdgeEnd(ordinals[row]); edge++) {
+				final List<Integer> neighborRows = rowsByOrdinal.get(edges.getNeighborOrdinal(edge));
+				if (neighborRows == null) {
+					continue;
+				}
+				for (final int neighborRow : neighborRows) {
+					final int mention = matrix.getMentionIndex(neighborRow);
+					if (mention != ownMention) {
+						bestWeights[mention] = Math.max(bestWeights[mention], edges.getEdgeWeight(edge));
+					}
+				}
+			}
+			for (final double weight : bestWeights) {
+				values[row] += weight;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+
+/**
+ * Scores all candidates of a document by a weighted sum of {@link CandidateFeature}s.
+ * <p>
+ * All features are computed once per document over the shared {@link CandidateMatrix}. Before weighting, the values of
+ * each feature are scaled to the range [0, 1] over all candidates of the document, so the weights are comparable
+ * across features. Candidates without a value for a feature get 0 for this feature. Feature values are cached in the
+ * {@link DisambiguationContext}, so several scorers using the same feature instance compute it only once per document.
+ *
+ * @author lrichter
+ *
+ */
+public class LinearScorer {
+
+	private static final DisambiguationContext.Key<Map<CandidateFeature, double[]>> FEATURE_VALUES_KEY =
+			new DisambiguationContext.Key<>("featureValues");
+
+	private final Map<CandidateFeature, Double> weights;
+
+	/**
+	 * Create a {@link LinearScorer}.
+	 *
+	 * @param weights the weight per feature. Must not be empty.
+	 */
+	public LinearScorer(final Map<CandidateFeature, Double> weights) {
+		Objects.requireNonNull(weights);
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("At least one feature is required!");
+		}
+		this.weights = new LinkedHashMap<>(weights);
+	}
+
+	public Map<CandidateFeature, Double> getWeights() {
+		return Collections.unmodifiableMap(weights);
+	}
+
+	/**
+	 * Score all candidates of the document.
+	 *
+	 * @param context the disambiguation context of the document.
+	 * @return the score per candidate row of the {@link CandidateMatrix} of the context.
+	 */
+	public double[] score(final DisambiguationContext context) {
+		final CandidateMatrix matrix = CandidateMatrix.of(context);
+		final double[] scores = new double[matrix.size()];
+
+		for (final Map.Entry<CandidateFeature, Double> entry : weights.entrySet()) {
+			final double[] values = getFeatureValues(entry.getKey(), matrix, context);
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (final double value : values) {
+				if (!Double.isNaN(value)) {
+					min = Math.min(min, value);
+					max = Math.max(max, value);
+				}
+			}
+			if (!(max > min)) {
+				// feature is constant or unknown for all candidates and thus does not discriminate
+				continue;
+			}
+
+			final double weight = entry.getValue();
+			for (int row = 0; row < scores.length; row++) {
+				if (!Double.isNaN(values[row])) {
+					scores[row] += weight * (values[row] - min) / (max - min);
+				}
+			}
+		}
+
+		return scores;
+	}
+
+	private static double[] getFeatureValues(final CandidateFeature feature, final CandidateMatrix matrix,
+			final DisambiguationContext context) {
+		final Map<CandidateFeature, double[]> featureValues = context.computeIfAbsent(FEATURE_VALUES_KEY,
+				ctx -> new HashMap<>());
+		double[] values = featureValues.get(feature);
+		if (values == null) {
+			values = new double[matrix.size()];
+			feature.compute(matrix, context, values);
+			featureValues.put(feature, values);
+		}
+		return values;
+	}
+
+}
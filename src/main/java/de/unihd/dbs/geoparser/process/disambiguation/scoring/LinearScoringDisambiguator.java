@@ -0,0 +1,86 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.disambiguation.ToponymDisambiguator;
+import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
+
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+
+/**
+ * Implementation of {@link ToponymDisambiguator} that scores all candidates of a document by a weighted sum of
+ * {@link CandidateFeature}s (see {@link LinearScorer}) and takes the candidate with the highest score as the correct
+ * match. Ties are resolved in favor of the candidate ranked first by the linker.
+ *
+ * @author lrichter
+ *
+ */
+public class LinearScoringDisambiguator extends ToponymDisambiguator {
+
+	private final LinearScorer scorer;
+
+	/**
+	 * Create a {@link LinearScoringDisambiguator}.
+	 *
+	 * @param weights the weight per feature. Must not be empty.
+	 */
+	public LinearScoringDisambiguator(final Map<CandidateFeature, Double> weights) {
+		this(new LinearScorer(weights));
+	}
+
+	/**
+	 * Create a {@link LinearScoringDisambiguator}.
+	 *
+	 * @param scorer the scorer of the candidates.
+	 */
+	public LinearScoringDisambiguator(final LinearScorer scorer) {
+		Objects.requireNonNull(scorer);
+		this.scorer = scorer;
+	}
+
+	public LinearScorer getScorer() {
+		return scorer;
+	}
+
+	@Override
+	public Set<Requirement> requires() {
+		return Collections.singleton(ToponymLinkingAnnotator.TOPONYM_LINKING_REQUIREMENT);
+	}
+
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public List<ResolvedLocation> disambiguate(final DisambiguationContext context) {
+		final CandidateMatrix matrix = CandidateMatrix.of(context);
+		final double[] scores = scorer.score(context);
+		final List<ResolvedLocation> output = new ArrayList<>(matrix.getMentionCount());
+
+		for (int mention = 0; mention < matrix.getMentionCount(); mention++) {
+			if (matrix.getBegin(mention) == matrix.getEnd(mention)) {
+				output.add(null);
+				continue;
+			}
+
+			int bestRow = matrix.getBegin(mention);
+			for (int row = bestRow + 1; row < matrix.getEnd(mention); row++) {
+				if (scores[row] > scores[bestRow]) {
+					bestRow = row;
+				}
+			}
+			output.add(new ResolvedLocation(matrix.getPlace(bestRow)));
+		}
+
+		return output;
+	}
+
+}
@@ -0,0 +1,58 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.EnumSet;
+
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceName;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceName.NameFlag;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+
+/**
+ * {@link CandidateFeature} based on the flags of the candidate's names that match the toponym. Matches with a
+ * preferred name have the value 1, matches with an official name 0.75, and other matches 0.5. Matches with a
+ * historical, colloquial or abbreviated name have the value 0.25. If a candidate has multiple matching names, the
+ * highest value is used. Candidates without a matching name have the value 0.
+ *
+ * @author lrichter
+ *
+ */
+public class NameFeature implements CandidateFeature {
+
+	@Override
+	public String getName() {
+		return "name";
+	}
+
+	@Override
+	public void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values) {
+		for (int row = 0; row < matrix.size(); row++) {
+			final String toponym = context.getNamedEntities().get(matrix.getMentionIndex(row))
+					.get(CoreAnnotations.TextAnnotation.class);
+			double value = 0;
+			if (toponym != null) {
+				for (final PlaceName name : matrix.getPlace(row).getPlaceNames()) {
+					if (toponym.equalsIgnoreCase(name.getName())) {
+						value = Math.max(value, getNameValue(name.getNameFlags()));
+					}
+				}
+			}
+			values[row] = value;
+		}
+	}
+
+	private static double getNameValue(final EnumSet<NameFlag> flags) {
+		if (flags.contains(NameFlag.IS_HISTORICAL) || flags.contains(NameFlag.IS_COLLOQUIAL)
+				|| flags.contains(NameFlag.IS_ABBREVIATION)) {
+			return 0.25;
+		}
+		if (flags.contains(NameFlag.IS_PREFERRED)) {
+			return 1;
+		}
+		if (flags.contains(NameFlag.IS_OFFICIAL)) {
+			return 0.75;
+		}
+		return 0.5;
+	}
+
+}
@@ -0,0 +1,55 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceRanking;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+
+/**
+ * {@link CandidateFeature} based on the place types of a candidate. The value is the highest importance of the place
+ * types assigned to the candidate, e.g., as defined by {@link PlaceRanking#getTypeImportance()}. Candidates without an
+ * important place type have the value 0.
+ *
+ * @author lrichter
+ *
+ */
+public class PlaceTypeFeature implements CandidateFeature {
+
+	private final Map<PlaceType, Integer> typeImportance;
+
+	/**
+	 * Create a {@link PlaceTypeFeature}.
+	 *
+	 * @param typeImportance the importance per place type; higher values indicate better candidates.
+	 */
+	public PlaceTypeFeature(final Map<PlaceType, Integer> typeImportance) {
+		Objects.requireNonNull(typeImportance);
+		this.typeImportance = new LinkedHashMap<>(typeImportance);
+	}
+
+	public Map<PlaceType, Integer> getTypeImportance() {
+		return Collections.unmodifiableMap(typeImportance);
+	}
+
+	@Override
+	public String getName() {
+		return "placeType";
+	}
+
+	@Override
+	public void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values) {
+		for (int row = 0; row < matrix.size(); row++) {
+			int importance = 0;
+			for (final PlaceTypeAssignment assignment : matrix.getPlace(row).getPlaceTypeAssignments()) {
+				importance = Math.max(importance, typeImportance.getOrDefault(assignment.getType(), 0));
+			}
+			values[row] = importance;
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceProperty;
+import de.unihd.dbs.geoparser.gazetteer.types.PropertyTypes;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+
+/**
+ * {@link CandidateFeature} based on the population number of a candidate. The value is the logarithm of the
+ * population, so large cities do not dominate all other features. Candidates without a valid population number have
+ * the value 0.
+ *
+ * @author lrichter
+ *
+ */
+public class PopulationFeature implements CandidateFeature {
+
+	@Override
+	public String getName() {
+		return "population";
+	}
+
+	@Override
+	public void compute(final CandidateMatrix matrix, final DisambiguationContext context, final double[] values) {
+		for (int row = 0; row < matrix.size(); row++) {
+			values[row] = Math.log1p(getPopulation(matrix, row));
+		}
+	}
+
+	private static double getPopulation(final CandidateMatrix matrix, final int row) {
+		for (final PlaceProperty property : matrix.getPlace(row)
+				.getPropertiesByType(PropertyTypes.POPULATION.typeName)) {
+			final Double population = property.getNumericValue();
+			if (population != null) {
+				return Math.max(0, population);
+			}
+		}
+		return 0;
+	}
+
+}
@@ -0,0 +1,152 @@
+package de.unihd.dbs.geoparser.process.linking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.disambiguation.ToponymDisambiguationAnnotator;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.CandidateMatrix;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.LinearScorer;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.util.ArraySet;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * This {@link Annotator} implementation reduces the candidates linked to toponyms (i.e., the
+ * {@link GazetteerEntriesAnnotation}s) before they are disambiguated by a {@link ToponymDisambiguationAnnotator}.
+ * <p>
+ * The candidates of a document are scored by a {@link LinearScorer} using cheap prior features, such as population
+ * numbers, place types and name matches. For each toponym, at most <code>maxCandidates</code> candidates with the
+ * highest scores are kept. Additionally, candidates scoring less than <code>minRelativeScore</code> times the best
+ * score of the toponym are removed. The remaining candidates keep the order given by the linker, and at least one
+ * candidate is kept per toponym.
+ * <p>
+ * Since the runtime of graph- and distance-based disambiguators grows quadratically with the number of candidates of
+ * a document, pruning bounds their runtime for documents with highly ambiguous toponyms.
+ *
+ * @author lrichter
+ *
+ */
+public class CandidatePruningAnnotator implements Annotator {
+
+	private final LinearScorer scorer;
+	private final int maxCandidates;
+	private final double minRelativeScore;
+
+	/**
+	 * Constructor to support Annotation loading via reflection.
+	 *
+	 * @param name ?
+	 * @param props ?
+	 */
+	public CandidatePruningAnnotator(final String name, final Properties props) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Create a {@link CandidatePruningAnnotator} instance.
+	 *
+	 * @param scorer the scorer of the candidates.
+	 * @param maxCandidates the maximum number of candidates per toponym. Must be positive.
+	 * @param minRelativeScore the minimum score of a candidate relative to the best score of the toponym, between 0
+	 *            (no threshold) and 1.
+	 */
+	public CandidatePruningAnnotator(final LinearScorer scorer, final int maxCandidates,
+			final double minRelativeScore) {
+		Objects.requireNonNull(scorer);
+		if (maxCandidates < 1) {
+			throw new IllegalArgumentException("maxCandidates must be positive!");
+		}
+		if (minRelativeScore < 0 || minRelativeScore > 1) {
+			throw new IllegalArgumentException("minRelativeScore must be between 0 and 1!");
+		}
+		this.scorer = scorer;
+		this.maxCandidates = maxCandidates;
+		this.minRelativeScore = minRelativeScore;
+	}
+
+	public LinearScorer getScorer() {
+		return scorer;
+	}
+
+	public int getMaxCandidates() {
+		return maxCandidates;
+	}
+
+	public double getMinRelativeScore() {
+		return minRelativeScore;
+	}
+
+	@Override
+	public Set<Requirement> requires() {
+		return Collections.unmodifiableSet(new ArraySet<>(ToponymLinkingAnnotator.TOPONYM_LINKING_REQUIREMENT));
+	}
+
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public void annotate(final Annotation annotation) {
+		if (!annotation.has(CoreAnnotations.SentencesAnnotation.class)) {
+			throw new RuntimeException("No sentence found in " + annotation);
+		}
+
+		final List<CoreMap> mentions = new ArrayList<>();
+		for (final CoreMap sentence : annotation.get(CoreAnnotations.SentencesAnnotation.class)) {
+			mentions.addAll(sentence.get(CoreAnnotations.MentionsAnnotation.class));
+		}
+
+		final DisambiguationContext context = new DisambiguationContext(mentions, annotation, null);
+		final CandidateMatrix matrix = CandidateMatrix.of(context);
+		final double[] scores = scorer.score(context);
+
+		for (int i = 0; i < matrix.getMentionCount(); i++) {
+			final int begin = matrix.getBegin(i);
+			final int end = matrix.getEnd(i);
+			if (end - begin <= 1) {
+				continue;
+			}
+
+			final List<Integer> rows = new ArrayList<>(end - begin);
+			for (int row = begin; row < end; row++) {
+				rows.add(row);
+			}
+			// stable sort, so ties keep the order given by the linker
+			rows.sort(Comparator.comparingDouble((final Integer row) -> scores[row]).reversed());
+
+			final double minScore = scores[rows.get(0)] * minRelativeScore;
+			final boolean[] keep = new boolean[end - begin];
+			int kept = 0;
+			for (final int row : rows) {
+				if (kept == maxCandidates || (kept > 0 && scores[row] < minScore)) {
+					break;
+				}
+				keep[row - begin] = true;
+				kept++;
+			}
+
+			if (kept < end - begin) {
+				final List<Place> candidates = new ArrayList<>(kept);
+				for (int row = begin; row < end; row++) {
+					if (keep[row - begin]) {
+						candidates.add(matrix.getPlace(row));
+					}
+				}
+				mentions.get(i).set(GazetteerEntriesAnnotation.class, candidates);
+			}
+		}
+	}
+
+}
@@ -2,19 +2,22 @@ package de.unihd.dbs.geoparser.process.linking;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
 import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
 import de.unihd.dbs.geoparser.gazetteer.GazetteerQuery;
 import de.unihd.dbs.geoparser.gazetteer.models.Place;
-import de.unihd.dbs.geoparser.gazetteer.models.PlaceName.NameFlag;
-import de.unihd.dbs.geoparser.gazetteer.query.PlaceNamePlaceFilter;
-import de.unihd.dbs.geoparser.gazetteer.query.PlaceNamePlaceFilter.MatchMode;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceIdPlaceFilter;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceRanking;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceTypePlaceFilter;
+import de.unihd.dbs.geoparser.process.recognition.GazetteerLookupRecognizer;
 import de.unihd.dbs.geoparser.process.recognition.ToponymRecognitionAnnotator;
 
 import edu.stanford.nlp.ling.CoreAnnotations;
@@ -24,6 +27,21 @@ import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Implementation of {@link ToponymLinker} that links toponyms to gazetteer entries by exact name matching.
+ * <p>
+ * If enabled via {@link #setReuseExistingCandidates}, toponyms that already carry a
+ * {@link GazetteerEntriesAnnotation} (e.g., since they were recognized by {@link GazetteerLookupRecognizer}) reuse the
+ * existing candidates instead of loading the places again. The existing candidates are restricted to those places
+ * whose name exactly (case sensitive) equals the toponym and that pass the place type filter, which is checked for all
+ * toponyms with a single Id query. Hence, reusing yields the same candidates as looking up the toponym, as long as the
+ * existing candidates contain all exact matches, e.g., since they were matched case insensitively. If no or more than
+ * <code>maxMatches</code> candidates remain, the toponym is looked up in the gazetteer instead, so the matches are cut
+ * according to the ranking.
+ * <p>
+ * If a {@link PlaceRanking} is set, the gazetteer ranks the matches and only the <code>maxMatches</code> top ranked
+ * places are loaded per toponym. Otherwise, an arbitrary subset of the matches is returned for ambiguous toponyms.
+ * <p>
+ * The optional {@link PlaceTypePlaceFilter} is joined directly with the name lookup (see
+ * {@link Gazetteer#getPlacesByExactNames(java.util.Collection, GazetteerQuery, PlaceRanking)}).
  * 
  * @author lrichter
  * 
@@ -35,6 +53,8 @@ public class GazetteerExactToponymLinker extends ToponymLinker {
 	private final Gazetteer gazetteer;
 	private final int maxMatches;
 	private final PlaceTypePlaceFilter placeTypeFilter;
+	private boolean reuseExistingCandidates;
+	private PlaceRanking candidateRanking;
 
 	public GazetteerExactToponymLinker(final Gazetteer gazetteer, final int maxMatches) {
 		this(gazetteer, maxMatches, null);
@@ -50,6 +70,23 @@ public class GazetteerExactToponymLinker extends ToponymLinker {
 		this.maxMatches = maxMatches;
 		this.gazetteer = gazetteer;
 		this.placeTypeFilter = placeTypeFilter;
+		this.reuseExistingCandidates = false;
+	}
+
+	public boolean isReuseExistingCandidates() {
+		return reuseExistingCandidates;
+	}
+
+	public void setReuseExistingCandidates(final boolean reuseExistingCandidates) {
+		this.reuseExistingCandidates = reuseExistingCandidates;
+	}
+
+	public PlaceRanking getCandidateRanking() {
+		return candidateRanking;
+	}
+
+	public void setCandidateRanking(final PlaceRanking candidateRanking) {
+		this.candidateRanking = candidateRanking;
 	}
 
 	@Override
@@ -62,40 +99,113 @@ public class GazetteerExactToponymLinker extends ToponymLinker {
 		return Collections.singleton(ToponymLinkingAnnotator.TOPONYM_LINKING_REQUIREMENT);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * All toponyms that need to be looked up are deduplicated by their surface string and retrieved with a single
+	 * gazetteer query. Hence, passing all toponyms of a document at once (see
+	 * {@link ToponymLinkingAnnotator#ToponymLinkingAnnotator(ToponymLinker, boolean)}) results in a single lookup query
+	 * per document.
+	 */
 	@Override
 	public List<List<Place>> link(final List<CoreMap> namedEntities, final Annotation document,
 			final CoreMap sentence) {
-		final List<List<Place>> output = new ArrayList<>(namedEntities.size());
+		final Map<String, Set<Long>> matchedExistingCandidateIds = reuseExistingCandidates
+				? getMatchedExistingCandidateIds(namedEntities) : Collections.emptyMap();
 
-		final GazetteerQuery<Place> query = new GazetteerQuery<>(maxMatches);
-		final PlaceNamePlaceFilter placeNameFilter = new PlaceNamePlaceFilter("initialValue", null,
-				EnumSet.noneOf(NameFlag.class), false, MatchMode.EXACT, null, false);
+		// existing candidates are only reused, if they need not be cut to maxMatches, since the gazetteer is needed
+		// to determine the top ranked candidates
+		final List<List<Place>> reusedCandidates = new ArrayList<>(namedEntities.size());
+		final Set<String> toponymsToLookup = new HashSet<>();
+		for (final CoreMap namedEntity : namedEntities) {
+			List<Place> candidates = null;
+			if (isLocation(namedEntity) && reuseExistingCandidates && hasExistingCandidates(namedEntity)) {
+				final Set<Long> matchedIds = matchedExistingCandidateIds.getOrDefault(
+						namedEntity.get(CoreAnnotations.TextAnnotation.class), Collections.emptySet());
+				candidates = namedEntity.get(GazetteerEntriesAnnotation.class).stream()
+						.filter(place -> matchedIds.contains(place.getId())).collect(Collectors.toList());
+				if (candidates.isEmpty() || maxMatches > 0 && candidates.size() > maxMatches) {
+					candidates = null;
+				}
+			}
+			reusedCandidates.add(candidates);
 
-		query.filters.add(placeNameFilter);
-		if (placeTypeFilter != null) {
-			System.out.println(placeTypeFilter.getPlaceTypes());
-			query.filters.add(placeTypeFilter);
+			if (isLocation(namedEntity) && candidates == null) {
+				toponymsToLookup.add(namedEntity.get(CoreAnnotations.TextAnnotation.class));
+			}
 		}
+		final Map<String, List<Place>> placesByToponym = lookupToponyms(toponymsToLookup);
 
-		for (final CoreMap namedEntity : namedEntities) {
-			if (!Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
-					NamedEntityType.LOCATION.name)) {
+		final List<List<Place>> output = new ArrayList<>(namedEntities.size());
+		for (int i = 0; i < namedEntities.size(); i++) {
+			final CoreMap namedEntity = namedEntities.get(i);
+			if (!isLocation(namedEntity)) {
 				output.add(null);
 				continue;
 			}
 
-			final String toponym = namedEntity.get(CoreAnnotations.TextAnnotation.class);
-			placeNameFilter.setName(toponym);
-			final List<Place> matchedPlaces = gazetteer.getPlaces(query);
-
-			if (matchedPlaces.size() > 0) {
-				output.add(matchedPlaces);
-			}
-			else {
-				output.add(null);
+			final List<Place> candidates = reusedCandidates.get(i);
+			if (candidates != null) {
+				output.add(candidates);
+				continue;
 			}
+
+			final List<Place> matchedPlaces = placesByToponym
+					.get(namedEntity.get(CoreAnnotations.TextAnnotation.class));
+			// each mention gets its own list, so later stages may modify it independently
+			output.add(matchedPlaces == null ? null : new ArrayList<>(matchedPlaces));
 		}
 
 		return output;
 	}
+
+	private Map<String, List<Place>> lookupToponyms(final Set<String> toponyms) {
+		if (toponyms.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		final GazetteerQuery<Place> query = new GazetteerQuery<>(maxMatches);
+		if (placeTypeFilter != null) {
+			query.filters.add(placeTypeFilter);
+		}
+		return gazetteer.getPlacesByExactNames(toponyms, query, candidateRanking);
+	}
+
+	private static boolean isLocation(final CoreMap namedEntity) {
+		return Objects.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class),
+				NamedEntityType.LOCATION.name);
+	}
+
+	private static boolean hasExistingCandidates(final CoreMap namedEntity) {
+		final List<Place> existingCandidates = namedEntity.get(GazetteerEntriesAnnotation.class);
+		return existingCandidates != null && !existingCandidates.isEmpty();
+	}
+
+	/**
+	 * Get the Ids of all existing candidates that have a name exactly equal to their toponym and pass the place type
+	 * filter. All candidates of the given entities are checked with a single query.
+	 *
+	 * @param namedEntities the named entities.
+	 * @return the Ids of the matched candidates per toponym.
+	 */
+	private Map<String, Set<Long>> getMatchedExistingCandidateIds(final List<CoreMap> namedEntities) {
+		final Set<String> toponyms = new HashSet<>();
+		final Set<Long> candidateIds = new HashSet<>();
+		for (final CoreMap namedEntity : namedEntities) {
+			if (isLocation(namedEntity) && hasExistingCandidates(namedEntity)) {
+				toponyms.add(namedEntity.get(CoreAnnotations.TextAnnotation.class));
+				namedEntity.get(GazetteerEntriesAnnotation.class).forEach(place -> candidateIds.add(place.getId()));
+			}
+		}
+		if (candidateIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		final GazetteerQuery<Place> query = new GazetteerQuery<>();
+		query.filters.add(new PlaceIdPlaceFilter(candidateIds, false));
+		if (placeTypeFilter != null) {
+			query.filters.add(placeTypeFilter);
+		}
+		return gazetteer.getPlaceIdsByExactNames(toponyms, query);
+	}
 }
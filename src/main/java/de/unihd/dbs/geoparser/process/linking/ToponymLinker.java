@@ -14,6 +14,11 @@ import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Base class for toponym linking modules.
+ * <p>
+ * Toponyms may already carry a {@link GazetteerEntriesAnnotation} when they are linked, e.g., if the recognition module
+ * looked up candidates in the gazetteer. Implementations may reuse these candidates instead of retrieving them again.
+ * The returned lists replace the existing candidates, whereas existing candidates are kept for toponyms that could not
+ * be linked.
  * 
  * @author lrichter
  * 
@@ -1,5 +1,6 @@
 package de.unihd.dbs.geoparser.process.linking;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
@@ -33,6 +34,9 @@ import edu.stanford.nlp.util.CoreMap;
  * For each toponym (i.e., a {@link MentionsAnnotation} with a {@link NamedEntityTagAnnotation} value equal to
  * {@link NamedEntityType#LOCATION}), a {@link GazetteerEntriesAnnotation} is added if the toponym could be linked to
  * gazetteer entries.
+ * <p>
+ * By default, the linker is invoked once per sentence. In document-scoped mode, the toponyms of all sentences are
+ * passed to the linker at once, which allows linkers to batch their gazetteer lookups per document.
  * 
  * @author lrichter
  * 
@@ -40,6 +44,7 @@ import edu.stanford.nlp.util.CoreMap;
 public class ToponymLinkingAnnotator implements Annotator {
 
 	private final ToponymLinker linker;
+	private final boolean documentScoped;
 
 	public static final String TOPONYM_LINKING = "toponym_linking";
 	public static final Requirement TOPONYM_LINKING_REQUIREMENT = new Requirement(TOPONYM_LINKING);
@@ -55,13 +60,29 @@ public class ToponymLinkingAnnotator implements Annotator {
 	}
 
 	public ToponymLinkingAnnotator(final ToponymLinker linker) {
+		this(linker, false);
+	}
+
+	/**
+	 * Create a {@link ToponymLinkingAnnotator} instance.
+	 * 
+	 * @param linker the linker to use.
+	 * @param documentScoped if <code>true</code>, the toponyms of all sentences are linked with a single call of
+	 *            {@link ToponymLinker#link(List, Annotation)}; otherwise, the linker is called once per sentence.
+	 */
+	public ToponymLinkingAnnotator(final ToponymLinker linker, final boolean documentScoped) {
 		this.linker = linker;
+		this.documentScoped = documentScoped;
 	}
 
 	public ToponymLinker getToponymLinkingModule() {
 		return this.linker;
 	}
 
+	public boolean isDocumentScoped() {
+		return documentScoped;
+	}
+
 	@Override
 	public Set<Requirement> requires() {
 		final Set<Requirement> requirements = new ArraySet<>(
@@ -83,16 +104,44 @@ public class ToponymLinkingAnnotator implements Annotator {
 			throw new RuntimeException("No sentence found in " + annotation);
 		}
 
+		if (documentScoped) {
+			doFullDocument(annotation);
+		}
+		else {
+			for (final CoreMap sentence : annotation.get(CoreAnnotations.SentencesAnnotation.class)) {
+				doOneSentence(annotation, sentence);
+			}
+		}
+	}
+
+	private void doFullDocument(final Annotation annotation) {
+		final List<CoreMap> mentions = new ArrayList<>();
+
 		for (final CoreMap sentence : annotation.get(CoreAnnotations.SentencesAnnotation.class)) {
-			doOneSentence(annotation, sentence);
+			final List<CoreMap> sentenceMentions = sentence.get(CoreAnnotations.MentionsAnnotation.class);
+			if (sentenceMentions != null) {
+				mentions.addAll(sentenceMentions);
+			}
 		}
+		if (mentions.isEmpty()) {
+			return;
+		}
+
+		setLinks(mentions, linker.link(mentions, annotation));
 	}
 
 	private CoreMap doOneSentence(final Annotation annotation, final CoreMap sentence) {
 		final List<CoreMap> mentions = sentence.get(CoreAnnotations.MentionsAnnotation.class);
+		if (mentions == null) {
+			return sentence;
+		}
 
-		final List<List<Place>> output = linker.link(mentions, annotation, sentence);
+		setLinks(mentions, linker.link(mentions, annotation, sentence));
 
+		return sentence;
+	}
+
+	private static void setLinks(final List<CoreMap> mentions, final List<List<Place>> output) {
 		for (int i = 0; i < mentions.size(); i++) {
 			final List<Place> link = output.get(i);
 			if (link == null) {
@@ -102,8 +151,6 @@ public class ToponymLinkingAnnotator implements Annotator {
 				mentions.get(i).set(GazetteerEntriesAnnotation.class, link);
 			}
 		}
-
-		return sentence;
 	}
 
 }
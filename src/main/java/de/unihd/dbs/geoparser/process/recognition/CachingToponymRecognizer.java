@@ -0,0 +1,275 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+import de.unihd.dbs.geoparser.gazetteer.GazetteerQuery;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceIdPlaceFilter;
+import de.unihd.dbs.geoparser.process.recognition.RecognitionResultCache.CachedMention;
+import de.unihd.dbs.geoparser.process.recognition.RecognitionResultCache.SentenceKey;
+
+import edu.stanford.nlp.ie.regexp.NumberSequenceClassifier;
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Implementation of {@link ToponymRecognizer} that caches the results of another {@link ToponymRecognizer} on sentence
+ * level. If a sentence with the same token sequence has been processed before (possibly in another document), the
+ * cached mentions are rebuilt for the given tokens instead of running the wrapped recognizer again. This pays off for
+ * document collections with lots of repeated sentences, such as datelines, headlines or agency footers.
+ * <p>
+ * <b>Note:</b> The cache assumes that the wrapped recognizer produces the same results for the same sentence,
+ * regardless of the surrounding document. Recognizers using document-wide context (e.g., adaptive features of the
+ * OpenNLP Name Finder) may hence produce slightly different results when cached.
+ * <p>
+ * Gazetteer entries attached to the mentions (see {@link GazetteerEntriesAnnotation}) are cached by their Ids only,
+ * since the {@link Place} entities belong to the persistence context of the document they were loaded for. For cache
+ * hits, the places are fetched again from the gazetteer given at construction time, so later stages always receive
+ * entities managed by that gazetteer. Without a gazetteer, the entries are dropped for cache hits and the toponyms are
+ * linked as if the wrapped recognizer had not found any entries.
+ *
+ * @author lrichter
+ *
+ */
+public class CachingToponymRecognizer extends ToponymRecognizer {
+
+	private final ToponymRecognizer recognizer;
+	private final RecognitionResultCache cache;
+	private final String configurationKey;
+	private final Gazetteer gazetteer;
+
+	/**
+	 * Create a {@link CachingToponymRecognizer} with its own cache.
+	 *
+	 * @param recognizer the recognizer whose results are cached.
+	 * @param maxEntries the maximum number of cached sentences.
+	 */
+	public CachingToponymRecognizer(final ToponymRecognizer recognizer, final int maxEntries) {
+		this(recognizer, new RecognitionResultCache(maxEntries), recognizer.getClass().getName());
+	}
+
+	/**
+	 * Create a {@link CachingToponymRecognizer} using the given (possibly shared) cache.
+	 *
+	 * @param recognizer the recognizer whose results are cached.
+	 * @param cache the cache to use.
+	 * @param configurationKey a key uniquely identifying the recognizer and its configuration (e.g., the model path).
+	 *            Recognizers sharing the cache must use different keys, unless they produce identical results.
+	 */
+	public CachingToponymRecognizer(final ToponymRecognizer recognizer, final RecognitionResultCache cache,
+			final String configurationKey) {
+		this(recognizer, cache, configurationKey, null);
+	}
+
+	/**
+	 * Create a {@link CachingToponymRecognizer} using the given (possibly shared) cache, which fetches the gazetteer
+	 * entries of cached mentions from the given gazetteer.
+	 *
+	 * @param recognizer the recognizer whose results are cached.
+	 * @param cache the cache to use.
+	 * @param configurationKey a key uniquely identifying the recognizer and its configuration (e.g., the model path).
+	 *            Recognizers sharing the cache must use different keys, unless they produce identical results.
+	 * @param gazetteer the gazetteer used to fetch the gazetteer entries of cached mentions, or <code>null</code> to
+	 *            drop them.
+	 */
+	public CachingToponymRecognizer(final ToponymRecognizer recognizer, final RecognitionResultCache cache,
+			final String configurationKey, final Gazetteer gazetteer) {
+		Objects.requireNonNull(recognizer);
+		Objects.requireNonNull(cache);
+		Objects.requireNonNull(configurationKey);
+		this.recognizer = recognizer;
+		this.cache = cache;
+		this.configurationKey = configurationKey;
+		this.gazetteer = gazetteer;
+	}
+
+	public ToponymRecognizer getRecognizer() {
+		return recognizer;
+	}
+
+	public RecognitionResultCache getCache() {
+		return cache;
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return recognizer.isThreadSafe() && gazetteer == null;
+	}
+
+	@Override
+	public Set<Requirement> requires() {
+		return recognizer.requires();
+	}
+
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		return recognizer.requirementsSatisfied();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * For cache hits, the tokens of the returned mentions are copies of the given tokens.
+	 */
+	@Override
+	public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document, final CoreMap sentence) {
+		final SentenceKey key = new SentenceKey(configurationKey, tokens);
+		final int sentenceTokenOffset = getSentenceTokenOffset(sentence);
+
+		final List<CachedMention> cachedMentions = cache.get(key);
+		if (cachedMentions != null) {
+			final Map<Long, Place> gazetteerEntries = fetchGazetteerEntries(cachedMentions);
+			final List<CoreMap> mentions = new ArrayList<>(cachedMentions.size());
+			for (final CachedMention cachedMention : cachedMentions) {
+				mentions.add(rebuildMention(cachedMention, tokens, sentenceTokenOffset, gazetteerEntries));
+			}
+			return mentions;
+		}
+
+		final List<CoreMap> mentions = recognizer.recognize(tokens, document, sentence);
+		final List<CachedMention> mentionsToCache = new ArrayList<>(mentions.size());
+		for (final CoreMap mention : mentions) {
+			final CachedMention cachedMention = buildCachedMention(mention, sentenceTokenOffset);
+			if (cachedMention == null) {
+				// mention can't be rebuilt later, so we don't cache the sentence at all
+				return mentions;
+			}
+			mentionsToCache.add(cachedMention);
+		}
+		cache.put(key, mentionsToCache);
+
+		return mentions;
+	}
+
+	/**
+	 * Fetch the gazetteer entries of all given mentions with a single query.
+	 *
+	 * @param cachedMentions the cached mentions.
+	 * @return the fetched places by their Id, or <code>null</code> if no gazetteer is available.
+	 */
+	private Map<Long, Place> fetchGazetteerEntries(final List<CachedMention> cachedMentions) {
+		if (gazetteer == null) {
+			return null;
+		}
+
+		final Set<Long> placeIds = new HashSet<>();
+		for (final CachedMention cachedMention : cachedMentions) {
+			if (cachedMention.gazetteerEntryIds != null) {
+				placeIds.addAll(cachedMention.gazetteerEntryIds);
+			}
+		}
+		if (placeIds.isEmpty()) {
+			return null;
+		}
+
+		final GazetteerQuery<Place> query = new GazetteerQuery<>();
+		query.filters.add(new PlaceIdPlaceFilter(placeIds, false));
+		return gazetteer.getPlaces(query).stream().collect(Collectors.toMap(Place::getId, Function.identity()));
+	}
+
+	private static int getSentenceTokenOffset(final CoreMap sentence) {
+		if (sentence == null || !sentence.has(CoreAnnotations.TokenBeginAnnotation.class)) {
+			return 0;
+		}
+		return sentence.get(CoreAnnotations.TokenBeginAnnotation.class);
+	}
+
+	private static CachedMention buildCachedMention(final CoreMap mention, final int sentenceTokenOffset) {
+		final List<CoreLabel> mentionTokens = mention.get(CoreAnnotations.TokensAnnotation.class);
+		if (mentionTokens == null || mentionTokens.isEmpty() || mentionTokens.get(0).index() < 1) {
+			return null;
+		}
+
+		final CoreMap annotations = new ArrayCoreMap(mention);
+		removePositionalKeys(annotations);
+		// places are bound to the current persistence context, hence we only keep their Ids
+		final List<Place> gazetteerEntries = annotations.remove(GazetteerEntriesAnnotation.class);
+		final List<Long> gazetteerEntryIds = gazetteerEntries == null ? null
+				: gazetteerEntries.stream().map(Place::getId).collect(Collectors.toList());
+
+		final List<CoreLabel> tokens = new ArrayList<>(mentionTokens.size());
+		mentionTokens.forEach(token -> tokens.add(new CoreLabel(token)));
+
+		// recognizers either use sentence-relative token indices or document-wide token offsets for the mention
+		// boundaries; we keep the boundaries relative to the respective base, so they can be rebuilt for other sentences
+		final CoreLabel firstToken = mentionTokens.get(0);
+		final CoreLabel lastToken = mentionTokens.get(mentionTokens.size() - 1);
+		final Integer tokenBegin = mention.get(CoreAnnotations.TokenBeginAnnotation.class);
+		final Integer tokenEnd = mention.get(CoreAnnotations.TokenEndAnnotation.class);
+		final boolean documentTokenOffsets = tokenBegin != null && tokenBegin != firstToken.index();
+		final Integer tokenBeginDelta = tokenBegin == null ? null
+				: tokenBegin - getTokenBase(firstToken, sentenceTokenOffset, documentTokenOffsets);
+		final Integer tokenEndDelta = tokenEnd == null ? null
+				: tokenEnd - getTokenBase(lastToken, sentenceTokenOffset, documentTokenOffsets);
+
+		return new CachedMention(firstToken.index() - 1, annotations, gazetteerEntryIds, tokens, tokenBeginDelta,
+				tokenEndDelta, documentTokenOffsets);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void removePositionalKeys(final CoreMap annotations) {
+		for (final Class key : new ArrayList<>(annotations.keySet())) {
+			if (CachedMention.isPositionalKey(key)) {
+				annotations.remove(key);
+			}
+		}
+	}
+
+	private static int getTokenBase(final CoreLabel token, final int sentenceTokenOffset,
+			final boolean documentTokenOffsets) {
+		return documentTokenOffsets ? sentenceTokenOffset + token.index() - 1 : token.index();
+	}
+
+	private static CoreMap rebuildMention(final CachedMention cachedMention, final List<CoreLabel> sentenceTokens,
+			final int sentenceTokenOffset, final Map<Long, Place> gazetteerEntries) {
+		final List<CoreLabel> tokens = new ArrayList<>(cachedMention.size());
+		for (int i = 0; i < cachedMention.size(); i++) {
+			final CoreLabel cachedToken = cachedMention.tokens.get(i);
+			final CoreLabel token = new CoreLabel(sentenceTokens.get(cachedMention.sentenceTokenBegin + i));
+			token.set(CoreAnnotations.NamedEntityTagAnnotation.class,
+					cachedToken.get(CoreAnnotations.NamedEntityTagAnnotation.class));
+			if (cachedToken.has(CoreAnnotations.NormalizedNamedEntityTagAnnotation.class)) {
+				token.set(CoreAnnotations.NormalizedNamedEntityTagAnnotation.class,
+						cachedToken.get(CoreAnnotations.NormalizedNamedEntityTagAnnotation.class));
+			}
+			NumberSequenceClassifier.transferAnnotations(cachedToken, token);
+			tokens.add(token);
+		}
+
+		final CoreLabel firstToken = tokens.get(0);
+		final CoreLabel lastToken = tokens.get(tokens.size() - 1);
+		final CoreMap mention = new ArrayCoreMap(cachedMention.annotations);
+		mention.set(CoreAnnotations.CharacterOffsetBeginAnnotation.class, firstToken.beginPosition());
+		mention.set(CoreAnnotations.CharacterOffsetEndAnnotation.class, lastToken.endPosition());
+		mention.set(CoreAnnotations.TokensAnnotation.class, tokens);
+		if (cachedMention.gazetteerEntryIds != null && gazetteerEntries != null) {
+			// places deleted from the gazetteer in the meantime are skipped
+			mention.set(GazetteerEntriesAnnotation.class, cachedMention.gazetteerEntryIds.stream()
+					.map(gazetteerEntries::get).filter(Objects::nonNull).collect(Collectors.toList()));
+		}
+		if (cachedMention.tokenBeginDelta != null) {
+			mention.set(CoreAnnotations.TokenBeginAnnotation.class, cachedMention.tokenBeginDelta
+					+ getTokenBase(firstToken, sentenceTokenOffset, cachedMention.documentTokenOffsets));
+		}
+		if (cachedMention.tokenEndDelta != null) {
+			mention.set(CoreAnnotations.TokenEndAnnotation.class, cachedMention.tokenEndDelta
+					+ getTokenBase(lastToken, sentenceTokenOffset, cachedMention.documentTokenOffsets));
+		}
+
+		return mention;
+	}
+
+}
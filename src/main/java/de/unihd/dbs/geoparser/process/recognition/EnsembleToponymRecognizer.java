@@ -0,0 +1,284 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Implementation of {@link ToponymRecognizer} that runs several {@link ToponymRecognizer}s concurrently on the same
+ * sentence and merges the found mentions according to a {@link MergeStrategy}. Thus, the recall of multiple
+ * recognizers can be combined, while the latency stays close to the latency of the slowest recognizer.
+ * <p>
+ * The order of the given recognizers defines their priority, i.e., the first recognizer has the highest priority.
+ * Each recognizer gets its own copy of the sentence tokens, so recognizers annotating tokens in-place do not interfere
+ * with each other. Only thread-safe recognizers (see {@link ToponymRecognizer#isThreadSafe()}) are run on worker
+ * threads; all others, e.g., the {@link GazetteerLookupRecognizer}, are run one after another on the calling thread.
+ * <p>
+ * Idle worker threads terminate after {@value #WORKER_KEEP_ALIVE_SECONDS} seconds. Call {@link #close()} to shut them
+ * down immediately if the recognizer is not needed anymore.
+ *
+ * @author lrichter
+ *
+ */
+public class EnsembleToponymRecognizer extends ToponymRecognizer implements AutoCloseable {
+
+	/**
+	 * Strategies for merging the mentions found by the recognizers of an ensemble.
+	 */
+	public enum MergeStrategy {
+		/**
+		 * All mentions are kept. Overlapping mentions are resolved in favor of the recognizer with the highest
+		 * priority.
+		 */
+		PRIORITY,
+		/**
+		 * Only mentions that overlap with mentions of at least <code>minVotes</code> recognizers (including the
+		 * recognizer that found the mention) are kept. Overlapping mentions are resolved in favor of the mention with
+		 * the most votes, then in favor of the mention whose exact boundaries are found by most recognizers, and then in
+		 * favor of the recognizer with the highest priority.
+		 */
+		VOTING
+	}
+
+	private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+
+	private final List<ToponymRecognizer> recognizers;
+	// indices of the recognizers run on the calling thread and on worker threads
+	private final List<Integer> callingThreadRecognizers;
+	private final List<Integer> workerRecognizers;
+	private final MergeStrategy mergeStrategy;
+	private final int minVotes;
+	private final ExecutorService executor;
+
+	/**
+	 * Create an {@link EnsembleToponymRecognizer} using {@link MergeStrategy#PRIORITY}.
+	 *
+	 * @param recognizers the recognizers ordered by descending priority.
+	 */
+	public EnsembleToponymRecognizer(final List<ToponymRecognizer> recognizers) {
+		this(recognizers, MergeStrategy.PRIORITY, 1);
+	}
+
+	/**
+	 * Create an {@link EnsembleToponymRecognizer}.
+	 *
+	 * @param recognizers the recognizers ordered by descending priority. Must not be empty.
+	 * @param mergeStrategy the strategy for merging the found mentions.
+	 * @param minVotes the minimum number of recognizers that must agree on a mention. Only used for
+	 *            {@link MergeStrategy#VOTING}.
+	 */
+	public EnsembleToponymRecognizer(final List<ToponymRecognizer> recognizers, final MergeStrategy mergeStrategy,
+			final int minVotes) {
+		Objects.requireNonNull(recognizers);
+		Objects.requireNonNull(mergeStrategy);
+		if (recognizers.isEmpty()) {
+			throw new IllegalArgumentException("At least one recognizer is required!");
+		}
+		if (minVotes < 1 || minVotes > recognizers.size()) {
+			throw new IllegalArgumentException("minVotes must be between 1 and the number of recognizers!");
+		}
+		this.recognizers = new ArrayList<>(recognizers);
+		this.mergeStrategy = mergeStrategy;
+		this.minVotes = minVotes;
+
+		this.callingThreadRecognizers = new ArrayList<>();
+		this.workerRecognizers = new ArrayList<>();
+		for (int i = 0; i < recognizers.size(); i++) {
+			if (recognizers.get(i).isThreadSafe()) {
+				workerRecognizers.add(i);
+			}
+			else {
+				callingThreadRecognizers.add(i);
+			}
+		}
+		// the calling thread has to wait anyway, so it runs the first recognizer itself if it has nothing else to do
+		if (callingThreadRecognizers.isEmpty()) {
+			callingThreadRecognizers.add(workerRecognizers.remove(0));
+		}
+
+		if (workerRecognizers.isEmpty()) {
+			this.executor = null;
+		}
+		else {
+			final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(workerRecognizers.size(),
+					workerRecognizers.size(), WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+					runnable -> {
+						final Thread thread = new Thread(runnable, "ensemble-recognizer");
+						thread.setDaemon(true);
+						return thread;
+					});
+			// unused ensembles must not keep their threads alive, even if they are never closed
+			threadPool.allowCoreThreadTimeOut(true);
+			this.executor = threadPool;
+		}
+	}
+
+	public List<ToponymRecognizer> getRecognizers() {
+		return Collections.unmodifiableList(recognizers);
+	}
+
+	@Override
+	public Set<Requirement> requires() {
+		final Set<Requirement> requirements = new HashSet<>();
+		recognizers.forEach(recognizer -> requirements.addAll(recognizer.requires()));
+		return Collections.unmodifiableSet(requirements);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Since the merged mentions may originate from any recognizer, only requirements satisfied by all recognizers are
+	 * satisfied by the ensemble.
+	 */
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		final Set<Requirement> requirements = new HashSet<>(recognizers.get(0).requirementsSatisfied());
+		recognizers.forEach(recognizer -> requirements.retainAll(recognizer.requirementsSatisfied()));
+		return Collections.unmodifiableSet(requirements);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * <b>Note:</b> The tokens of the returned mentions are copies of the given tokens.
+	 */
+	@Override
+	public boolean isThreadSafe() {
+		return callingThreadRecognizers.stream().allMatch(i -> recognizers.get(i).isThreadSafe());
+	}
+
+	@Override
+	public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document, final CoreMap sentence) {
+		final List<Future<List<CoreMap>>> futures = new ArrayList<>(workerRecognizers.size());
+		for (final int i : workerRecognizers) {
+			final ToponymRecognizer recognizer = recognizers.get(i);
+			futures.add(executor.submit(() -> recognizer.recognize(copyTokens(tokens), document, sentence)));
+		}
+
+		final List<List<CoreMap>> mentionsPerRecognizer = new ArrayList<>(
+				Collections.nCopies(recognizers.size(), null));
+		try {
+			for (final int i : callingThreadRecognizers) {
+				mentionsPerRecognizer.set(i, recognizers.get(i).recognize(copyTokens(tokens), document, sentence));
+			}
+			for (int j = 0; j < futures.size(); j++) {
+				mentionsPerRecognizer.set(workerRecognizers.get(j), futures.get(j).get());
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for recognizers!", e);
+		}
+		catch (final ExecutionException e) {
+			throw new RuntimeException("Recognizer failed!", e.getCause());
+		}
+		finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+
+		return mergeMentions(mentionsPerRecognizer);
+	}
+
+	private static List<CoreLabel> copyTokens(final List<CoreLabel> tokens) {
+		return tokens.stream().map(CoreLabel::new).collect(Collectors.toList());
+	}
+
+	private List<CoreMap> mergeMentions(final List<List<CoreMap>> mentionsPerRecognizer) {
+		final List<Candidate> candidates = new ArrayList<>();
+		for (int i = 0; i < mentionsPerRecognizer.size(); i++) {
+			for (final CoreMap mention : mentionsPerRecognizer.get(i)) {
+				final List<CoreLabel> mentionTokens = mention.get(CoreAnnotations.TokensAnnotation.class);
+				if (mentionTokens != null && !mentionTokens.isEmpty()) {
+					candidates.add(new Candidate(mention, i, mentionTokens.get(0).index(),
+							mentionTokens.get(mentionTokens.size() - 1).index()));
+				}
+			}
+		}
+
+		final Comparator<Candidate> preference;
+		switch (mergeStrategy) {
+		case VOTING:
+			for (final Candidate candidate : candidates) {
+				candidate.votes = (int) candidates.stream().filter(other -> other.overlaps(candidate))
+						.mapToInt(other -> other.recognizerRank).distinct().count();
+				candidate.exactVotes = (int) candidates.stream().filter(other -> other.hasSameSpan(candidate))
+						.mapToInt(other -> other.recognizerRank).distinct().count();
+			}
+			candidates.removeIf(candidate -> candidate.votes < minVotes);
+			preference = Comparator.comparingInt((final Candidate candidate) -> -candidate.votes)
+					.thenComparingInt(candidate -> -candidate.exactVotes)
+					.thenComparingInt(candidate -> candidate.recognizerRank);
+			break;
+		case PRIORITY:
+		default:
+			preference = Comparator.comparingInt(candidate -> candidate.recognizerRank);
+			break;
+		}
+		candidates.sort(preference.thenComparingInt(candidate -> candidate.begin));
+
+		final List<Candidate> accepted = new ArrayList<>();
+		for (final Candidate candidate : candidates) {
+			if (accepted.stream().noneMatch(other -> other.overlaps(candidate))) {
+				accepted.add(candidate);
+			}
+		}
+		accepted.sort(Comparator.comparingInt(candidate -> candidate.begin));
+
+		return accepted.stream().map(candidate -> candidate.mention).collect(Collectors.toList());
+	}
+
+	/**
+	 * Shut down the worker threads. The recognizers of the ensemble are not closed.
+	 */
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	private static class Candidate {
+		private final CoreMap mention;
+		private final int recognizerRank;
+		// sentence token indices (inclusive)
+		private final int begin;
+		private final int end;
+		private int votes;
+		private int exactVotes;
+
+		private Candidate(final CoreMap mention, final int recognizerRank, final int begin, final int end) {
+			this.mention = mention;
+			this.recognizerRank = recognizerRank;
+			this.begin = begin;
+			this.end = end;
+			this.votes = 1;
+			this.exactVotes = 1;
+		}
+
+		private boolean hasSameSpan(final Candidate other) {
+			return begin == other.begin && end == other.end;
+		}
+
+		private boolean overlaps(final Candidate other) {
+			return begin <= other.end && other.begin <= end;
+		}
+	}
+
+}
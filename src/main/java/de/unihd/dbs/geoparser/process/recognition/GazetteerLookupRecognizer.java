@@ -23,6 +23,7 @@ import de.unihd.dbs.geoparser.gazetteer.query.PlaceNamePlaceFilter;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceNamePlaceFilter.MatchMode;
 import de.unihd.dbs.geoparser.gazetteer.query.QueryFilter;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
+import de.unihd.dbs.geoparser.util.StringUtil;
 
 import edu.stanford.nlp.ling.CoreAnnotations;
 import edu.stanford.nlp.ling.CoreLabel;
@@ -39,6 +40,10 @@ import edu.stanford.nlp.util.CoreMap;
 /**
  * Implementation of {@link ToponymRecognizer} that extracts named entities from unstructured text documents using
  * gazetteer lookups and some simple linguistic rules. Stop-word filtering is supported rudimentarily.
+ * <p>
+ * Lookup candidates are built according to the {@link CandidateGenerationMode}. The default mode
+ * {@link CandidateGenerationMode#POS_TAGS} requires POS tags, whereas {@link CandidateGenerationMode#ORTHOGRAPHIC}
+ * trades some precision for throughput, since no POS tagger needs to be run beforehand.
  *
  * @author lrichter
  *
@@ -49,16 +54,45 @@ public class GazetteerLookupRecognizer extends ToponymRecognizer {
 
 	private static final Logger logger = LoggerFactory.getLogger(GazetteerLookupRecognizer.class);
 
+	/**
+	 * Strategies for building gazetteer lookup candidates from a sentence.
+	 */
+	public enum CandidateGenerationMode {
+		/**
+		 * Candidates are sequences of proper nouns, possibly connected via "of". Requires POS tags.
+		 */
+		POS_TAGS,
+		/**
+		 * Candidates are sequences of capitalized tokens, possibly connected via "of". Stop words (see
+		 * {@link GazetteerLookupRecognizer#setStopWords}) are matched case-insensitively at the beginning of a sentence
+		 * (where capitalization carries no information) and case-sensitively elsewhere. Does not require POS tags.
+		 */
+		ORTHOGRAPHIC
+	}
+
+	private static final String CANDIDATE_CONNECTOR = "of";
+
 	private final Gazetteer gazetteer;
+	private final CandidateGenerationMode candidateGenerationMode;
 	private Set<String> stopWords;
 	private boolean filterStopWords;
 
 	public GazetteerLookupRecognizer(final Gazetteer gazetteer) {
+		this(gazetteer, CandidateGenerationMode.POS_TAGS);
+	}
+
+	public GazetteerLookupRecognizer(final Gazetteer gazetteer, final CandidateGenerationMode candidateGenerationMode) {
+		Objects.requireNonNull(candidateGenerationMode);
 		this.gazetteer = gazetteer;
+		this.candidateGenerationMode = candidateGenerationMode;
 		this.stopWords = new HashSet<>();
 		this.filterStopWords = false;
 	}
 
+	public CandidateGenerationMode getCandidateGenerationMode() {
+		return candidateGenerationMode;
+	}
+
 	public void setStopWords(final Set<String> stopWords) {
 		Objects.requireNonNull(stopWords);
 		this.stopWords = stopWords;
@@ -85,7 +119,16 @@ public class GazetteerLookupRecognizer extends ToponymRecognizer {
 	 */
 	public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document, final CoreMap sentence) {
 		final List<CoreMap> toponyms = new ArrayList<>();
-		List<List<CoreLabel>> candidates = buildCandidates(tokens);
+		List<List<CoreLabel>> candidates;
+		switch (candidateGenerationMode) {
+		case ORTHOGRAPHIC:
+			candidates = buildOrthographicCandidates(tokens, stopWords);
+			break;
+		case POS_TAGS:
+		default:
+			candidates = buildCandidates(tokens);
+			break;
+		}
 
 		if (filterStopWords) {
 			candidates = candidates.stream().filter(candidate -> !stopWords.contains(tokensToString(candidate)))
@@ -137,6 +180,60 @@ public class GazetteerLookupRecognizer extends ToponymRecognizer {
 		return candidates;
 	}
 
+	/**
+	 * Build lookup candidates solely based on orthographic features, i.e., capitalization and sentence position.
+	 *
+	 * @param tokens the sentence tokens.
+	 * @param stopWords lower-case stop words that must not be part of a candidate.
+	 * @return the found candidates.
+	 */
+	static List<List<CoreLabel>> buildOrthographicCandidates(final List<CoreLabel> tokens,
+			final Set<String> stopWords) {
+		final List<List<CoreLabel>> candidates = new ArrayList<>();
+		List<CoreLabel> candidate = new ArrayList<>();
+		boolean sentenceStart = true;
+
+		for (int i = 0; i < tokens.size(); i++) {
+			final String word = tokens.get(i).word();
+			if (isOrthographicCandidateToken(word, sentenceStart, stopWords)) {
+				candidate.add(tokens.get(i));
+			}
+			else if (!candidate.isEmpty() && CANDIDATE_CONNECTOR.equals(word) && i + 1 < tokens.size()
+					&& isOrthographicCandidateToken(tokens.get(i + 1).word(), false, stopWords)) {
+				candidate.add(tokens.get(i));
+			}
+			else if (!candidate.isEmpty()) {
+				candidates.add(candidate);
+				candidate = new ArrayList<>();
+			}
+
+			// the first word after leading punctuation (e.g. quotes) or a colon is capitalized anyways
+			if (":".equals(word)) {
+				sentenceStart = true;
+			}
+			else if (word.codePoints().anyMatch(Character::isLetterOrDigit)) {
+				sentenceStart = false;
+			}
+		}
+		if (!candidate.isEmpty()) {
+			candidates.add(candidate);
+		}
+
+		return candidates;
+	}
+
+	private static boolean isOrthographicCandidateToken(final String word, final boolean sentenceStart,
+			final Set<String> stopWords) {
+		if (!StringUtil.isCapitalized(word) || StringUtil.isSingleCapitalLetter(word)) {
+			return false;
+		}
+		if (StringUtil.isAcronym(word)) {
+			// acronyms such as "US" must not be confused with stop words
+			return true;
+		}
+		return !stopWords.contains(sentenceStart ? StringUtil.toLowerCase(word) : word);
+	}
+
 	private static String tokensToString(final List<CoreLabel> tokens) {
 		final StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < tokens.size(); i++) {
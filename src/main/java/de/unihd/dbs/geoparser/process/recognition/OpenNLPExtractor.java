@@ -2,6 +2,7 @@ package de.unihd.dbs.geoparser.process.recognition;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -14,6 +15,8 @@ import org.slf4j.LoggerFactory;
 import de.unihd.dbs.geoparser.core.GeoparserConfig;
 import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.GeoparserConfig.UnknownConfigLabelException;
+import de.unihd.dbs.geoparser.util.NLPModelRegistry;
+import de.unihd.dbs.geoparser.util.NLPModelRegistry.ModelHandle;
 
 import edu.stanford.nlp.ling.CoreAnnotations;
 import edu.stanford.nlp.ling.CoreLabel;
@@ -31,6 +34,10 @@ import opennlp.tools.util.Span;
  * Implementation of {@link ToponymRecognitionAnnotator} that extracts toponyms from unstructured text documents using
  * the Apache OpenNLP Name Finder.
  * <p>
+ * The Name Finder model is obtained from the {@link NLPModelRegistry}, so multiple {@link OpenNLPExtractor} instances
+ * using the same model share a single model instance. The model is not loaded before the first sentence is recognized.
+ * Call {@link #close()} to release the model if the extractor is not needed anymore.
+ * <p>
  * Note: Patterned after com.bericotech.clavin.extractor.ApacheExtractor
  * 
  * @author CLAVIN, lrichter
@@ -38,7 +45,7 @@ import opennlp.tools.util.Span;
  */
 // TODO: either remove tokenizer and sentence detector model stuff completely or provide separate annotation modules...
 // Its just trash here, originating from the CLAVIN code
-public class OpenNLPExtractor extends ToponymRecognizer {
+public class OpenNLPExtractor extends ToponymRecognizer implements AutoCloseable {
 
 	public static final String CONFIG_OPENNLP_SENTENCE_DETECTOR_MODEL_PATH_LABEL = "opennlp.sentence_detector.model.path";
 	public static final String CONFIG_OPENNLP_TOKENIZER_MODEL_PATH_LABEL = "opennlp.tokenizer.model.path";
@@ -46,7 +53,11 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 
 	private static final Logger logger = LoggerFactory.getLogger(OpenNLPExtractor.class);
 
-	private NameFinderME nameFinder;
+	private volatile TokenNameFinderModel nameFinderModel;
+	private ModelHandle<TokenNameFinderModel> nameFinderModelHandle;
+	// NameFinderME is not thread-safe, but the model is. Hence, each thread gets its own name finder instance.
+	private final ThreadLocal<DocumentScopedNameFinder> nameFinders = ThreadLocal
+			.withInitial(() -> new DocumentScopedNameFinder(new NameFinderME(getNameFinderModel())));
 	// private TokenizerME tokenizer;
 	// private SentenceDetectorME sentenceDetector;
 
@@ -55,7 +66,7 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 	 * parameters specified in the given GeoParser configuration.
 	 * 
 	 * @param config the GeoParser configuration.
-	 * @throws IOException if reading the language model files failed.
+	 * @throws IOException if the language model files do not exist.
 	 * @throws UnknownConfigLabelException if the configuration string labels are invalid.
 	 */
 	public OpenNLPExtractor(final GeoparserConfig config) throws UnknownConfigLabelException, IOException {
@@ -76,7 +87,7 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 	 * @param NERmodelPath path to OpenNLP NER language model.
 	 * @param tokenizerModelPath path to OpenNLP Tokenizer model.
 	 * @param sentenceDetectorModelPath path to OpenNLP Sentence Detector model.
-	 * @throws IOException if reading the language model files failed.
+	 * @throws IOException if the language model files do not exist.
 	 */
 	public OpenNLPExtractor(final String NERmodelPath, final String tokenizerModelPath,
 			final String sentenceDetectorModelPath) throws IOException {
@@ -88,13 +99,10 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 		logger.debug("Initializing OpenNLPExtractor with model '" + NERmodelPath + "', tokenizer '" + tokenizerModelPath
 				+ "' and detector '" + sentenceDetectorModelPath + "'");
 		// see http://stackoverflow.com/a/14739608 for why we use getClassLoader()...
-		try (final InputStream nameFinderStream = getClass().getClassLoader().getResourceAsStream(NERmodelPath);
-				final InputStream tokenizerStream = getClass().getClassLoader().getResourceAsStream(tokenizerModelPath);
+		try (final InputStream tokenizerStream = getClass().getClassLoader().getResourceAsStream(tokenizerModelPath);
 				final InputStream sentenceDetectorStream = getClass().getClassLoader()
 						.getResourceAsStream(sentenceDetectorModelPath);) {
-			if (nameFinderStream == null) {
-				throw new IOException("Couldn't find model file " + NERmodelPath + "!");
-			}
+			NLPModelRegistry.checkModelExists(NERmodelPath);
 			if (tokenizerStream == null) {
 				throw new IOException("Couldn't find model file " + tokenizerModelPath + "!");
 			}
@@ -102,14 +110,59 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 				throw new IOException("Couldn't find model file " + sentenceDetectorModelPath + "!");
 			}
 
-			nameFinder = new NameFinderME(new TokenNameFinderModel(nameFinderStream));
 			// tokenizer = new TokenizerME(new TokenizerModel(tokenizerStream));
 			// sentenceDetector = new SentenceDetectorME(new SentenceModel(sentenceDetectorStream));
 		}
+		nameFinderModelHandle = NLPModelRegistry.getInstance().acquireOpenNLPNameFinderModel(NERmodelPath);
 
 		logger.debug("Successfully initialized OpenNLPExtractor");
 	}
 
+	private TokenNameFinderModel getNameFinderModel() {
+		TokenNameFinderModel model = nameFinderModel;
+		if (model == null) {
+			synchronized (this) {
+				model = nameFinderModel;
+				if (model == null) {
+					try {
+						model = nameFinderModelHandle.get();
+					}
+					catch (final IOException e) {
+						throw new RuntimeException("Failed to load OpenNLP Name Finder model!", e);
+					}
+					nameFinderModel = model;
+				}
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * Release the shared Name Finder model. The extractor must not be used afterwards.
+	 * <p>
+	 * The Name Finder of the calling thread is removed immediately. Name Finders of other threads become unreachable
+	 * together with this extractor and are released lazily by their threads.
+	 */
+	@Override
+	public void close() {
+		nameFinders.remove();
+		nameFinderModel = null;
+		if (nameFinderModelHandle != null) {
+			nameFinderModelHandle.close();
+			nameFinderModelHandle = null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Each calling thread uses its own Name Finder instance, so the extractor may be called concurrently.
+	 */
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	@Override
 	public Set<Requirement> requires() {
 		return Annotator.TOKENIZE_AND_SSPLIT;
@@ -121,8 +174,18 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 				new ArraySet<>(ToponymRecognitionAnnotator.TOPONYM_RECOGNITION_REQUIREMENT, Annotator.NER_REQUIREMENT));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Each calling thread uses its own Name Finder instance. Adaptive data collected by the Name Finder is kept for all
+	 * sentences of the same document and reset when a new document is processed, or when the same document is annotated
+	 * again, i.e., when a sentence does not follow the previously processed sentence of the document. If no document is
+	 * given, adaptive data is reset after each call.
+	 */
 	@Override
 	public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document, final CoreMap sentence) {
+		final DocumentScopedNameFinder scopedNameFinder = nameFinders.get();
+		final NameFinderME nameFinder = scopedNameFinder.getNameFinder(document, getSentenceIndex(sentence));
 		final List<CoreMap> mentions = new ArrayList<>();
 		final String[] openNlpTokens = tokens.stream().map(token -> token.word()).collect(Collectors.toList())
 				.toArray(new String[tokens.size()]);
@@ -148,9 +211,53 @@ public class OpenNLPExtractor extends ToponymRecognizer {
 		}
 
 		// this is necessary to maintain consistent results across multiple runs on the same data, which is what we want
-		nameFinder.clearAdaptiveData();
+		if (document == null) {
+			nameFinder.clearAdaptiveData();
+		}
 
 		return mentions;
 	}
 
+	private static int getSentenceIndex(final CoreMap sentence) {
+		final Integer sentenceIndex = sentence == null ? null
+				: sentence.get(CoreAnnotations.SentenceIndexAnnotation.class);
+		return sentenceIndex == null ? -1 : sentenceIndex;
+	}
+
+	/**
+	 * Per-thread holder of a {@link NameFinderME} that clears the adaptive data whenever a different document than the
+	 * previous one is processed, or the same document is processed again.
+	 */
+	private static class DocumentScopedNameFinder {
+		private final NameFinderME nameFinder;
+		// weak reference, since we must not keep processed documents alive
+		private WeakReference<Annotation> currentDocument;
+		private int currentSentenceIndex;
+
+		private DocumentScopedNameFinder(final NameFinderME nameFinder) {
+			this.nameFinder = nameFinder;
+			this.currentDocument = new WeakReference<>(null);
+			this.currentSentenceIndex = -1;
+		}
+
+		/**
+		 * Get the Name Finder for the sentence with the given index in the given document.
+		 *
+		 * @param document the document or <code>null</code>.
+		 * @param sentenceIndex the index of the sentence or -1, if unknown.
+		 * @return the Name Finder.
+		 */
+		private NameFinderME getNameFinder(final Annotation document, final int sentenceIndex) {
+			// sentences of a document are processed in ascending order, so any other order starts a new annotation
+			// run of the same document
+			if (document == null || currentDocument.get() != document || sentenceIndex >= 0
+					&& sentenceIndex <= currentSentenceIndex) {
+				nameFinder.clearAdaptiveData();
+				currentDocument = new WeakReference<>(document);
+			}
+			currentSentenceIndex = sentenceIndex;
+			return nameFinder;
+		}
+	}
+
 }
\ No newline at end of file
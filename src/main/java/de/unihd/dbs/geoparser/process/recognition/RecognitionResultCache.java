@@ -0,0 +1,174 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Bounded, thread-safe cache for sentence-level recognition results used by {@link CachingToponymRecognizer}.
+ * <p>
+ * Results are keyed by the token sequence of a sentence (words, POS tags and whitespace) and a configuration key that
+ * identifies the recognizer producing the results. Hence, a single cache instance may be shared by multiple
+ * {@link CachingToponymRecognizer}s and is reused across documents. If the cache is full, the least recently used entry
+ * is evicted.
+ *
+ * @author lrichter
+ *
+ */
+public class RecognitionResultCache {
+
+	private final int maxEntries;
+	private final Map<SentenceKey, List<CachedMention>> entries;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Create a {@link RecognitionResultCache} instance.
+	 *
+	 * @param maxEntries the maximum number of cached sentences. Must be positive.
+	 */
+	public RecognitionResultCache(final int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("maxEntries must be positive!");
+		}
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<SentenceKey, List<CachedMention>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<SentenceKey, List<CachedMention>> eldest) {
+				return size() > RecognitionResultCache.this.maxEntries;
+			}
+		};
+		this.hitCount = 0;
+		this.missCount = 0;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	synchronized List<CachedMention> get(final SentenceKey key) {
+		final List<CachedMention> mentions = entries.get(key);
+		if (mentions == null) {
+			missCount++;
+		}
+		else {
+			hitCount++;
+		}
+		return mentions;
+	}
+
+	synchronized void put(final SentenceKey key, final List<CachedMention> mentions) {
+		entries.put(key, mentions);
+	}
+
+	/**
+	 * Cache key consisting of the recognizer configuration and the token sequence of a sentence.
+	 */
+	static final class SentenceKey {
+		private final String configurationKey;
+		private final String[] tokenFeatures;
+		private final int hashCode;
+
+		SentenceKey(final String configurationKey, final List<CoreLabel> tokens) {
+			this.configurationKey = configurationKey;
+			// word, POS tag and trailing whitespace per token
+			this.tokenFeatures = new String[tokens.size() * 3];
+			for (int i = 0; i < tokens.size(); i++) {
+				final CoreLabel token = tokens.get(i);
+				tokenFeatures[3 * i] = token.word();
+				tokenFeatures[3 * i + 1] = token.tag();
+				tokenFeatures[3 * i + 2] = token.after();
+			}
+			this.hashCode = 31 * configurationKey.hashCode() + Arrays.hashCode(tokenFeatures);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof SentenceKey)) {
+				return false;
+			}
+			final SentenceKey other = (SentenceKey) obj;
+			return hashCode == other.hashCode && configurationKey.equals(other.configurationKey)
+					&& Arrays.equals(tokenFeatures, other.tokenFeatures);
+		}
+	}
+
+	/**
+	 * A recognized mention stored independently of the sentence it was found in.
+	 */
+	static final class CachedMention {
+		// position of the first mention token within the sentence (0-based)
+		final int sentenceTokenBegin;
+		// mention annotations without positional information and gazetteer entries
+		final CoreMap annotations;
+		// Ids of the gazetteer entries of the mention, or null if it had none
+		final List<Long> gazetteerEntryIds;
+		// NE information of the mention tokens
+		final List<CoreLabel> tokens;
+		// token offsets of the mention relative to the first mention token, see CachingToponymRecognizer
+		final Integer tokenBeginDelta;
+		final Integer tokenEndDelta;
+		final boolean documentTokenOffsets;
+
+		CachedMention(final int sentenceTokenBegin, final CoreMap annotations, final List<Long> gazetteerEntryIds,
+				final List<CoreLabel> tokens, final Integer tokenBeginDelta, final Integer tokenEndDelta,
+				final boolean documentTokenOffsets) {
+			this.sentenceTokenBegin = sentenceTokenBegin;
+			this.annotations = Objects.requireNonNull(annotations);
+			this.gazetteerEntryIds = gazetteerEntryIds == null ? null : new ArrayList<>(gazetteerEntryIds);
+			this.tokens = new ArrayList<>(tokens);
+			this.tokenBeginDelta = tokenBeginDelta;
+			this.tokenEndDelta = tokenEndDelta;
+			this.documentTokenOffsets = documentTokenOffsets;
+		}
+
+		int size() {
+			return tokens.size();
+		}
+
+		static boolean isPositionalKey(final Class<?> key) {
+			return key == CoreAnnotations.TokensAnnotation.class
+					|| key == CoreAnnotations.CharacterOffsetBeginAnnotation.class
+					|| key == CoreAnnotations.CharacterOffsetEndAnnotation.class
+					|| key == CoreAnnotations.TokenBeginAnnotation.class
+					|| key == CoreAnnotations.TokenEndAnnotation.class;
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+import de.unihd.dbs.geoparser.util.NLPModelRegistry;
+import de.unihd.dbs.geoparser.util.NLPModelRegistry.ModelHandle;
+
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.POSTaggerAnnotator;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+
+/**
+ * {@link Annotator} that delegates to a Stanford {@link POSTaggerAnnotator} and obtains its tagger from the
+ * {@link NLPModelRegistry}, so multiple annotators using the same model share a single tagger instance. The tagger is
+ * not loaded before the first document is annotated. Call {@link #close()} to release the tagger if the annotator is
+ * not needed anymore.
+ *
+ * @author lrichter
+ *
+ */
+public class SharedPOSTaggerAnnotator implements Annotator, AutoCloseable {
+
+	private final ModelHandle<MaxentTagger> taggerHandle;
+	private volatile POSTaggerAnnotator posTaggerAnnotator;
+
+	private SharedPOSTaggerAnnotator(final ModelHandle<MaxentTagger> taggerHandle) {
+		this.taggerHandle = taggerHandle;
+		this.posTaggerAnnotator = null;
+	}
+
+	/**
+	 * Create a {@link SharedPOSTaggerAnnotator} for the tagger model located at the given path. The model itself is
+	 * loaded when the first document is annotated.
+	 *
+	 * @param modelPath path to the tagger model.
+	 * @return the annotator.
+	 * @throws IOException if the model file does not exist.
+	 */
+	public static SharedPOSTaggerAnnotator create(final String modelPath) throws IOException {
+		NLPModelRegistry.checkModelExists(modelPath);
+		return new SharedPOSTaggerAnnotator(NLPModelRegistry.getInstance().acquirePOSTagger(modelPath));
+	}
+
+	private POSTaggerAnnotator getPOSTaggerAnnotator() {
+		POSTaggerAnnotator annotator = posTaggerAnnotator;
+		if (annotator == null) {
+			synchronized (this) {
+				annotator = posTaggerAnnotator;
+				if (annotator == null) {
+					try {
+						annotator = new POSTaggerAnnotator(taggerHandle.get());
+					}
+					catch (final IOException e) {
+						throw new RuntimeException("Failed to load POS tagger model!", e);
+					}
+					posTaggerAnnotator = annotator;
+				}
+			}
+		}
+		return annotator;
+	}
+
+	@Override
+	public void annotate(final Annotation annotation) {
+		getPOSTaggerAnnotator().annotate(annotation);
+	}
+
+	@Override
+	public Set<Requirement> requires() {
+		return Annotator.TOKENIZE_AND_SSPLIT;
+	}
+
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		return Collections.singleton(Annotator.POS_REQUIREMENT);
+	}
+
+	/**
+	 * Release the shared tagger. The annotator must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		posTaggerAnnotator = null;
+		taggerHandle.close();
+	}
+
+}
@@ -27,24 +27,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import de.unihd.dbs.geoparser.core.GeoparserConfig;
 import de.unihd.dbs.geoparser.core.GeoparserConfig.UnknownConfigLabelException;
+import de.unihd.dbs.geoparser.util.NLPModelRegistry;
+import de.unihd.dbs.geoparser.util.NLPModelRegistry.ModelHandle;
 
 /**
  * Implementation of {@link ToponymRecognizer} that extracts named entities from unstructured text documents using the
  * Stanford NER software: http://nlp.stanford.edu/software/CRF-NER.shtml.
+ * <p>
+ * The CRF classifier is obtained from the {@link NLPModelRegistry}, so multiple {@link StanfordNER} instances using the
+ * same model share a single classifier instance. The classifier is not loaded before the first sentence is recognized.
+ * Call {@link #close()} to release the classifier if the recognizer is not needed anymore.
  * 
  * @author lrichter
  * 
  */
 // XXX: currently we use LabeledChunkIdentifier manually instead of the more feature-rich EntityMentionsAnnotator
 // since it is very odd to use (mixes annotation logic with processing logic)
-public class StanfordNER extends ToponymRecognizer {
+public class StanfordNER extends ToponymRecognizer implements AutoCloseable {
 
 	public static final String CONFIG_STANFORD_NER_PROP_PATH_LABEL = "stanford.ner.prop.path";
 	public static final String CONFIG_STANFORD_NER_MODEL_PATH_LABEL = "stanford.ner.model.path";
 
 	private static final Logger logger = LoggerFactory.getLogger(StanfordNER.class);
 
-	private NERClassifierCombiner namedEntityRecognizer;
+	private volatile NERClassifierCombiner namedEntityRecognizer;
+	private ModelHandle<CRFClassifier<CoreLabel>> classifierHandle;
+	private boolean applyNumericalClassifiers;
+	private boolean useSUTime;
 	private final LabeledChunkIdentifier chunkIdentifier;
 
 	/**
@@ -52,7 +61,7 @@ public class StanfordNER extends ToponymRecognizer {
 	 * in the given Geoparser Configuration.
 	 * 
 	 * @param config the Geoparser configuration.
-	 * @throws IOException if reading the language model files failed.
+	 * @throws IOException if the language model or property files do not exist.
 	 * @throws UnknownConfigLabelException if the configuration string labels are invalid.
 	 */
 	public StanfordNER(final GeoparserConfig config) throws IOException, UnknownConfigLabelException {
@@ -73,7 +82,7 @@ public class StanfordNER extends ToponymRecognizer {
 	 * @param applyNumericalClassifiers if <code>true</code>, numerical classifiers (NumberSequenceClassifier,
 	 *            QuantifiableEntityNormalizer) are also applied.
 	 * @param useSUTime if <code>true</code>, the date/time classifier SUTime is also applied.
-	 * @throws IOException if reading the language model files failed.
+	 * @throws IOException if the language model or property files do not exist.
 	 */
 	public StanfordNER(final String NERmodelPath, final String NERpropPath, final boolean applyNumericalClassifiers,
 			final boolean useSUTime) throws IOException {
@@ -90,20 +99,61 @@ public class StanfordNER extends ToponymRecognizer {
 				throw new IOException("Couldn't find model file " + NERpropPath + "!");
 			}
 			properties.load(propStream);
-			namedEntityRecognizer = new NERClassifierCombiner(applyNumericalClassifiers, useSUTime,
-					CRFClassifier.getClassifier(NERmodelPath, properties));
-			logger.debug("Successfully initialized StanfordNER");
 		}
-		catch (ClassCastException | ClassNotFoundException e) {
-			throw new IOException("Failed to load model file!", e);
+
+		NLPModelRegistry.checkModelExists(NERmodelPath);
+		this.applyNumericalClassifiers = applyNumericalClassifiers;
+		this.useSUTime = useSUTime;
+		classifierHandle = NLPModelRegistry.getInstance().acquireCRFClassifier(NERmodelPath, properties);
+		logger.debug("Successfully initialized StanfordNER");
+	}
+
+	private NERClassifierCombiner getNamedEntityRecognizer() {
+		NERClassifierCombiner recognizer = namedEntityRecognizer;
+		if (recognizer == null) {
+			synchronized (this) {
+				recognizer = namedEntityRecognizer;
+				if (recognizer == null) {
+					try {
+						recognizer = new NERClassifierCombiner(applyNumericalClassifiers, useSUTime,
+								classifierHandle.get());
+					}
+					catch (final IOException e) {
+						throw new RuntimeException("Failed to load Stanford NER model!", e);
+					}
+					namedEntityRecognizer = recognizer;
+				}
+			}
 		}
+		return recognizer;
+	}
+
+	/**
+	 * Release the shared classifier. The recognizer must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		namedEntityRecognizer = null;
+		if (classifierHandle != null) {
+			classifierHandle.close();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The shared classifier is only read during recognition, so the recognizer may be called concurrently.
+	 */
+	@Override
+	public boolean isThreadSafe() {
+		return true;
 	}
 
 	@Override
 	public Set<Requirement> requires() {
 		// from NERCombinerAnnotator source code:
 		// TODO: we could check the models to see which ones use lemmas and which ones use pos tags
-		if (namedEntityRecognizer.usesSUTime() || namedEntityRecognizer.appliesNumericClassifiers()) {
+		if (useSUTime || applyNumericalClassifiers) {
 			return Annotator.TOKENIZE_SSPLIT_POS_LEMMA;
 		}
 		else {
@@ -119,7 +169,7 @@ public class StanfordNER extends ToponymRecognizer {
 
 	@Override
 	public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document, final CoreMap sentence) {
-		final List<CoreLabel> output = namedEntityRecognizer.classifySentenceWithGlobalInformation(tokens, document,
+		final List<CoreLabel> output = getNamedEntityRecognizer().classifySentenceWithGlobalInformation(tokens, document,
 				sentence);
 
 		final int tokenOffset = sentence == null ? 0 : sentence.get(CoreAnnotations.TokenBeginAnnotation.class);
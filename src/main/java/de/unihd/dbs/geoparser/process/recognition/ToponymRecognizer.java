@@ -36,6 +36,17 @@ public abstract class ToponymRecognizer {
 	 */
 	public abstract Set<Requirement> requirementsSatisfied();
 
+	/**
+	 * Check whether the {@link ToponymRecognizer} may be called from any thread, including concurrent calls. Modules
+	 * that hold thread-bound resources, such as the entity manager of a
+	 * {@link de.unihd.dbs.geoparser.gazetteer.Gazetteer}, must always be called from the thread owning these resources.
+	 * 
+	 * @return <code>true</code> if the module is thread-safe, <code>false</code> otherwise (default).
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * Recognize toponyms (and other named entities) in the given document.
 	 * 
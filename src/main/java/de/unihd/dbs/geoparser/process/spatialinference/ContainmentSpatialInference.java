@@ -0,0 +1,222 @@
+package de.unihd.dbs.geoparser.process.spatialinference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import com.vividsolutions.jts.geom.Coordinate;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.ResolvedLocationAnnotation;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
+import de.unihd.dbs.geoparser.process.util.AdminContainmentIndex;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Implementation of {@link SpatialInference} that infers the location of unresolved toponyms from the administrative
+ * regions containing the resolved toponyms of the same document.
+ * <p>
+ * The administrative regions of a place are its ancestors in the {@link AdminContainmentIndex}, or, if it has no
+ * known parents, the regions whose footprints contain its first footprint. Based on these regions, unresolved
+ * toponyms are handled as follows:
+ * <ul>
+ * <li>Toponyms with linked places (i.e., a {@link GazetteerEntriesAnnotation}) are resolved to the linked place that
+ * shares the most regions with the resolved toponyms. If no linked place shares a region, the toponym is not
+ * resolved.</li>
+ * <li>Toponyms without linked places are located at the footprint of the region containing the most resolved
+ * toponyms; among equally supported regions, the one closest to the resolved places in the hierarchy is taken. The
+ * resulting {@link ResolvedLocation} has no gazetteer entry.</li>
+ * </ul>
+ * Only resolved toponyms with a gazetteer entry are considered. The evidence is collected from the whole document
+ * once per call; since {@link SpatialInferenceAnnotator} adds the inferred locations only after all sentences were
+ * processed, inferred locations do not influence each other. Use the annotator in document-scoped mode to collect
+ * the evidence only once per document. All lookups are done in the in-memory index, i.e., no database queries are
+ * issued. The named entities are not changed.
+ *
+ * @author lrichter
+ *
+ */
+public class ContainmentSpatialInference extends SpatialInference {
+
+	private final AdminContainmentIndex index;
+
+	/**
+	 * Create a {@link ContainmentSpatialInference} instance.
+	 *
+	 * @param index the administrative containment of the gazetteer places.
+	 */
+	public ContainmentSpatialInference(final AdminContainmentIndex index) {
+		Objects.requireNonNull(index);
+		this.index = index;
+	}
+
+	public AdminContainmentIndex getIndex() {
+		return index;
+	}
+
+	@Override
+	public Set<Requirement> requires() {
+		return Collections.singleton(ToponymLinkingAnnotator.TOPONYM_LINKING_REQUIREMENT);
+	}
+
+	@Override
+	public Set<Requirement> requirementsSatisfied() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public List<ResolvedLocation> inferSpatially(final List<CoreMap> namedEntities, final Annotation document,
+			final CoreMap sentence) {
+		final List<ResolvedLocation> output = new ArrayList<>(namedEntities.size());
+		List<List<Long>> resolvedRegions = null;
+
+		for (final CoreMap namedEntity : namedEntities) {
+			if (!NamedEntityType.LOCATION.name.equals(namedEntity.get(CoreAnnotations.NamedEntityTagAnnotation.class))
+					|| namedEntity.has(ResolvedLocationAnnotation.class)) {
+				output.add(null);
+				continue;
+			}
+
+			if (resolvedRegions == null) {
+				resolvedRegions = getResolvedRegions(namedEntities, document);
+			}
+
+			final List<Place> linkedPlaces = namedEntity.get(GazetteerEntriesAnnotation.class);
+			if (linkedPlaces != null && !linkedPlaces.isEmpty()) {
+				output.add(inferLinkedPlace(linkedPlaces, resolvedRegions));
+			}
+			else {
+				output.add(inferRegion(resolvedRegions));
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Get the place Id and administrative regions of each resolved toponym of the document (or the given named
+	 * entities, if the document is not known).
+	 */
+	private List<List<Long>> getResolvedRegions(final List<CoreMap> namedEntities, final Annotation document) {
+		final List<CoreMap> mentions = new ArrayList<>();
+		if (document != null && document.has(CoreAnnotations.SentencesAnnotation.class)) {
+			for (final CoreMap sentence : document.get(CoreAnnotations.SentencesAnnotation.class)) {
+				if (sentence.has(CoreAnnotations.MentionsAnnotation.class)) {
+					mentions.addAll(sentence.get(CoreAnnotations.MentionsAnnotation.class));
+				}
+			}
+		}
+		else {
+			mentions.addAll(namedEntities);
+		}
+
+		final List<List<Long>> resolvedRegions = new ArrayList<>();
+		for (final CoreMap mention : mentions) {
+			final ResolvedLocation location = mention.get(ResolvedLocationAnnotation.class);
+			if (location != null && location.gazetteerEntry != null && location.gazetteerEntry.getId() != null) {
+				final List<Long> regions = new ArrayList<>();
+				regions.add(location.gazetteerEntry.getId());
+				regions.addAll(getRegions(location.gazetteerEntry));
+				resolvedRegions.add(regions);
+			}
+		}
+		return resolvedRegions;
+	}
+
+	/**
+	 * Get the administrative regions of a place, ordered from the smallest to the largest region.
+	 */
+	private List<Long> getRegions(final Place place) {
+		final List<Long> ancestors = index.getAncestors(place.getId());
+		if (!ancestors.isEmpty()) {
+			return ancestors;
+		}
+
+		for (final Footprint footprint : place.getFootprints()) {
+			if (footprint.getGeometry() != null) {
+				final Coordinate coordinate = footprint.getGeometry().getCoordinate();
+				final Set<Long> regions = new LinkedHashSet<>();
+				for (final Long regionId : index.getContainingRegions(coordinate.y, coordinate.x)) {
+					if (!regionId.equals(place.getId())) {
+						regions.add(regionId);
+						regions.addAll(index.getAncestors(regionId));
+					}
+				}
+				return new ArrayList<>(regions);
+			}
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Select the linked place sharing the most regions (including the resolved places themselves) with the resolved
+	 * toponyms. Ties are resolved in favor of the place ranked first by the linker.
+	 */
+	private ResolvedLocation inferLinkedPlace(final List<Place> linkedPlaces, final List<List<Long>> resolvedRegions) {
+		Place bestPlace = null;
+		int bestScore = 0;
+		for (final Place place : linkedPlaces) {
+			if (place.getId() == null || place.getFootprints().isEmpty()) {
+				continue;
+			}
+
+			final Set<Long> regions = new LinkedHashSet<>();
+			regions.add(place.getId());
+			regions.addAll(getRegions(place));
+			int score = 0;
+			for (final List<Long> resolved : resolvedRegions) {
+				for (final Long regionId : resolved) {
+					if (regions.contains(regionId)) {
+						score++;
+					}
+				}
+			}
+
+			if (score > bestScore) {
+				bestPlace = place;
+				bestScore = score;
+			}
+		}
+		return bestPlace != null ? new ResolvedLocation(bestPlace) : null;
+	}
+
+	/**
+	 * Select the region with a footprint that contains the most resolved toponyms. Ties are resolved in favor of the
+	 * region closest to the resolved places in the hierarchy, and then by the smaller Id.
+	 */
+	private ResolvedLocation inferRegion(final List<List<Long>> resolvedRegions) {
+		final Map<Long, Integer> support = new HashMap<>();
+		final Map<Long, Integer> levels = new HashMap<>();
+		for (final List<Long> resolved : resolvedRegions) {
+			// the first entry is the resolved place itself, which does not contain the unresolved toponym
+			for (int level = 1; level < resolved.size(); level++) {
+				final Long regionId = resolved.get(level);
+				if (index.getFootprint(regionId) != null) {
+					support.merge(regionId, 1, Integer::sum);
+					levels.merge(regionId, level, Math::min);
+				}
+			}
+		}
+
+		final Optional<Long> bestRegion = support.keySet().stream()
+				.min(Comparator.comparing((final Long regionId) -> -support.get(regionId))
+						.thenComparing(levels::get).thenComparing(Comparator.naturalOrder()));
+		return bestRegion.map(regionId -> new ResolvedLocation(index.getFootprint(regionId))).orElse(null);
+	}
+
+}
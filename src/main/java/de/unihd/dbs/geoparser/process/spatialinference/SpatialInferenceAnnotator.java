@@ -3,6 +3,7 @@ package de.unihd.dbs.geoparser.process.spatialinference;
 import de.unihd.dbs.geoparser.core.NamedEntityType;
 import de.unihd.dbs.geoparser.core.ResolvedLocation;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +37,11 @@ import edu.stanford.nlp.util.CoreMap;
  * For each unlinked toponym (i.e., a {@link MentionsAnnotation} with a {@link NamedEntityTagAnnotation} value equal to
  * {@link NamedEntityType#LOCATION} and no {@link GazetteerEntriesAnnotation}) a {@link ResolvedLocationAnnotation} is
  * added if the toponym location was successfully spatially inferred.
+ * <p>
+ * The inferred locations are only added after all sentences were processed, so the inference always sees the toponyms
+ * as resolved by the previous stages and inferred locations do not feed back as evidence. By default, the inference
+ * is invoked once per sentence. In document-scoped mode, the toponyms of all sentences are passed to the inference at
+ * once, so document-wide evidence only needs to be collected once.
  * 
  * @author lrichter
  * 
@@ -43,6 +49,7 @@ import edu.stanford.nlp.util.CoreMap;
 public class SpatialInferenceAnnotator implements Annotator {
 
 	private final SpatialInference inference;
+	private final boolean documentScoped;
 
 	/**
 	 * Constructor to support Annotation loading via reflection.
@@ -55,7 +62,28 @@ public class SpatialInferenceAnnotator implements Annotator {
 	}
 
 	public SpatialInferenceAnnotator(final SpatialInference inference) {
+		this(inference, false);
+	}
+
+	/**
+	 * Create a {@link SpatialInferenceAnnotator} instance.
+	 * 
+	 * @param inference the spatial inference to use.
+	 * @param documentScoped if <code>true</code>, the toponyms of all sentences are inferred with a single call of
+	 *            {@link SpatialInference#inferSpatially(List, Annotation)}; otherwise, the inference is called once per
+	 *            sentence.
+	 */
+	public SpatialInferenceAnnotator(final SpatialInference inference, final boolean documentScoped) {
 		this.inference = inference;
+		this.documentScoped = documentScoped;
+	}
+
+	public SpatialInference getSpatialInferenceModule() {
+		return inference;
+	}
+
+	public boolean isDocumentScoped() {
+		return documentScoped;
 	}
 
 	@Override
@@ -79,27 +107,32 @@ public class SpatialInferenceAnnotator implements Annotator {
 			throw new RuntimeException("No sentence found in " + annotation);
 		}
 
+		final List<CoreMap> allMentions = new ArrayList<>();
+		final List<ResolvedLocation> allOutput = new ArrayList<>();
 		for (final CoreMap sentence : annotation.get(CoreAnnotations.SentencesAnnotation.class)) {
-			doOneSentence(annotation, sentence);
-		}
-	}
-
-	private CoreMap doOneSentence(final Annotation annotation, final CoreMap sentence) {
-		final List<CoreMap> mentions = sentence.get(CoreAnnotations.MentionsAnnotation.class);
-
-		final List<ResolvedLocation> output = inference.inferSpatially(mentions, annotation, sentence);
-
-		for (int i = 0; i < mentions.size(); i++) {
-			final ResolvedLocation location = output.get(i);
-			if (location == null) {
+			final List<CoreMap> mentions = sentence.get(CoreAnnotations.MentionsAnnotation.class);
+			if (mentions == null) {
 				continue;
 			}
-			else {
-				mentions.get(i).set(ResolvedLocationAnnotation.class, location);
+			allMentions.addAll(mentions);
+			if (!documentScoped) {
+				allOutput.addAll(inference.inferSpatially(mentions, annotation, sentence));
 			}
 		}
+		if (allMentions.isEmpty()) {
+			return;
+		}
+		if (documentScoped) {
+			allOutput.addAll(inference.inferSpatially(allMentions, annotation));
+		}
 
-		return sentence;
+		// locations are set only now, so they are not visible to the inference of later sentences
+		for (int i = 0; i < allMentions.size(); i++) {
+			final ResolvedLocation location = allOutput.get(i);
+			if (location != null) {
+				allMentions.get(i).set(ResolvedLocationAnnotation.class, location);
+			}
+		}
 	}
 
 }
@@ -0,0 +1,246 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceRelationshipType;
+import de.unihd.dbs.geoparser.gazetteer.models.Type;
+import de.unihd.dbs.geoparser.gazetteer.types.RelationshipTypes;
+
+/**
+ * In-memory index of the administrative containment of places, i.e., the relations between places and their
+ * administrative parents (e.g., {@link RelationshipTypes#SUBDIVISION}) and the footprints of the parents.
+ * <p>
+ * The ancestors of a place are determined by following the parent relations, and the administrative regions
+ * containing a coordinate are determined via an {@link STRtree} of the polygonal footprints. Hence, containment can be
+ * checked without database round trips. Instances are immutable and thus thread-safe.
+ *
+ * @author lrichter
+ *
+ */
+public class AdminContainmentIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(AdminContainmentIndex.class);
+
+	private static final int FETCH_SIZE = 10000;
+	private static final int NODE_CAPACITY = 10;
+	private static final long[] NO_PARENTS = new long[0];
+
+	private final Map<Long, long[]> parents;
+	private final Map<Long, Geometry> footprints;
+	private final STRtree regions;
+	private final GeometryFactory geometryFactory = new GeometryFactory();
+
+	private AdminContainmentIndex(final Map<Long, long[]> parents, final Map<Long, Geometry> footprints) {
+		this.parents = parents;
+		this.footprints = footprints;
+		this.regions = new STRtree(NODE_CAPACITY);
+		footprints.forEach((placeId, geometry) -> {
+			if (geometry.getArea() > 0) {
+				regions.insert(geometry.getEnvelopeInternal(), placeId);
+			}
+		});
+		regions.build();
+	}
+
+	/**
+	 * Load the index for the administrative relationship types {@link RelationshipTypes#SUBDIVISION} and
+	 * {@link RelationshipTypes#WITHIN_DIVISION} from the gazetteer database. Types that do not exist in the gazetteer
+	 * are skipped.
+	 *
+	 * @param gazetteer the gazetteer.
+	 * @return the index.
+	 */
+	public static AdminContainmentIndex loadFromGazetteer(final Gazetteer gazetteer) {
+		Objects.requireNonNull(gazetteer);
+		final List<PlaceRelationshipType> relationshipTypes = new ArrayList<>();
+		for (final RelationshipTypes type : Arrays.asList(RelationshipTypes.SUBDIVISION,
+				RelationshipTypes.WITHIN_DIVISION)) {
+			final Type relationshipType = gazetteer.getType(type.typeName);
+			if (relationshipType instanceof PlaceRelationshipType) {
+				relationshipTypes.add((PlaceRelationshipType) relationshipType);
+			}
+		}
+		return loadFromPlaceRelationships(gazetteer, relationshipTypes);
+	}
+
+	/**
+	 * Load the index from place relationships of the given types, whose left-side place is contained by the right-side
+	 * place. The parent relations and the footprints of all parents are fetched with one query each. If a parent has
+	 * multiple footprints, the one with the highest dimension is used, so polygons are preferred over points.
+	 *
+	 * @param gazetteer the gazetteer.
+	 * @param relationshipTypes the types of the containment relationships.
+	 * @return the index.
+	 */
+	public static AdminContainmentIndex loadFromPlaceRelationships(final Gazetteer gazetteer,
+			final Collection<PlaceRelationshipType> relationshipTypes) {
+		Objects.requireNonNull(gazetteer);
+		Objects.requireNonNull(relationshipTypes);
+		final Builder builder = new Builder();
+		if (relationshipTypes.isEmpty()) {
+			return builder.build();
+		}
+
+		final String typeIds = relationshipTypes.stream().map(type -> type.getId().toString())
+				.collect(Collectors.joining(", "));
+		scroll(gazetteer, "SELECT left_place_id, right_place_id FROM place_relationship WHERE type_id IN (" + typeIds
+				+ ")", row -> builder.addParent(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+
+		final WKTReader reader = new WKTReader();
+		scroll(gazetteer, "SELECT DISTINCT ON (place_id) place_id, ST_AsText(geom) FROM footprint WHERE place_id IN "
+				+ "(SELECT right_place_id FROM place_relationship WHERE type_id IN (" + typeIds + ")) "
+				+ "ORDER BY place_id, ST_Dimension(geom) DESC, id", row -> {
+					try {
+						builder.addFootprint(((Number) row[0]).longValue(), reader.read(row[1].toString()));
+					}
+					catch (final ParseException e) {
+						logger.warn("Skipping invalid footprint of place " + row[0], e);
+					}
+				});
+
+		final AdminContainmentIndex index = builder.build();
+		logger.debug("Loaded admin containment index with " + index.parents.size() + " places and "
+				+ index.footprints.size() + " footprints");
+		return index;
+	}
+
+	@FunctionalInterface
+	private interface RowConsumer {
+		void accept(final Object[] row);
+	}
+
+	private static void scroll(final Gazetteer gazetteer, final String query, final RowConsumer consumer) {
+		final ScrollableResults results = gazetteer.getEntityManger().unwrap(Session.class).createNativeQuery(query)
+				.setFetchSize(FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			while (results.next()) {
+				consumer.accept(results.get());
+			}
+		}
+		finally {
+			results.close();
+		}
+	}
+
+	/**
+	 * Get the administrative ancestors of a place, i.e., its parents, their parents, and so on.
+	 *
+	 * @param placeId the place Id.
+	 * @return the Ids of the ancestors, ordered by increasing number of hierarchy levels from the place.
+	 */
+	public List<Long> getAncestors(final long placeId) {
+		final Set<Long> ancestors = new LinkedHashSet<>();
+		final List<Long> level = new ArrayList<>(Collections.singletonList(placeId));
+		while (!level.isEmpty()) {
+			final List<Long> nextLevel = new ArrayList<>();
+			for (final Long id : level) {
+				for (final long parentId : parents.getOrDefault(id, NO_PARENTS)) {
+					if (parentId != placeId && ancestors.add(parentId)) {
+						nextLevel.add(parentId);
+					}
+				}
+			}
+			level.clear();
+			level.addAll(nextLevel);
+		}
+		return new ArrayList<>(ancestors);
+	}
+
+	/**
+	 * Get the administrative regions containing the given coordinate.
+	 *
+	 * @param latitude the latitude in degrees.
+	 * @param longitude the longitude in degrees.
+	 * @return the Ids of the regions, ordered by increasing area.
+	 */
+	public List<Long> getContainingRegions(final double latitude, final double longitude) {
+		final Coordinate coordinate = new Coordinate(longitude, latitude);
+		final Point point = geometryFactory.createPoint(coordinate);
+		@SuppressWarnings("unchecked")
+		final List<Long> candidates = regions.query(new Envelope(coordinate));
+		return candidates.stream().filter(placeId -> footprints.get(placeId).covers(point))
+				.sorted(Comparator.comparingDouble(placeId -> footprints.get(placeId).getArea()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the footprint of an administrative parent.
+	 *
+	 * @param placeId the place Id.
+	 * @return the footprint or <code>null</code>, if the place is no parent or has no footprint.
+	 */
+	public Geometry getFootprint(final long placeId) {
+		return footprints.get(placeId);
+	}
+
+	/**
+	 * Builder for {@link AdminContainmentIndex} instances.
+	 */
+	public static class Builder {
+		private final Map<Long, Set<Long>> parents = new HashMap<>();
+		private final Map<Long, Geometry> footprints = new HashMap<>();
+
+		/**
+		 * Add a containment relation. Self relations are ignored.
+		 *
+		 * @param placeId the Id of the contained place.
+		 * @param parentId the Id of the containing place.
+		 * @return this builder.
+		 */
+		public Builder addParent(final long placeId, final long parentId) {
+			if (placeId != parentId) {
+				parents.computeIfAbsent(placeId, id -> new HashSet<>(2)).add(parentId);
+			}
+			return this;
+		}
+
+		/**
+		 * Add the footprint of a containing place. Only polygonal footprints are used to find containing regions.
+		 *
+		 * @param placeId the Id of the containing place.
+		 * @param footprint the footprint.
+		 * @return this builder.
+		 */
+		public Builder addFootprint(final long placeId, final Geometry footprint) {
+			Objects.requireNonNull(footprint);
+			footprints.put(placeId, footprint);
+			return this;
+		}
+
+		public AdminContainmentIndex build() {
+			final Map<Long, long[]> parentArrays = new HashMap<>(parents.size() * 2);
+			parents.forEach((placeId, parentIds) -> parentArrays.put(placeId,
+					parentIds.stream().mapToLong(Long::longValue).sorted().toArray()));
+			return new AdminContainmentIndex(parentArrays, new HashMap<>(footprints));
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
+import de.unihd.dbs.geoparser.gazetteer.models.Type;
+
+/**
+ * Cache for the administrative level of places, i.e., the number of hierarchy levels between a given root type (e.g.,
+ * {@link de.unihd.dbs.geoparser.gazetteer.types.PlaceTypes#ADMINISTRATIVE_DIVISION}) and the place types assigned to
+ * a place.
+ * <p>
+ * The level of each place type is determined only once by climbing the type hierarchy, and the level of each place is
+ * determined only once from its place type assignments. Hence, repeated candidates do not load their place type
+ * assignments again. At most <code>maxPlaces</code> place levels are cached; further places are computed from the
+ * cached type levels without being cached themselves. The cache is thread-safe.
+ *
+ * @author lrichter
+ *
+ */
+public class AdminLevelCache {
+
+	/**
+	 * Level of places and place types that are not below the root type.
+	 */
+	public static final int NO_ADMIN_LEVEL = Integer.MIN_VALUE;
+
+	/**
+	 * Default maximum number of cached places.
+	 */
+	public static final int DEFAULT_MAX_PLACES = 1000000;
+
+	private final PlaceType rootType;
+	private final int maxPlaces;
+	private final Map<Long, Integer> typeLevels = new ConcurrentHashMap<>();
+	private final Map<Long, Integer> placeLevels = new ConcurrentHashMap<>();
+
+	/**
+	 * Create an {@link AdminLevelCache} with the default maximum number of cached places.
+	 *
+	 * @param rootType the {@link PlaceType} representing the administrative hierarchy root.
+	 */
+	public AdminLevelCache(final PlaceType rootType) {
+		this(rootType, DEFAULT_MAX_PLACES);
+	}
+
+	/**
+	 * Create an {@link AdminLevelCache}.
+	 *
+	 * @param rootType the {@link PlaceType} representing the administrative hierarchy root.
+	 * @param maxPlaces the maximum number of cached places.
+	 */
+	public AdminLevelCache(final PlaceType rootType, final int maxPlaces) {
+		Objects.requireNonNull(rootType);
+		this.rootType = rootType;
+		this.maxPlaces = maxPlaces;
+	}
+
+	public PlaceType getRootType() {
+		return rootType;
+	}
+
+	/**
+	 * Get the administrative level of a place. If multiple place types are below the root, the highest level is
+	 * returned.
+	 *
+	 * @param place the place.
+	 * @return the administrative level, or {@link #NO_ADMIN_LEVEL} if no place type of the place is below the root.
+	 */
+	public int getAdminLevel(final Place place) {
+		final Long placeId = place.getId();
+		if (placeId == null) {
+			return computeAdminLevel(place);
+		}
+
+		Integer level = placeLevels.get(placeId);
+		if (level == null) {
+			level = computeAdminLevel(place);
+			if (placeLevels.size() < maxPlaces) {
+				placeLevels.put(placeId, level);
+			}
+		}
+		return level;
+	}
+
+	/**
+	 * Get the administrative level of a place type.
+	 *
+	 * @param type the place type.
+	 * @return the number of hierarchy levels between the root and the type, or {@link #NO_ADMIN_LEVEL} if the type is
+	 *         not below the root.
+	 */
+	public int getAdminLevel(final PlaceType type) {
+		if (type.getId() == null) {
+			return computeAdminLevel(type);
+		}
+		return typeLevels.computeIfAbsent(type.getId(), id -> computeAdminLevel(type));
+	}
+
+	/**
+	 * Remove all cached levels, e.g., after the type hierarchy or place types were modified.
+	 */
+	public void clear() {
+		typeLevels.clear();
+		placeLevels.clear();
+	}
+
+	private int computeAdminLevel(final Place place) {
+		int highestAdminLevel = NO_ADMIN_LEVEL;
+		for (final PlaceTypeAssignment assignment : place.getPlaceTypeAssignments()) {
+			highestAdminLevel = Math.max(highestAdminLevel, getAdminLevel(assignment.getType()));
+		}
+		return highestAdminLevel;
+	}
+
+	private int computeAdminLevel(final PlaceType type) {
+		int level = 0;
+		Type currentType = type;
+		while (currentType != null && !currentType.equals(rootType)) {
+			currentType = currentType.getParentType();
+			level++;
+		}
+		return currentType != null && level > 0 ? level : NO_ADMIN_LEVEL;
+	}
+
+}
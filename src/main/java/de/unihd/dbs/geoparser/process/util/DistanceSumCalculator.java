@@ -0,0 +1,276 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates, for each point of a set of points, the sum of the great-circle distances (in kilometers, see
+ * {@link Haversine}) to all other points of the set.
+ * <p>
+ * Coordinates are passed as primitive arrays. The calculation runs in parallel on the common {@link ForkJoinPool} for
+ * larger point sets. For very large point sets, the distances to far away points can be approximated: points are
+ * assigned to grid cells and the distances to points of other cells are replaced by the distance to the cell centroid,
+ * which reduces the effort from quadratic to roughly linear in the number of points.
+ * <p>
+ * Intermediate buffers are kept per thread and reused across calls, so an instance can be shared by concurrently
+ * processed documents.
+ *
+ * @author lrichter
+ *
+ */
+public class DistanceSumCalculator {
+
+	/**
+	 * Default minimum number of points for a parallel calculation.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+	/**
+	 * Default minimum number of points for the grid approximation.
+	 */
+	public static final int DEFAULT_APPROXIMATION_THRESHOLD = 5000;
+	/**
+	 * Default grid cell size in degrees.
+	 */
+	public static final double DEFAULT_GRID_CELL_SIZE = 1.0;
+
+	private static final int ROWS_PER_TASK = 64;
+
+	private final int parallelThreshold;
+	private final int approximationThreshold;
+	private final double gridCellSize;
+	private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+	/**
+	 * Create a {@link DistanceSumCalculator} with default parameters.
+	 */
+	public DistanceSumCalculator() {
+		this(DEFAULT_PARALLEL_THRESHOLD, DEFAULT_APPROXIMATION_THRESHOLD, DEFAULT_GRID_CELL_SIZE);
+	}
+
+	/**
+	 * Create a {@link DistanceSumCalculator}.
+	 *
+	 * @param parallelThreshold the minimum number of points for a parallel calculation.
+	 * @param approximationThreshold the minimum number of points for the grid approximation. Use
+	 *            {@link Integer#MAX_VALUE} to always calculate exact sums.
+	 * @param gridCellSize the size of the grid cells in degrees.
+	 */
+	public DistanceSumCalculator(final int parallelThreshold, final int approximationThreshold,
+			final double gridCellSize) {
+		if (gridCellSize <= 0) {
+			throw new IllegalArgumentException("gridCellSize must be positive!");
+		}
+		this.parallelThreshold = parallelThreshold;
+		this.approximationThreshold = approximationThreshold;
+		this.gridCellSize = gridCellSize;
+	}
+
+	/**
+	 * Calculate the distance sum for each point.
+	 *
+	 * @param latitudes the latitudes of the points in degrees.
+	 * @param longitudes the longitudes of the points in degrees.
+	 * @param count the number of points, i.e., only the first <code>count</code> entries of the arrays are used.
+	 * @return the distance sum of each point. The returned array is reused by the next call on the same thread and
+	 *         may be longer than <code>count</code>.
+	 */
+	public double[] calculateDistanceSums(final double[] latitudes, final double[] longitudes, final int count) {
+		final Buffers buffer = buffers.get();
+		buffer.ensureCapacity(count);
+		for (int i = 0; i < count; i++) {
+			buffer.latitudes[i] = Math.toRadians(latitudes[i]);
+			buffer.longitudes[i] = Math.toRadians(longitudes[i]);
+			buffer.cosLatitudes[i] = Math.cos(buffer.latitudes[i]);
+		}
+
+		if (count >= approximationThreshold) {
+			calculateApproximatedSums(buffer, latitudes, longitudes, count);
+		}
+		else if (count >= parallelThreshold) {
+			ForkJoinPool.commonPool().invoke(new ExactSumTask(buffer, count, 0, count));
+		}
+		else {
+			calculateExactSums(buffer, count, 0, count);
+		}
+
+		return buffer.sums;
+	}
+
+	private static double distance(final double latitude1, final double longitude1, final double cosLatitude1,
+			final double latitude2, final double longitude2, final double cosLatitude2) {
+		return Haversine.distanceRadians(latitude1, longitude1, cosLatitude1, latitude2, longitude2, cosLatitude2);
+	}
+
+	private static void calculateExactSums(final Buffers buffer, final int count, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			double sum = 0;
+			for (int j = 0; j < count; j++) {
+				if (i != j) {
+					sum += distance(buffer.latitudes[i], buffer.longitudes[i], buffer.cosLatitudes[i],
+							buffer.latitudes[j], buffer.longitudes[j], buffer.cosLatitudes[j]);
+				}
+			}
+			buffer.sums[i] = sum;
+		}
+	}
+
+	private void calculateApproximatedSums(final Buffers buffer, final double[] latitudes,
+			final double[] longitudes, final int count) {
+		// sort the points by grid cell, so the points of a cell are stored consecutively
+		final int columns = (int) Math.ceil(360 / gridCellSize);
+		final long[] cellPoints = new long[count];
+		for (int i = 0; i < count; i++) {
+			final long row = (long) Math.floor((latitudes[i] + 90) / gridCellSize);
+			final long column = (long) Math.floor((longitudes[i] + 180) / gridCellSize);
+			cellPoints[i] = ((row * columns + column) << 32) | i;
+		}
+		Arrays.sort(cellPoints);
+
+		int cellCount = 0;
+		final int[] cellStarts = new int[count + 1];
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || (cellPoints[i] >>> 32) != (cellPoints[i - 1] >>> 32)) {
+				cellStarts[cellCount++] = i;
+			}
+		}
+		cellStarts[cellCount] = count;
+
+		final Grid grid = new Grid(cellPoints, cellStarts, cellCount);
+		for (int cell = 0; cell < cellCount; cell++) {
+			double latitudeSum = 0;
+			double longitudeSum = 0;
+			for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+				final int point = (int) cellPoints[k];
+				latitudeSum += buffer.latitudes[point];
+				longitudeSum += buffer.longitudes[point];
+			}
+			final int size = cellStarts[cell + 1] - cellStarts[cell];
+			grid.latitudes[cell] = latitudeSum / size;
+			grid.longitudes[cell] = longitudeSum / size;
+			grid.cosLatitudes[cell] = Math.cos(grid.latitudes[cell]);
+		}
+
+		ForkJoinPool.commonPool().invoke(new ApproximatedSumTask(buffer, grid, 0, cellCount));
+	}
+
+	private static void calculateApproximatedSums(final Buffers buffer, final Grid grid, final int fromCell,
+			final int toCell) {
+		for (int cell = fromCell; cell < toCell; cell++) {
+			for (int k = grid.cellStarts[cell]; k < grid.cellStarts[cell + 1]; k++) {
+				final int i = (int) grid.cellPoints[k];
+				double sum = 0;
+				for (int otherCell = 0; otherCell < grid.cellCount; otherCell++) {
+					if (otherCell == cell) {
+						// exact distances within the own cell
+						for (int l = grid.cellStarts[cell]; l < grid.cellStarts[cell + 1]; l++) {
+							final int j = (int) grid.cellPoints[l];
+							if (i != j) {
+								sum += distance(buffer.latitudes[i], buffer.longitudes[i], buffer.cosLatitudes[i],
+										buffer.latitudes[j], buffer.longitudes[j], buffer.cosLatitudes[j]);
+							}
+						}
+					}
+					else {
+						final int size = grid.cellStarts[otherCell + 1] - grid.cellStarts[otherCell];
+						sum += size * distance(buffer.latitudes[i], buffer.longitudes[i], buffer.cosLatitudes[i],
+								grid.latitudes[otherCell], grid.longitudes[otherCell], grid.cosLatitudes[otherCell]);
+					}
+				}
+				buffer.sums[i] = sum;
+			}
+		}
+	}
+
+	private static class Buffers {
+		private double[] latitudes = new double[0];
+		private double[] longitudes = new double[0];
+		private double[] cosLatitudes = new double[0];
+		private double[] sums = new double[0];
+
+		private void ensureCapacity(final int count) {
+			if (sums.length < count) {
+				final int capacity = Math.max(count, 2 * sums.length);
+				latitudes = new double[capacity];
+				longitudes = new double[capacity];
+				cosLatitudes = new double[capacity];
+				sums = new double[capacity];
+			}
+		}
+	}
+
+	private static class Grid {
+		// cell index in the upper 32 bits, point index in the lower 32 bits; sorted by cell
+		private final long[] cellPoints;
+		private final int[] cellStarts;
+		private final int cellCount;
+		private final double[] latitudes;
+		private final double[] longitudes;
+		private final double[] cosLatitudes;
+
+		private Grid(final long[] cellPoints, final int[] cellStarts, final int cellCount) {
+			this.cellPoints = cellPoints;
+			this.cellStarts = cellStarts;
+			this.cellCount = cellCount;
+			this.latitudes = new double[cellCount];
+			this.longitudes = new double[cellCount];
+			this.cosLatitudes = new double[cellCount];
+		}
+	}
+
+	private static class ExactSumTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final transient Buffers buffer;
+		private final int count;
+		private final int from;
+		private final int to;
+
+		private ExactSumTask(final Buffers buffer, final int count, final int from, final int to) {
+			this.buffer = buffer;
+			this.count = count;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= ROWS_PER_TASK) {
+				calculateExactSums(buffer, count, from, to);
+			}
+			else {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new ExactSumTask(buffer, count, from, middle), new ExactSumTask(buffer, count, middle, to));
+			}
+		}
+	}
+
+	private static class ApproximatedSumTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final transient Buffers buffer;
+		private final transient Grid grid;
+		private final int fromCell;
+		private final int toCell;
+
+		private ApproximatedSumTask(final Buffers buffer, final Grid grid, final int fromCell, final int toCell) {
+			this.buffer = buffer;
+			this.grid = grid;
+			this.fromCell = fromCell;
+			this.toCell = toCell;
+		}
+
+		@Override
+		protected void compute() {
+			if (toCell - fromCell <= 1 || grid.cellStarts[toCell] - grid.cellStarts[fromCell] <= ROWS_PER_TASK) {
+				calculateApproximatedSums(buffer, grid, fromCell, toCell);
+			}
+			else {
+				final int middle = (fromCell + toCell) >>> 1;
+				invokeAll(new ApproximatedSumTask(buffer, grid, fromCell, middle),
+						new ApproximatedSumTask(buffer, grid, middle, toCell));
+			}
+		}
+	}
+
+}
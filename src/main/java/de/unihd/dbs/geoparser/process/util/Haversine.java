@@ -1,24 +1,175 @@
 package de.unihd.dbs.geoparser.process.util;
 
+/**
+ * Great-circle distances (in kilometers) on a spherical earth using the haversine formula.
+ * <p>
+ * Besides single distances between coordinates in degrees, the class provides a kernel working on precomputed radians
+ * and cosines of the latitudes ({@link #distanceRadians}), an equirectangular approximation for short distances
+ * ({@link #fastDistanceRadians}) and batch computations over primitive coordinate arrays ({@link Points}). For points
+ * that are at most {@link #EQUIRECTANGULAR_MAX_DEGREES} apart in latitude and longitude, the relative error of the
+ * approximation is below 5e-5 (i.e., at most a few meters) at any latitude.
+ */
 public class Haversine {
-    private static int EARTH_RADIUS = 6371;
+    public static final double EARTH_RADIUS = 6371;
 
-    public static double distance(double startLat, double startLong,
-                                  double endLat, double endLong) {
+    /**
+     * Maximum difference of latitude and longitude (in degrees) for which the equirectangular approximation is used.
+     */
+    public static final double EQUIRECTANGULAR_MAX_DEGREES = 1.0;
 
-        double dLat = Math.toRadians((endLat - startLat));
-        double dLong = Math.toRadians((endLong - startLong));
+    private static final double EQUIRECTANGULAR_MAX_RADIANS = Math.toRadians(EQUIRECTANGULAR_MAX_DEGREES);
 
-        startLat = Math.toRadians(startLat);
-        endLat = Math.toRadians(endLat);
+    /**
+     * Distance between two coordinates given in degrees.
+     *
+     * @param startLat  latitude of the first coordinate.
+     * @param startLong longitude of the first coordinate.
+     * @param endLat    latitude of the second coordinate.
+     * @param endLong   longitude of the second coordinate.
+     * @return the distance in kilometers.
+     */
+    public static double distance(final double startLat, final double startLong,
+                                  final double endLat, final double endLong) {
+        final double startLatRadians = Math.toRadians(startLat);
+        final double endLatRadians = Math.toRadians(endLat);
+        return distanceRadians(startLatRadians, Math.toRadians(startLong), Math.cos(startLatRadians),
+                endLatRadians, Math.toRadians(endLong), Math.cos(endLatRadians));
+    }
+
+    /**
+     * Distance between two coordinates given in radians, with the cosines of their latitudes precomputed.
+     *
+     * @param lat1    latitude of the first coordinate.
+     * @param long1   longitude of the first coordinate.
+     * @param cosLat1 cosine of <code>lat1</code>.
+     * @param lat2    latitude of the second coordinate.
+     * @param long2   longitude of the second coordinate.
+     * @param cosLat2 cosine of <code>lat2</code>.
+     * @return the distance in kilometers.
+     */
+    public static double distanceRadians(final double lat1, final double long1, final double cosLat1,
+                                         final double lat2, final double long2, final double cosLat2) {
+        final double sinLat = Math.sin((lat2 - lat1) / 2);
+        final double sinLong = Math.sin((long2 - long1) / 2);
+        final double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLong * sinLong;
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
 
-        double a = haversin(dLat) + Math.cos(startLat) * Math.cos(endLat) * haversin(dLong);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    /**
+     * Distance between two coordinates given in radians, using the equirectangular approximation if the coordinates
+     * are at most {@link #EQUIRECTANGULAR_MAX_DEGREES} apart, and {@link #distanceRadians} otherwise.
+     *
+     * @param lat1    latitude of the first coordinate.
+     * @param long1   longitude of the first coordinate.
+     * @param cosLat1 cosine of <code>lat1</code>.
+     * @param lat2    latitude of the second coordinate.
+     * @param long2   longitude of the second coordinate.
+     * @param cosLat2 cosine of <code>lat2</code>.
+     * @return the distance in kilometers.
+     */
+    public static double fastDistanceRadians(final double lat1, final double long1, final double cosLat1,
+                                             final double lat2, final double long2, final double cosLat2) {
+        final double deltaLat = lat2 - lat1;
+        double deltaLong = long2 - long1;
+        if (deltaLong > Math.PI) {
+            deltaLong -= 2 * Math.PI;
+        } else if (deltaLong < -Math.PI) {
+            deltaLong += 2 * Math.PI;
+        }
 
-        return EARTH_RADIUS * c; // <-- d
+        if (Math.abs(deltaLat) > EQUIRECTANGULAR_MAX_RADIANS || Math.abs(deltaLong) > EQUIRECTANGULAR_MAX_RADIANS) {
+            return distanceRadians(lat1, long1, cosLat1, lat2, long2, cosLat2);
+        }
+        // the mean of the cosines approximates the cosine of the mean latitude without another trigonometric call
+        final double x = deltaLong * (cosLat1 + cosLat2) / 2;
+        return EARTH_RADIUS * Math.sqrt(x * x + deltaLat * deltaLat);
     }
 
-    private static double haversin(double val) {
-        return Math.pow(Math.sin(val / 2), 2);
+    /**
+     * A set of points with their coordinates converted to radians and the cosines of their latitudes precomputed, so
+     * distances between the points require no further conversions. Points with <code>NaN</code> coordinates have
+     * <code>NaN</code> distances.
+     */
+    public static final class Points {
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final double[] cosLatitudes;
+
+        /**
+         * Create the point set from coordinates in degrees.
+         *
+         * @param latitudes  the latitudes of the points.
+         * @param longitudes the longitudes of the points.
+         * @param count      the number of points, i.e., only the first <code>count</code> entries are used.
+         */
+        public Points(final double[] latitudes, final double[] longitudes, final int count) {
+            this.latitudes = new double[count];
+            this.longitudes = new double[count];
+            this.cosLatitudes = new double[count];
+            for (int i = 0; i < count; i++) {
+                this.latitudes[i] = Math.toRadians(latitudes[i]);
+                this.longitudes[i] = Math.toRadians(longitudes[i]);
+                this.cosLatitudes[i] = Math.cos(this.latitudes[i]);
+            }
+        }
+
+        public int size() {
+            return latitudes.length;
+        }
+
+        /**
+         * Distance between two points of the set.
+         *
+         * @param i index of the first point.
+         * @param j index of the second point.
+         * @return the distance in kilometers.
+         */
+        public double distance(final int i, final int j) {
+            return fastDistanceRadians(latitudes[i], longitudes[i], cosLatitudes[i],
+                    latitudes[j], longitudes[j], cosLatitudes[j]);
+        }
+
+        /**
+         * Distances between a point and a range of points of the set.
+         *
+         * @param i         index of the point.
+         * @param from      index of the first point of the range (inclusive).
+         * @param to        index of the last point of the range (exclusive).
+         * @param distances array receiving the distance to point <code>from + k</code> at index <code>k</code>.
+         */
+        public void distances(final int i, final int from, final int to, final double[] distances) {
+            final double latitude = latitudes[i];
+            final double longitude = longitudes[i];
+            final double cosLatitude = cosLatitudes[i];
+            for (int j = from; j < to; j++) {
+                distances[j - from] = fastDistanceRadians(latitude, longitude, cosLatitude,
+                        latitudes[j], longitudes[j], cosLatitudes[j]);
+            }
+        }
+
+        /**
+         * Smallest distance between a point and a range of points of the set, ignoring points with <code>NaN</code>
+         * coordinates.
+         *
+         * @param i    index of the point.
+         * @param from index of the first point of the range (inclusive).
+         * @param to   index of the last point of the range (exclusive).
+         * @return the smallest distance in kilometers, or {@link Double#POSITIVE_INFINITY} if the range contains no
+         *         point with coordinates.
+         */
+        public double minDistance(final int i, final int from, final int to) {
+            final double latitude = latitudes[i];
+            final double longitude = longitudes[i];
+            final double cosLatitude = cosLatitudes[i];
+            double minDistance = Double.POSITIVE_INFINITY;
+            for (int j = from; j < to; j++) {
+                final double distance = fastDistanceRadians(latitude, longitude, cosLatitude,
+                        latitudes[j], longitudes[j], cosLatitudes[j]);
+                if (distance < minDistance) {
+                    minDistance = distance;
+                }
+            }
+            return minDistance;
+        }
     }
 }
@@ -0,0 +1,499 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.unihd.dbs.geoparser.gazetteer.Gazetteer;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceRelationshipType;
+
+/**
+ * In-memory representation of the Wikipedia Location Network (WLN), i.e., an undirected, weighted graph of places.
+ * <p>
+ * The graph is stored in compressed sparse row (CSR) format using primitive buffers only: each place is mapped to a
+ * dense ordinal (its position in the sorted buffer of place Ids), and the neighbors of a place are stored as a sorted
+ * slice of a single neighbor buffer with a parallel weight buffer. Hence, looking up an edge weight requires two binary
+ * searches and no database round trip. Multiple edges between the same pair of places (e.g., in both directions) are
+ * merged by keeping the largest weight, unless a different {@link WeightMergeFunction} is passed to the
+ * {@link Builder}.
+ * <p>
+ * A network can be loaded from the gazetteer database (see {@link #loadFromWlnTable} and
+ * {@link #loadFromPlaceRelationships}), or from a file previously written with {@link #save}. Files are memory-mapped
+ * and the network reads directly from the mapping, i.e., it is not copied onto the heap. Instances are immutable and
+ * thus thread-safe.
+ *
+ * @author lrichter
+ *
+ */
+public class WikipediaLocationNetwork {
+
+	private static final Logger logger = LoggerFactory.getLogger(WikipediaLocationNetwork.class);
+
+	private static final int FILE_MAGIC = 0x574c4e31; // "WLN1"
+	private static final int FETCH_SIZE = 10000;
+
+	/**
+	 * Consumer for the neighbors of a place.
+	 */
+	@FunctionalInterface
+	public interface NeighborConsumer {
+		void accept(final long neighborPlaceId, final float weight);
+	}
+
+	/**
+	 * Function to merge the weights of multiple edges between the same pair of places.
+	 */
+	@FunctionalInterface
+	public interface WeightMergeFunction {
+		float merge(final float weight1, final float weight2);
+	}
+
+	// all buffers are only accessed by absolute index, so their positions never change
+	// sorted place Ids; the index of a place Id is its ordinal
+	private final LongBuffer placeIds;
+	// neighbors of ordinal i are stored at indices offsets[i] (inclusive) to offsets[i + 1] (exclusive)
+	private final IntBuffer offsets;
+	// neighbor ordinals, sorted per place
+	private final IntBuffer neighbors;
+	private final FloatBuffer weights;
+
+	private WikipediaLocationNetwork(final LongBuffer placeIds, final IntBuffer offsets, final IntBuffer neighbors,
+			final FloatBuffer weights) {
+		this.placeIds = placeIds;
+		this.offsets = offsets;
+		this.neighbors = neighbors;
+		this.weights = weights;
+	}
+
+	/**
+	 * Load the network from the <code>wln</code> table of the gazetteer database. Duplicate edges are merged by
+	 * keeping the largest weight.
+	 *
+	 * @param gazetteer the gazetteer.
+	 * @return the network.
+	 */
+	public static WikipediaLocationNetwork loadFromWlnTable(final Gazetteer gazetteer) {
+		return load(gazetteer, "SELECT place_1, place_2, weight FROM wln");
+	}
+
+	/**
+	 * Load the part of the network spanned by the given places from the <code>wln</code> table of the gazetteer
+	 * database, i.e., only edges between two of the given places are loaded. All edges are fetched with a single query
+	 * that binds the place Ids once as array parameter. Duplicate edges are merged by keeping the largest weight.
+	 *
+	 * @param gazetteer the gazetteer.
+	 * @param placeIds the Ids of the places.
+	 * @return the network.
+	 */
+	public static WikipediaLocationNetwork loadFromWlnTable(final Gazetteer gazetteer,
+			final Collection<Long> placeIds) {
+		Objects.requireNonNull(gazetteer);
+		Objects.requireNonNull(placeIds);
+		final Builder builder = new Builder();
+		if (!placeIds.isEmpty()) {
+			// the Ids are bound once as array parameter, which both conditions share
+			final String placeIdArray = placeIds.stream().map(String::valueOf)
+					.collect(Collectors.joining(",", "{", "}"));
+			@SuppressWarnings("unchecked")
+			final List<Object[]> rows = gazetteer.getEntityManger()
+					.createNativeQuery("WITH ids AS (SELECT CAST(?1 AS bigint[]) AS place_ids) "
+							+ "SELECT place_1, place_2, weight FROM wln, ids "
+							+ "WHERE place_1 = ANY(ids.place_ids) AND place_2 = ANY(ids.place_ids)")
+					.setParameter(1, placeIdArray).getResultList();
+			rows.forEach(row -> builder.addEdge(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+					Float.parseFloat(row[2].toString())));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Load the network from place relationships of the given type, which store the edge weight as value.
+	 *
+	 * @param gazetteer the gazetteer.
+	 * @param relationshipType the type of the WLN relationships.
+	 * @return the network.
+	 */
+	public static WikipediaLocationNetwork loadFromPlaceRelationships(final Gazetteer gazetteer,
+			final PlaceRelationshipType relationshipType) {
+		Objects.requireNonNull(relationshipType);
+		return load(gazetteer, "SELECT left_place_id, right_place_id, value FROM place_relationship WHERE type_id = "
+				+ relationshipType.getId());
+	}
+
+	private static WikipediaLocationNetwork load(final Gazetteer gazetteer, final String edgeQuery) {
+		Objects.requireNonNull(gazetteer);
+		final Builder builder = new Builder();
+		final ScrollableResults results = gazetteer.getEntityManger().unwrap(Session.class)
+				.createNativeQuery(edgeQuery).setFetchSize(FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			while (results.next()) {
+				final Object[] row = results.get();
+				builder.addEdge(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+						Float.parseFloat(row[2].toString()));
+			}
+		}
+		finally {
+			results.close();
+		}
+
+		final WikipediaLocationNetwork network = builder.build();
+		logger.debug("Loaded WLN with " + network.size() + " places and " + network.getEdgeCount() + " edges");
+		return network;
+	}
+
+	/**
+	 * Load a network from a file written by {@link #save}. The file is memory-mapped and the network reads from the
+	 * mapped buffer, so the file must not be modified while the network is in use.
+	 *
+	 * @param file the file.
+	 * @return the network.
+	 * @throws IOException if the file could not be read or has an invalid format.
+	 */
+	public static WikipediaLocationNetwork load(final Path file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != FILE_MAGIC) {
+				throw new IOException("Not a WLN file: " + file);
+			}
+			final int placeCount = buffer.getInt();
+			final int edgeCount = buffer.getInt();
+			if (buffer.remaining() < (long) placeCount * Long.BYTES + (long) (placeCount + 1) * Integer.BYTES
+					+ (long) edgeCount * (Integer.BYTES + Float.BYTES)) {
+				throw new IOException("Truncated WLN file: " + file);
+			}
+
+			// the mapping stays valid after the channel is closed
+			final LongBuffer placeIds = buffer.asLongBuffer();
+			placeIds.limit(placeCount);
+			buffer.position(buffer.position() + placeCount * Long.BYTES);
+			final IntBuffer offsets = buffer.asIntBuffer();
+			offsets.limit(placeCount + 1);
+			buffer.position(buffer.position() + (placeCount + 1) * Integer.BYTES);
+			final IntBuffer neighbors = buffer.asIntBuffer();
+			neighbors.limit(edgeCount);
+			buffer.position(buffer.position() + edgeCount * Integer.BYTES);
+			final FloatBuffer weights = buffer.asFloatBuffer();
+			weights.limit(edgeCount);
+
+			return new WikipediaLocationNetwork(placeIds, offsets, neighbors, weights);
+		}
+	}
+
+	/**
+	 * Write the network to the given file, so it can be loaded with {@link #load(Path)}.
+	 *
+	 * @param file the file. Existing files are overwritten.
+	 * @throws IOException if the file could not be written.
+	 */
+	public void save(final Path file) throws IOException {
+		final int size = 3 * Integer.BYTES + placeIds.limit() * Long.BYTES + offsets.limit() * Integer.BYTES
+				+ neighbors.limit() * (Integer.BYTES + Float.BYTES);
+		final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(FILE_MAGIC).putInt(placeIds.limit()).putInt(neighbors.limit());
+		// duplicates, since bulk puts move the position of the source
+		buffer.asLongBuffer().put(placeIds.duplicate());
+		buffer.position(buffer.position() + placeIds.limit() * Long.BYTES);
+		buffer.asIntBuffer().put(offsets.duplicate());
+		buffer.position(buffer.position() + offsets.limit() * Integer.BYTES);
+		buffer.asIntBuffer().put(neighbors.duplicate());
+		buffer.position(buffer.position() + neighbors.limit() * Integer.BYTES);
+		buffer.asFloatBuffer().put(weights.duplicate());
+		buffer.rewind();
+
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of places in the network, i.e., places with at least one edge.
+	 *
+	 * @return the number of places.
+	 */
+	public int size() {
+		return placeIds.limit();
+	}
+
+	/**
+	 * Get the number of (undirected) edges in the network.
+	 *
+	 * @return the number of edges.
+	 */
+	public int getEdgeCount() {
+		return neighbors.limit() / 2;
+	}
+
+	/**
+	 * Get the ordinal of the place with the given Id.
+	 *
+	 * @param placeId the place Id.
+	 * @return the ordinal between 0 (inclusive) and {@link #size()} (exclusive) or <code>-1</code>, if the place is
+	 *         not part of the network.
+	 */
+	public int getOrdinal(final long placeId) {
+		int low = 0;
+		int high = placeIds.limit() - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final long middleId = placeIds.get(middle);
+			if (middleId < placeId) {
+				low = middle + 1;
+			}
+			else if (middleId > placeId) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	public long getPlaceId(final int ordinal) {
+		return placeIds.get(ordinal);
+	}
+
+	public boolean contains(final long placeId) {
+		return getOrdinal(placeId) >= 0;
+	}
+
+	public int getDegree(final long placeId) {
+		final int ordinal = getOrdinal(placeId);
+		return ordinal < 0 ? 0 : offsets.get(ordinal + 1) - offsets.get(ordinal);
+	}
+
+	/**
+	 * Check if there is an edge between the given places.
+	 *
+	 * @param placeId1 the Id of the first place.
+	 * @param placeId2 the Id of the second place.
+	 * @return <code>true</code>, if there is an edge.
+	 */
+	public boolean hasEdge(final long placeId1, final long placeId2) {
+		return findEdge(placeId1, placeId2) >= 0;
+	}
+
+	/**
+	 * Get the weight of the edge between the given places.
+	 *
+	 * @param placeId1 the Id of the first place.
+	 * @param placeId2 the Id of the second place.
+	 * @return the edge weight or 0, if there is no edge.
+	 */
+	public float getWeight(final long placeId1, final long placeId2) {
+		final int edge = findEdge(placeId1, placeId2);
+		return edge < 0 ? 0.0f : weights.get(edge);
+	}
+
+	private int findEdge(final long placeId1, final long placeId2) {
+		final int ordinal1 = getOrdinal(placeId1);
+		if (ordinal1 < 0) {
+			return -1;
+		}
+		final int ordinal2 = getOrdinal(placeId2);
+		if (ordinal2 < 0) {
+			return -1;
+		}
+		int low = offsets.get(ordinal1);
+		int high = offsets.get(ordinal1 + 1) - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final int neighbor = neighbors.get(middle);
+			if (neighbor < ordinal2) {
+				low = middle + 1;
+			}
+			else if (neighbor > ordinal2) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Call the given consumer for every neighbor of the given place.
+	 *
+	 * @param placeId the place Id.
+	 * @param consumer the consumer.
+	 */
+	public void forEachNeighbor(final long placeId, final NeighborConsumer consumer) {
+		final int ordinal = getOrdinal(placeId);
+		if (ordinal < 0) {
+			return;
+		}
+		final int end = offsets.get(ordinal + 1);
+		for (int edge = offsets.get(ordinal); edge < end; edge++) {
+			consumer.accept(placeIds.get(neighbors.get(edge)), weights.get(edge));
+		}
+	}
+
+	/**
+	 * Get the index of the first edge of the place with the given ordinal. Together with {@link #getEdgeEnd},
+	 * {@link #getNeighborOrdinal} and {@link #getEdgeWeight}, this allows iterating the graph without boxing.
+	 *
+	 * @param ordinal the place ordinal.
+	 * @return the index of the first edge.
+	 */
+	public int getEdgeBegin(final int ordinal) {
+		return offsets.get(ordinal);
+	}
+
+	/**
+	 * Get the index after the last edge of the place with the given ordinal.
+	 *
+	 * @param ordinal the place ordinal.
+	 * @return the index after the last edge.
+	 */
+	public int getEdgeEnd(final int ordinal) {
+		return offsets.get(ordinal + 1);
+	}
+
+	public int getNeighborOrdinal(final int edge) {
+		return neighbors.get(edge);
+	}
+
+	public float getEdgeWeight(final int edge) {
+		return weights.get(edge);
+	}
+
+	/**
+	 * Builder for {@link WikipediaLocationNetwork} instances. Edges are undirected, so adding an edge in one direction
+	 * suffices.
+	 */
+	public static class Builder {
+		private final WeightMergeFunction mergeFunction;
+		private long[] sources = new long[1024];
+		private long[] targets = new long[1024];
+		private float[] edgeWeights = new float[1024];
+		private int edgeCount = 0;
+
+		/**
+		 * Create a {@link Builder} that merges duplicate edges by keeping the largest weight.
+		 */
+		public Builder() {
+			this(Math::max);
+		}
+
+		/**
+		 * Create a {@link Builder} that merges duplicate edges with the given function.
+		 *
+		 * @param mergeFunction the function to merge the weights of duplicate edges.
+		 */
+		public Builder(final WeightMergeFunction mergeFunction) {
+			Objects.requireNonNull(mergeFunction);
+			this.mergeFunction = mergeFunction;
+		}
+
+		/**
+		 * Add an edge. Self loops are ignored.
+		 *
+		 * @param placeId1 the Id of the first place.
+		 * @param placeId2 the Id of the second place.
+		 * @param weight the edge weight.
+		 * @return this builder.
+		 */
+		public Builder addEdge(final long placeId1, final long placeId2, final float weight) {
+			if (placeId1 == placeId2) {
+				return this;
+			}
+			if (edgeCount == sources.length) {
+				final int capacity = sources.length * 2;
+				sources = Arrays.copyOf(sources, capacity);
+				targets = Arrays.copyOf(targets, capacity);
+				edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+			}
+			sources[edgeCount] = placeId1;
+			targets[edgeCount] = placeId2;
+			edgeWeights[edgeCount] = weight;
+			edgeCount++;
+			return this;
+		}
+
+		public WikipediaLocationNetwork build() {
+			final long[] allIds = new long[2 * edgeCount];
+			System.arraycopy(sources, 0, allIds, 0, edgeCount);
+			System.arraycopy(targets, 0, allIds, edgeCount, edgeCount);
+			Arrays.sort(allIds);
+			int placeCount = 0;
+			for (int i = 0; i < allIds.length; i++) {
+				if (i == 0 || allIds[i] != allIds[i - 1]) {
+					allIds[placeCount++] = allIds[i];
+				}
+			}
+			final long[] placeIds = Arrays.copyOf(allIds, placeCount);
+
+			// store both directions; neighbor ordinal and weight bits are packed to sort each row with a single sort
+			final int[] sourceOrdinals = new int[edgeCount];
+			final int[] targetOrdinals = new int[edgeCount];
+			final int[] rowSizes = new int[placeCount + 1];
+			for (int i = 0; i < edgeCount; i++) {
+				sourceOrdinals[i] = Arrays.binarySearch(placeIds, sources[i]);
+				targetOrdinals[i] = Arrays.binarySearch(placeIds, targets[i]);
+				rowSizes[sourceOrdinals[i] + 1]++;
+				rowSizes[targetOrdinals[i] + 1]++;
+			}
+			for (int i = 0; i < placeCount; i++) {
+				rowSizes[i + 1] += rowSizes[i];
+			}
+			final int[] rowPositions = Arrays.copyOf(rowSizes, placeCount);
+			final long[] packedEdges = new long[2 * edgeCount];
+			for (int i = 0; i < edgeCount; i++) {
+				final long weightBits = Float.floatToRawIntBits(edgeWeights[i]) & 0xffffffffL;
+				packedEdges[rowPositions[sourceOrdinals[i]]++] = ((long) targetOrdinals[i] << 32) | weightBits;
+				packedEdges[rowPositions[targetOrdinals[i]]++] = ((long) sourceOrdinals[i] << 32) | weightBits;
+			}
+
+			// sort each row by neighbor ordinal and merge duplicate edges
+			final int[] offsets = new int[placeCount + 1];
+			final int[] neighbors = new int[packedEdges.length];
+			final float[] weights = new float[packedEdges.length];
+			int size = 0;
+			for (int ordinal = 0; ordinal < placeCount; ordinal++) {
+				offsets[ordinal] = size;
+				Arrays.sort(packedEdges, rowSizes[ordinal], rowSizes[ordinal + 1]);
+				for (int i = rowSizes[ordinal]; i < rowSizes[ordinal + 1]; i++) {
+					final int neighbor = (int) (packedEdges[i] >>> 32);
+					final float weight = Float.intBitsToFloat((int) packedEdges[i]);
+					if (size > offsets[ordinal] && neighbors[size - 1] == neighbor) {
+						weights[size - 1] = mergeFunction.merge(weights[size - 1], weight);
+					}
+					else {
+						neighbors[size] = neighbor;
+						weights[size] = weight;
+						size++;
+					}
+				}
+			}
+			offsets[placeCount] = size;
+
+			return new WikipediaLocationNetwork(LongBuffer.wrap(placeIds), IntBuffer.wrap(offsets),
+					IntBuffer.wrap(neighbors, 0, size).slice(), FloatBuffer.wrap(weights, 0, size).slice());
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+package de.unihd.dbs.geoparser.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.stanford.nlp.ie.crf.CRFClassifier;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import opennlp.tools.namefind.TokenNameFinderModel;
+
+/**
+ * Process-wide registry for NLP language models that are expensive to load (e.g., Stanford NER classifiers, POS tagger
+ * models and OpenNLP models).
+ * <p>
+ * Each model is loaded at most once per path. Models are loaded lazily, i.e., not before {@link ModelHandle#get()} is
+ * called for the first time, and are reference counted: every call to one of the <code>acquire</code> methods returns
+ * a new {@link ModelHandle} that must be closed when the model is no longer needed. As soon as all handles for a model
+ * are closed, the registry drops its reference to the model, so it can be garbage collected.
+ * <p>
+ * All returned models are shared between their users. Hence, they must only be used in a read-only manner.
+ *
+ * @author lrichter
+ *
+ */
+public class NLPModelRegistry {
+
+	private static final Logger logger = LoggerFactory.getLogger(NLPModelRegistry.class);
+
+	private static final NLPModelRegistry INSTANCE = new NLPModelRegistry();
+
+	/**
+	 * Loader for a model that is managed by the {@link NLPModelRegistry}.
+	 *
+	 * @param <T> the type of the model.
+	 */
+	@FunctionalInterface
+	public interface ModelLoader<T> {
+		T load() throws IOException;
+	}
+
+	/**
+	 * Handle to a model managed by the {@link NLPModelRegistry}. Closing the handle releases the reference held on the
+	 * model. A closed handle must not be used anymore.
+	 *
+	 * @param <T> the type of the model.
+	 */
+	public static class ModelHandle<T> implements AutoCloseable {
+		private final NLPModelRegistry registry;
+		private final ModelEntry<T> entry;
+		private boolean closed;
+
+		private ModelHandle(final NLPModelRegistry registry, final ModelEntry<T> entry) {
+			this.registry = registry;
+			this.entry = entry;
+			this.closed = false;
+		}
+
+		/**
+		 * Get the model. The model is loaded, if this is the first access to it.
+		 *
+		 * @return the shared model instance.
+		 * @throws IOException if loading the model failed.
+		 */
+		public T get() throws IOException {
+			if (closed) {
+				throw new IllegalStateException("Model handle for `" + entry.key + "` is already closed!");
+			}
+			return entry.get();
+		}
+
+		@Override
+		public synchronized void close() {
+			if (!closed) {
+				closed = true;
+				registry.release(entry);
+			}
+		}
+	}
+
+	private static class ModelEntry<T> {
+		private final String key;
+		private final ModelLoader<T> loader;
+		private T model;
+		private int referenceCount;
+
+		private ModelEntry(final String key, final ModelLoader<T> loader) {
+			this.key = key;
+			this.loader = loader;
+			this.model = null;
+			this.referenceCount = 0;
+		}
+
+		private synchronized T get() throws IOException {
+			if (model == null) {
+				logger.debug("Loading model `" + key + "`");
+				model = loader.load();
+				logger.debug("Successfully loaded model `" + key + "`");
+			}
+			return model;
+		}
+
+		private synchronized void unload() {
+			model = null;
+		}
+	}
+
+	private final Map<String, ModelEntry<?>> entries;
+
+	/**
+	 * Get the process-wide {@link NLPModelRegistry} instance.
+	 *
+	 * @return the shared registry.
+	 */
+	public static NLPModelRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Create an {@link NLPModelRegistry} instance. Usually, you should use {@link #getInstance()} to share models
+	 * across the whole process.
+	 */
+	public NLPModelRegistry() {
+		entries = new HashMap<>();
+	}
+
+	/**
+	 * Acquire a handle to the model identified by the given key. If the model is not registered yet, it will be loaded
+	 * by the given loader on first access.
+	 *
+	 * @param key the unique key of the model. Must not be <code>null</code>.
+	 * @param loader the loader used to load the model. Must not be <code>null</code>.
+	 * @param <T> the type of the model.
+	 * @return a handle to the model that must be closed if the model is not needed anymore.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> ModelHandle<T> acquire(final String key, final ModelLoader<T> loader) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(loader);
+		ModelEntry<T> entry = (ModelEntry<T>) entries.get(key);
+		if (entry == null) {
+			entry = new ModelEntry<>(key, loader);
+			entries.put(key, entry);
+		}
+		entry.referenceCount++;
+		return new ModelHandle<>(this, entry);
+	}
+
+	/**
+	 * Acquire a handle to the Stanford NER {@link CRFClassifier} located at the given path.
+	 *
+	 * @param modelPath path to the classifier model.
+	 * @param properties the properties used to initialize the classifier. Must not be <code>null</code>.
+	 * @return a handle to the classifier.
+	 */
+	public ModelHandle<CRFClassifier<CoreLabel>> acquireCRFClassifier(final String modelPath,
+			final Properties properties) {
+		Objects.requireNonNull(properties);
+		// the same model may be used with different properties, which results in differently behaving classifiers
+		final String key = "stanford.crf:" + modelPath + ":" + new TreeMap<>(properties).toString();
+		return acquire(key, () -> {
+			try {
+				return CRFClassifier.getClassifier(modelPath, properties);
+			}
+			catch (ClassCastException | ClassNotFoundException e) {
+				throw new IOException("Failed to load model file!", e);
+			}
+		});
+	}
+
+	/**
+	 * Acquire a handle to the Stanford POS tagger model located at the given path.
+	 *
+	 * @param modelPath path to the tagger model.
+	 * @return a handle to the POS tagger.
+	 */
+	public ModelHandle<MaxentTagger> acquirePOSTagger(final String modelPath) {
+		return acquire("stanford.pos:" + modelPath, () -> {
+			try {
+				return new MaxentTagger(modelPath);
+			}
+			catch (final RuntimeException e) {
+				throw new IOException("Failed to load model file " + modelPath + "!", e);
+			}
+		});
+	}
+
+	/**
+	 * Acquire a handle to the OpenNLP Name Finder model located at the given path.
+	 * <p>
+	 * <b>Note</b>If the model path is given as relative path, it needs to be located under "resources".
+	 *
+	 * @param modelPath path to the Name Finder model.
+	 * @return a handle to the Name Finder model.
+	 */
+	public ModelHandle<TokenNameFinderModel> acquireOpenNLPNameFinderModel(final String modelPath) {
+		return acquire("opennlp.ner:" + modelPath, () -> {
+			try (final InputStream modelStream = getClass().getClassLoader().getResourceAsStream(modelPath)) {
+				if (modelStream == null) {
+					throw new IOException("Couldn't find model file " + modelPath + "!");
+				}
+				return new TokenNameFinderModel(modelStream);
+			}
+		});
+	}
+
+	/**
+	 * Check that a model file exists at the given path, either as class path resource or in the file system. This
+	 * allows model users to fail early on misconfigured paths, while loading the model itself is deferred to the first
+	 * call to {@link ModelHandle#get()}.
+	 *
+	 * @param modelPath path to the model file.
+	 * @throws IOException if no model file exists at the given path.
+	 */
+	public static void checkModelExists(final String modelPath) throws IOException {
+		Objects.requireNonNull(modelPath);
+		if (NLPModelRegistry.class.getClassLoader().getResource(modelPath) == null && !new File(modelPath).isFile()) {
+			throw new IOException("Couldn't find model file " + modelPath + "!");
+		}
+	}
+
+	/**
+	 * Check if a model is registered under the given key, i.e., if it is referenced by at least one open handle.
+	 *
+	 * @param key the model key.
+	 * @return <code>true</code> if the model is registered, <code>false</code> otherwise.
+	 */
+	public synchronized boolean isRegistered(final String key) {
+		return entries.containsKey(key);
+	}
+
+	private synchronized void release(final ModelEntry<?> entry) {
+		entry.referenceCount--;
+		if (entry.referenceCount <= 0) {
+			logger.debug("Releasing model `" + entry.key + "`");
+			entries.remove(entry.key);
+			entry.unload();
+		}
+	}
+
+}
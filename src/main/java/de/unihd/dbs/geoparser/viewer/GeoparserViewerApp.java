@@ -128,6 +128,10 @@ public class GeoparserViewerApp extends Application {
 	}
 
 	private void releaseResources() {
+		if (mainView != null) {
+			logger.info("Releasing the NLP models...");
+			mainView.getController().releaseResources();
+		}
 		if (appContext.gazetteer != null) {
 			logger.info("Shutting down the gazetteer...");
 			try {
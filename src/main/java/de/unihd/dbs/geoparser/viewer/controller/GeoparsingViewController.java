@@ -111,6 +111,13 @@ public class GeoparsingViewController implements Initializable {
 		resetView();
 	}
 
+	/**
+	 * Release the NLP models loaded for the geoparsing approaches of this view.
+	 */
+	public void releaseResources() {
+		approachBuilder.close();
+	}
+
 	public ObservableValue<Boolean> getFinishedGeoparsingObservable() {
 		return finishedGeoparsing;
 	}
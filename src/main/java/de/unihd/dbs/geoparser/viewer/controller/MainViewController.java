@@ -29,4 +29,11 @@ public class MainViewController implements Initializable {
 				.addListener(resultsViewController.getFinishedGeoparsingListener());
 	}
 
+	/**
+	 * Release the resources held by the embedded views.
+	 */
+	public void releaseResources() {
+		geoparsingViewController.releaseResources();
+	}
+
 }
@@ -5,7 +5,7 @@ import de.unihd.dbs.geoparser.Geoparser;
 public class GeoparsingApproach {
 
 	public enum RecognitionModule {
-		STANFORD_NER, OPEN_NLP, GAZETTEER_LOOKUP
+		STANFORD_NER, OPEN_NLP, GAZETTEER_LOOKUP, GAZETTEER_LOOKUP_ORTHOGRAPHIC
 	}
 
 	public enum LinkingModule {
@@ -18,16 +18,30 @@ public class GeoparsingApproach {
 		NAIVE_DISAMBIGUATOR, POPULATION_DISTANCE_WEIGHT_DISAMBIGUATOR
 	}
 
+	public enum SpatialInferenceModule {
+		CONTAINMENT_SPATIAL_INFERENCE
+	}
+
 	public final GeoparsingApproach.RecognitionModule recognitionModule;
 	public final GeoparsingApproach.LinkingModule linkingModule;
 	public final GeoparsingApproach.DisambiguationModule disambiguationModule;
+	/** The spatial inference module or <code>null</code>, if no spatial inference is performed. */
+	public final GeoparsingApproach.SpatialInferenceModule spatialInferenceModule;
 	public Geoparser geoparser;
 
 	public GeoparsingApproach(final GeoparsingApproach.RecognitionModule recognitionModule,
 			final GeoparsingApproach.LinkingModule linkingModule,
 			final GeoparsingApproach.DisambiguationModule disambiguationModule) {
+		this(recognitionModule, linkingModule, disambiguationModule, null);
+	}
+
+	public GeoparsingApproach(final GeoparsingApproach.RecognitionModule recognitionModule,
+			final GeoparsingApproach.LinkingModule linkingModule,
+			final GeoparsingApproach.DisambiguationModule disambiguationModule,
+			final GeoparsingApproach.SpatialInferenceModule spatialInferenceModule) {
 		this.recognitionModule = recognitionModule;
 		this.linkingModule = linkingModule;
 		this.disambiguationModule = disambiguationModule;
+		this.spatialInferenceModule = spatialInferenceModule;
 	}
 }
\ No newline at end of file
@@ -10,7 +10,11 @@ import de.unihd.dbs.geoparser.gazetteer.types.PlaceTypes;
 import de.unihd.dbs.geoparser.process.disambiguation.ToponymDisambiguationAnnotator;
 import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotator;
 import de.unihd.dbs.geoparser.process.recognition.GazetteerLookupRecognizer;
+import de.unihd.dbs.geoparser.process.recognition.OpenNLPExtractor;
+import de.unihd.dbs.geoparser.process.recognition.SharedPOSTaggerAnnotator;
+import de.unihd.dbs.geoparser.process.recognition.StanfordNER;
 import de.unihd.dbs.geoparser.process.recognition.ToponymRecognitionAnnotator;
+import de.unihd.dbs.geoparser.process.spatialinference.SpatialInferenceAnnotator;
 import de.unihd.dbs.geoparser.util.StopWordProvider;
 import edu.stanford.nlp.pipeline.AnnotationPipeline;
 import edu.stanford.nlp.pipeline.Annotator;
@@ -19,17 +23,18 @@ import edu.stanford.nlp.pipeline.TokenizerAnnotator.TokenizerType;
 import java.io.IOException;
 import java.net.URISyntaxException;
 
-public class GeoparsingApproachBuilder {
+public class GeoparsingApproachBuilder implements AutoCloseable {
 
     private static final int MAX_MATCHES = 5000;
 
     // we keep instances of once created geoparsing modules for performant reuse
     private Annotator tokenizerAnnotator;
     private Annotator sentenceAnnotator;
-    private Annotator posAnnotator;
+    private SharedPOSTaggerAnnotator posAnnotator;
     private ToponymRecognitionAnnotator stanfordNERAnnotator;
     private ToponymRecognitionAnnotator openNLPAnnotator;
     private ToponymRecognitionAnnotator gazetteerLookupRecognitionAnnotator;
+    private ToponymRecognitionAnnotator orthographicGazetteerLookupRecognitionAnnotator;
     private ToponymLinkingAnnotator exactLinkingAnnotator;
     private ToponymDisambiguationAnnotator firstMatchDisamiguationAnnotator;
     private ToponymDisambiguationAnnotator highestPopulationDisamiguationAnnotator;
@@ -37,6 +42,7 @@ public class GeoparsingApproachBuilder {
     private ToponymDisambiguationAnnotator wikipediaLocationNetworkDisambiguatorAnnotator;
     private ToponymDisambiguationAnnotator naiveDisambiguatorAnnotator;
     private ToponymDisambiguationAnnotator populationDistanceAnnotator;
+    private SpatialInferenceAnnotator containmentSpatialInferenceAnnotator;
     private final Gazetteer gazetteer;
     private final GeoparserConfig config;
 
@@ -45,6 +51,26 @@ public class GeoparsingApproachBuilder {
         this.config = config;
     }
 
+    /**
+     * Release the shared NLP models held by the cached recognition modules. Geoparsers initialized by this builder
+     * must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (posAnnotator != null) {
+            posAnnotator.close();
+            posAnnotator = null;
+        }
+        if (stanfordNERAnnotator != null) {
+            ((StanfordNER) stanfordNERAnnotator.getRecognitionModule()).close();
+            stanfordNERAnnotator = null;
+        }
+        if (openNLPAnnotator != null) {
+            ((OpenNLPExtractor) openNLPAnnotator.getRecognitionModule()).close();
+            openNLPAnnotator = null;
+        }
+    }
+
     public void initGeoparser(final GeoparsingApproach geoparsingApproach) {
         final AnnotationPipeline recognitionPipeline = new AnnotationPipeline();
         final AnnotationPipeline linkingPipeline = new AnnotationPipeline();
@@ -58,6 +84,9 @@ public class GeoparsingApproachBuilder {
                 recognitionPipeline.addAnnotator(initPOSAnnotator());
                 recognitionPipeline.addAnnotator(initGazetteerRecognitionAnnotator());
                 break;
+            case GAZETTEER_LOOKUP_ORTHOGRAPHIC:
+                recognitionPipeline.addAnnotator(initOrthographicGazetteerRecognitionAnnotator());
+                break;
             case OPEN_NLP:
                 recognitionPipeline.addAnnotator(initOpenNLPAnnotator());
                 break;
@@ -100,6 +129,17 @@ public class GeoparsingApproachBuilder {
                 break;
 
         }
+
+        if (geoparsingApproach.spatialInferenceModule != null) {
+            switch (geoparsingApproach.spatialInferenceModule) {
+                case CONTAINMENT_SPATIAL_INFERENCE:
+                    spatialInferrencePipeline.addAnnotator(initContainmentSpatialInferenceAnnotator());
+                    break;
+                default:
+                    break;
+            }
+        }
+
         geoparsingApproach.geoparser = new Geoparser(recognitionPipeline, linkingPipeline, disambiguationPipeline,
                 spatialInferrencePipeline);
     }
@@ -176,6 +216,22 @@ public class GeoparsingApproachBuilder {
         return gazetteerLookupRecognitionAnnotator;
     }
 
+    private Annotator initOrthographicGazetteerRecognitionAnnotator() {
+        if (orthographicGazetteerLookupRecognitionAnnotator == null) {
+            StopWordProvider stopWordProvider;
+            try {
+                stopWordProvider = new StopWordProvider(config);
+            } catch (IOException | UnknownConfigLabelException | URISyntaxException e) {
+                throw new RuntimeException(e);
+            }
+            orthographicGazetteerLookupRecognitionAnnotator = GeoparsingPipelineFactory
+                    .buildOrthographicGazetteerLookupRecognitionAnnotator(gazetteer,
+                            stopWordProvider.getStopWordsForLanguage("english"));
+        }
+
+        return orthographicGazetteerLookupRecognitionAnnotator;
+    }
+
     private Annotator initExactLinkingAnnotator() {
         if (exactLinkingAnnotator == null) {
             exactLinkingAnnotator = GeoparsingPipelineFactory.buildGazetteerExactToponymLinkerAnnotator(gazetteer,
@@ -235,4 +291,13 @@ public class GeoparsingApproachBuilder {
 
         return populationDistanceAnnotator;
     }
+
+    private Annotator initContainmentSpatialInferenceAnnotator() {
+        if (containmentSpatialInferenceAnnotator == null) {
+            containmentSpatialInferenceAnnotator = GeoparsingPipelineFactory
+                    .buildContainmentSpatialInferenceAnnotator(gazetteer);
+        }
+
+        return containmentSpatialInferenceAnnotator;
+    }
 }
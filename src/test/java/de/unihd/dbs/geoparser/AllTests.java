@@ -16,10 +16,27 @@ import de.unihd.dbs.geoparser.core.ToponymTest;
 import de.unihd.dbs.geoparser.gazetteer.GazetteerTest;
 import de.unihd.dbs.geoparser.gazetteer.models.ModelTest;
 import de.unihd.dbs.geoparser.gazetteer.models.TypeModelTest;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContextTest;
+import de.unihd.dbs.geoparser.process.disambiguation.PopulationDistanceWeightDisambiguatorTest;
+import de.unihd.dbs.geoparser.process.disambiguation.SpatialMinimalityDisambiguatorTest;
+import de.unihd.dbs.geoparser.process.disambiguation.WikipediaLocationNetworkDisambiguatorTest;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.AdminLevelFeatureTest;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.LinearScoringDisambiguatorTest;
+import de.unihd.dbs.geoparser.process.linking.CandidatePruningAnnotatorTest;
+import de.unihd.dbs.geoparser.process.linking.ToponymLinkingAnnotatorTest;
 import de.unihd.dbs.geoparser.process.linking.GazetteerExactToponymLinkerTest;
+import de.unihd.dbs.geoparser.process.recognition.CachingToponymRecognizerTest;
+import de.unihd.dbs.geoparser.process.recognition.EnsembleToponymRecognizerTest;
+import de.unihd.dbs.geoparser.process.recognition.SharedPOSTaggerAnnotatorTest;
 import de.unihd.dbs.geoparser.process.recognition.GazetteerLookupRecognizerTest;
 import de.unihd.dbs.geoparser.process.recognition.OpenNLPExtractorTest;
 import de.unihd.dbs.geoparser.process.recognition.StanfordNERTest;
+import de.unihd.dbs.geoparser.process.spatialinference.ContainmentSpatialInferenceTest;
+import de.unihd.dbs.geoparser.process.util.AdminLevelCacheTest;
+import de.unihd.dbs.geoparser.process.util.DistanceSumCalculatorTest;
+import de.unihd.dbs.geoparser.process.util.HaversineTest;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetworkTest;
+import de.unihd.dbs.geoparser.util.NLPModelRegistryTest;
 import de.unihd.dbs.geoparser.util.StopWordProviderTest;
 import de.unihd.dbs.geoparser.util.dbconnectors.AbstractDBConnectorTest;
 import de.unihd.dbs.geoparser.util.dbconnectors.DBConnectionDataTest;
@@ -35,7 +52,14 @@ import de.unihd.dbs.geoparser.util.dbconnectors.SSHConnectionDataTest;
 		PartOfSpeechPTBTypeTest.class, NamedEntityTest.class, NamedEntityTypeTest.class, ToponymTest.class,
 		LinkedToponymTest.class, ResolvedLocationTest.class, ResolvedToponymTest.class, DocumentTest.class,
 		GazetteerTest.class, OpenNLPExtractorTest.class, StanfordNERTest.class, GazetteerLookupRecognizerTest.class,
-		GazetteerExactToponymLinkerTest.class, StopWordProviderTest.class,
+		GazetteerExactToponymLinkerTest.class, StopWordProviderTest.class, NLPModelRegistryTest.class,
+		CachingToponymRecognizerTest.class, EnsembleToponymRecognizerTest.class, WikipediaLocationNetworkTest.class,
+		SharedPOSTaggerAnnotatorTest.class, DistanceSumCalculatorTest.class, HaversineTest.class,
+		DisambiguationContextTest.class, LinearScoringDisambiguatorTest.class, AdminLevelFeatureTest.class,
+		CandidatePruningAnnotatorTest.class, ToponymLinkingAnnotatorTest.class, AdminLevelCacheTest.class,
+		WikipediaLocationNetworkDisambiguatorTest.class, PopulationDistanceWeightDisambiguatorTest.class,
+		SpatialMinimalityDisambiguatorTest.class,
+		ContainmentSpatialInferenceTest.class, GeoparserTest.class, PipelinedGeoparserTest.class,
 		// MongoDBConnectorTest.class,
 		// WPArticleTest.class,
 		// WPSentenceTest.class,
@@ -0,0 +1,130 @@
+package de.unihd.dbs.geoparser;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.Document;
+
+import edu.stanford.nlp.ling.CoreAnnotation;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.AnnotationPipeline;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+
+public class GeoparserTest {
+
+	private static class GeoparserIdAnnotation implements CoreAnnotation<Integer> {
+		@Override
+		public Class<Integer> getType() {
+			return Integer.class;
+		}
+	}
+
+	/**
+	 * Marks documents with the Id of the geoparser and fails for documents with the text "fail".
+	 */
+	private static class MarkingAnnotator implements Annotator {
+		private final int geoparserId;
+
+		private MarkingAnnotator(final int geoparserId) {
+			this.geoparserId = geoparserId;
+		}
+
+		@Override
+		public void annotate(final Annotation annotation) {
+			if ("fail".equals(annotation.toString())) {
+				throw new IllegalStateException("failed");
+			}
+			annotation.set(GeoparserIdAnnotation.class, geoparserId);
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Set<Requirement> requires() {
+			return Collections.emptySet();
+		}
+	}
+
+	private final AtomicInteger createdGeoparsers = new AtomicInteger();
+	private final AtomicInteger closedGeoparsers = new AtomicInteger();
+
+	private final Supplier<Geoparser> geoparserFactory = () -> {
+		final AnnotationPipeline recognitionPipeline = new AnnotationPipeline();
+		recognitionPipeline.addAnnotator(new MarkingAnnotator(createdGeoparsers.incrementAndGet()));
+		return new Geoparser(recognitionPipeline, new AnnotationPipeline(), new AnnotationPipeline(),
+				new AnnotationPipeline(), closedGeoparsers::incrementAndGet);
+	};
+
+	private static List<Document> createDocuments(final int count) {
+		return IntStream.range(0, count).mapToObj(i -> new Document(Integer.toString(i)))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testGeoparseAllOrdered() {
+		final List<Document> documents = createDocuments(100);
+
+		final List<Document> results;
+		try (Stream<Document> stream = Geoparser.geoparseAll(documents, geoparserFactory, 4, true)) {
+			results = stream.collect(Collectors.toList());
+		}
+
+		assertThat(results, contains(documents.toArray()));
+		results.forEach(document -> assertThat(document.get(GeoparserIdAnnotation.class), notNullValue()));
+		assertThat(createdGeoparsers.get(), greaterThan(0));
+		assertThat(createdGeoparsers.get(), lessThanOrEqualTo(4));
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test
+	public void testGeoparseAllUnordered() {
+		final List<Document> documents = createDocuments(100);
+
+		final List<Document> results = Geoparser.geoparseAll(documents.stream(), geoparserFactory, 3, false)
+				.collect(Collectors.toList());
+
+		assertThat(results, containsInAnyOrder(documents.toArray()));
+		results.forEach(document -> assertThat(document.get(GeoparserIdAnnotation.class), notNullValue()));
+		assertThat(createdGeoparsers.get(), greaterThan(0));
+		assertThat(createdGeoparsers.get(), lessThanOrEqualTo(3));
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test
+	public void testGeoparseAllFailure() {
+		final List<Document> documents = createDocuments(10);
+		documents.set(5, new Document("fail"));
+
+		try (Stream<Document> stream = Geoparser.geoparseAll(documents, geoparserFactory, 2, true)) {
+			stream.forEach(document -> {
+				// consume
+			});
+			fail("Expected the failure to be rethrown");
+		}
+		catch (final RuntimeException e) {
+			assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+		}
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGeoparseAllInvalidWorkerCount() {
+		Geoparser.geoparseAll(createDocuments(1), geoparserFactory, 0, true);
+	}
+
+}
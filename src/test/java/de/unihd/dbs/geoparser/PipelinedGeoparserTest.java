@@ -0,0 +1,233 @@
+package de.unihd.dbs.geoparser;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.Geoparser.Stage;
+import de.unihd.dbs.geoparser.core.Document;
+
+import edu.stanford.nlp.ling.CoreAnnotation;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.AnnotationPipeline;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+
+public class PipelinedGeoparserTest {
+
+	private static class StageTraceAnnotation implements CoreAnnotation<String> {
+		@Override
+		public Class<String> getType() {
+			return String.class;
+		}
+	}
+
+	/**
+	 * Appends the first letter of its stage to the trace of a document and fails for documents with the text "fail"
+	 * in the linking stage.
+	 */
+	private static class TracingAnnotator implements Annotator {
+		private final Stage stage;
+
+		private TracingAnnotator(final Stage stage) {
+			this.stage = stage;
+		}
+
+		@Override
+		public void annotate(final Annotation annotation) {
+			if (stage == Stage.LINKING && "fail".equals(annotation.toString())) {
+				throw new IllegalStateException("failed");
+			}
+			final String trace = annotation.get(StageTraceAnnotation.class);
+			annotation.set(StageTraceAnnotation.class, (trace == null ? "" : trace) + stage.name().charAt(0));
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Set<Requirement> requires() {
+			return Collections.emptySet();
+		}
+	}
+
+	/**
+	 * Blocks the document with the text "0" until the latch is released.
+	 */
+	private static class BlockingAnnotator implements Annotator {
+		private final CountDownLatch release;
+
+		private BlockingAnnotator(final CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void annotate(final Annotation annotation) {
+			if ("0".equals(annotation.toString())) {
+				try {
+					release.await();
+				}
+				catch (final InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Set<Requirement> requires() {
+			return Collections.emptySet();
+		}
+	}
+
+	private final AtomicInteger createdGeoparsers = new AtomicInteger();
+	private final AtomicInteger closedGeoparsers = new AtomicInteger();
+
+	private final Supplier<Geoparser> geoparserFactory = () -> {
+		createdGeoparsers.incrementAndGet();
+		final AnnotationPipeline[] pipelines = new AnnotationPipeline[Stage.values().length];
+		for (final Stage stage : Stage.values()) {
+			pipelines[stage.ordinal()] = new AnnotationPipeline();
+			pipelines[stage.ordinal()].addAnnotator(new TracingAnnotator(stage));
+		}
+		return new Geoparser(pipelines[0], pipelines[1], pipelines[2], pipelines[3], closedGeoparsers::incrementAndGet);
+	};
+
+	private static List<Document> createDocuments(final int count) {
+		return IntStream.range(0, count).mapToObj(i -> new Document(Integer.toString(i)))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testGeoparseAllOrdered() {
+		final PipelinedGeoparser geoparser = new PipelinedGeoparser(geoparserFactory, 2, 3, 3, 1, 2);
+		final List<Document> documents = createDocuments(100);
+
+		final List<Document> results;
+		try (Stream<Document> stream = geoparser.geoparseAll(documents, true)) {
+			results = stream.collect(Collectors.toList());
+		}
+
+		assertThat(results, contains(documents.toArray()));
+		results.forEach(document -> assertThat(document.get(StageTraceAnnotation.class), equalTo("RLDS")));
+		assertThat(createdGeoparsers.get(), lessThanOrEqualTo(9));
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test
+	public void testGeoparseAllUnordered() {
+		final PipelinedGeoparser geoparser = new PipelinedGeoparser(geoparserFactory, 1, 2, 2, 1);
+		final List<Document> documents = createDocuments(100);
+
+		final List<Document> results = geoparser.geoparseAll(documents.stream(), false).collect(Collectors.toList());
+
+		assertThat(results, containsInAnyOrder(documents.toArray()));
+		results.forEach(document -> assertThat(document.get(StageTraceAnnotation.class), equalTo("RLDS")));
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test
+	public void testGeoparseAllEmpty() {
+		final PipelinedGeoparser geoparser = new PipelinedGeoparser(geoparserFactory, 2, 2, 2, 2);
+
+		assertThat(geoparser.geoparseAll(Collections.<Document> emptyList(), true).count(), equalTo(0L));
+		assertThat(createdGeoparsers.get(), equalTo(0));
+	}
+
+	@Test
+	public void testGeoparseAllFailure() {
+		final PipelinedGeoparser geoparser = new PipelinedGeoparser(geoparserFactory, 1, 2, 1, 1, 1);
+		final List<Document> documents = createDocuments(20);
+		documents.set(10, new Document("fail"));
+
+		try (Stream<Document> stream = geoparser.geoparseAll(documents, true)) {
+			stream.forEach(document -> assertThat(document.get(StageTraceAnnotation.class), equalTo("RLDS")));
+			fail("Expected the failure to be rethrown");
+		}
+		catch (final RuntimeException e) {
+			assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+		}
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test
+	public void testBackpressureWhileDocumentIsBlocked() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final PipelinedGeoparser geoparser = new PipelinedGeoparser(() -> {
+			createdGeoparsers.incrementAndGet();
+			final AnnotationPipeline disambiguationPipeline = new AnnotationPipeline();
+			disambiguationPipeline.addAnnotator(new BlockingAnnotator(release));
+			return new Geoparser(new AnnotationPipeline(), new AnnotationPipeline(), disambiguationPipeline,
+					new AnnotationPipeline(), closedGeoparsers::incrementAndGet);
+		}, 1, 1, 2, 1, 2);
+		final List<Document> documents = createDocuments(1000);
+		final AtomicInteger readDocuments = new AtomicInteger();
+		final Iterable<Document> countingDocuments = () -> new Iterator<Document>() {
+			private final Iterator<Document> iterator = documents.iterator();
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Document next() {
+				readDocuments.incrementAndGet();
+				return iterator.next();
+			}
+		};
+
+		final List<Document> results = Collections.synchronizedList(new ArrayList<>());
+		try (Stream<Document> stream = geoparser.geoparseAll(countingDocuments, true)) {
+			// the consumer waits for the blocked first document, while the other documents complete
+			final Thread consumer = new Thread(() -> stream.forEach(results::add));
+			consumer.setDaemon(true);
+			consumer.start();
+
+			try {
+				int lastCount = -1;
+				int stablePolls = 0;
+				while (stablePolls < 5 && readDocuments.get() <= geoparser.getMaxDocumentsInProcess()) {
+					Thread.sleep(50);
+					stablePolls = readDocuments.get() == lastCount ? stablePolls + 1 : 0;
+					lastCount = readDocuments.get();
+				}
+				assertThat(readDocuments.get(), lessThanOrEqualTo(geoparser.getMaxDocumentsInProcess()));
+				assertThat(results, empty());
+			}
+			finally {
+				release.countDown();
+			}
+			consumer.join(30000);
+			assertThat(consumer.isAlive(), equalTo(false));
+		}
+
+		assertThat(results, contains(documents.toArray()));
+		assertThat(closedGeoparsers.get(), equalTo(createdGeoparsers.get()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreadCount() {
+		new PipelinedGeoparser(geoparserFactory, 1, 0, 1, 1);
+	}
+
+}
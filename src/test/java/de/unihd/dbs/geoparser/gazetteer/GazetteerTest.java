@@ -40,14 +40,17 @@ import de.unihd.dbs.geoparser.gazetteer.query.PlaceIdPlaceFilter;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceNamePlaceFilter;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceNamePlaceFilter.MatchMode;
 import de.unihd.dbs.geoparser.gazetteer.query.PlacePropertyPlaceFilter;
+import de.unihd.dbs.geoparser.gazetteer.query.PlaceRanking;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceRelationshipPlaceFilter;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceRelationshipPlaceFilter.PlaceRelationshipDirection;
 import de.unihd.dbs.geoparser.gazetteer.query.PlaceTypePlaceFilter;
+import de.unihd.dbs.geoparser.gazetteer.query.ProximityPlaceFilter;
 import de.unihd.dbs.geoparser.gazetteer.query.QueryFilter;
 import de.unihd.dbs.geoparser.gazetteer.types.PlaceTypes;
 import de.unihd.dbs.geoparser.gazetteer.types.PropertyTypes;
 import de.unihd.dbs.geoparser.gazetteer.types.RelationshipTypes;
 import de.unihd.dbs.geoparser.gazetteer.util.GazetteerPersistenceManager;
+import de.unihd.dbs.geoparser.process.util.Haversine;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Envelope;
@@ -289,6 +292,149 @@ public class GazetteerTest {
 		assertThat(places.size(), equalTo(0));
 	}
 
+	@Test
+	public void testGetPlacesByExactNames() {
+		final Set<String> names = new HashSet<>(Arrays.asList("Heidelberg", "Mannheim", "Heidelbärgxyz"));
+		final GazetteerQuery<Place> query = new GazetteerQuery<>(3);
+
+		final Map<String, List<Place>> placesByName = gazetteer.getPlacesByExactNames(names, query);
+
+		assertThat(placesByName.keySet(), containsInAnyOrder("Heidelberg", "Mannheim"));
+		for (final Map.Entry<String, List<Place>> entry : placesByName.entrySet()) {
+			assertThat(entry.getValue().size(), allOf(greaterThan(0), lessThanOrEqualTo(3)));
+			for (final Place place : entry.getValue()) {
+				assertThat(place.getPlaceNames().stream().map(name -> name.getName()).collect(Collectors.toSet()),
+						hasItem(entry.getKey()));
+			}
+		}
+	}
+
+	@Test
+	public void testGetPlacesByExactNamesRanked() {
+		final Set<String> names = new HashSet<>(Arrays.asList("Heidelberg", "Paris"));
+		final PlaceRanking ranking = PlaceRanking.createDefault(gazetteer);
+
+		final Map<String, List<Place>> allPlacesByName = gazetteer.getPlacesByExactNames(names,
+				new GazetteerQuery<>(), ranking);
+		final Map<String, List<Place>> topPlacesByName = gazetteer.getPlacesByExactNames(names,
+				new GazetteerQuery<>(2), ranking);
+
+		assertThat(topPlacesByName.keySet(), equalTo(allPlacesByName.keySet()));
+		for (final Map.Entry<String, List<Place>> entry : topPlacesByName.entrySet()) {
+			final List<Place> allPlaces = allPlacesByName.get(entry.getKey());
+			assertThat(entry.getValue(), equalTo(allPlaces.subList(0, Math.min(2, allPlaces.size()))));
+		}
+	}
+
+	@Test
+	public void testGetPlacesByExactNamesRankedWithPlaceTypeFilter() {
+		final Set<String> names = new HashSet<>(Arrays.asList("Heidelberg", "Paris"));
+		final PlaceRanking ranking = PlaceRanking.createDefault(gazetteer);
+		final PlaceType rootType = (PlaceType) allTypes.get(PlaceTypes.ADMINISTRATIVE_DIVISION.typeName);
+		final PlaceTypePlaceFilter typeFilter = new PlaceTypePlaceFilter(new HashSet<>(Arrays.asList(rootType)), true,
+				false);
+
+		final Map<String, List<Place>> allPlacesByName = gazetteer.getPlacesByExactNames(names,
+				new GazetteerQuery<>(Arrays.asList(typeFilter)), ranking);
+		final Map<String, List<Place>> topPlacesByName = gazetteer.getPlacesByExactNames(names,
+				new GazetteerQuery<>(Arrays.asList(typeFilter), 2), ranking);
+
+		assertThat(topPlacesByName.keySet(), equalTo(allPlacesByName.keySet()));
+		for (final Map.Entry<String, List<Place>> entry : topPlacesByName.entrySet()) {
+			final List<Place> allPlaces = allPlacesByName.get(entry.getKey());
+			assertThat(entry.getValue(), equalTo(allPlaces.subList(0, Math.min(2, allPlaces.size()))));
+		}
+	}
+
+	@Test
+	public void testGetPlacesByExactNamesRankedWithNativeFilters() {
+		final Set<String> names = new HashSet<>(Arrays.asList("Heidelberg", "Paris"));
+		final PlaceType rootType = (PlaceType) allTypes.get(PlaceTypes.ADMINISTRATIVE_DIVISION.typeName);
+		final PlaceTypePlaceFilter exclusiveTypeFilter = new PlaceTypePlaceFilter(
+				new HashSet<>(Arrays.asList(rootType)), true, true);
+		final Set<Long> placeIds = gazetteer.getPlaceIdsByExactNames(names, new GazetteerQuery<>()).values().stream()
+				.flatMap(Set::stream).collect(Collectors.toSet());
+		final PlaceIdPlaceFilter idFilter = new PlaceIdPlaceFilter(placeIds, false);
+
+		// both filters are rendered in the native top-k query
+		assertTopRankedPlacesByExactNames(names, Arrays.asList(exclusiveTypeFilter, idFilter));
+	}
+
+	@Test
+	public void testGetPlacesByExactNamesRankedWithOtherFilters() {
+		final Set<String> names = new HashSet<>(Arrays.asList("Heidelberg", "Paris"));
+		final GeometryFactory geomFactory = new GeometryFactory(new PrecisionModel(), Footprint.REFERENCE_SYSTEM_SRID);
+		final QueryFilter<Place> boundingBoxFilter = new BoundingBoxPlaceFilter(
+				geomFactory.toGeometry(new Envelope(-180, 180, -90, 90)), false);
+
+		// the bounding box filter cannot be rendered natively, so the matches are cut per name in memory
+		assertTopRankedPlacesByExactNames(names, Arrays.asList(boundingBoxFilter));
+	}
+
+	private static void assertTopRankedPlacesByExactNames(final Set<String> names,
+			final List<QueryFilter<Place>> filters) {
+		final PlaceRanking ranking = PlaceRanking.createDefault(gazetteer);
+
+		final Map<String, List<Place>> allPlacesByName = gazetteer.getPlacesByExactNames(names,
+				new GazetteerQuery<>(filters), ranking);
+		final Map<String, List<Place>> topPlacesByName = gazetteer.getPlacesByExactNames(names,
+				new GazetteerQuery<>(filters, 2), ranking);
+
+		assertThat(topPlacesByName.keySet(), not(empty()));
+		assertThat(topPlacesByName.keySet(), equalTo(allPlacesByName.keySet()));
+		for (final Map.Entry<String, List<Place>> entry : topPlacesByName.entrySet()) {
+			final List<Place> allPlaces = allPlacesByName.get(entry.getKey());
+			assertThat(entry.getValue(), equalTo(allPlaces.subList(0, Math.min(2, allPlaces.size()))));
+		}
+	}
+
+	@Test
+	public void testGetPlacesByExactNamesWithPlaceTypeFilter() {
+		final String placeName = "Heidelberg";
+		final PlaceType rootType = (PlaceType) allTypes.get(PlaceTypes.ADMINISTRATIVE_DIVISION.typeName);
+		final PlaceTypePlaceFilter typeFilter = new PlaceTypePlaceFilter(new HashSet<>(Arrays.asList(rootType)), true,
+				false);
+		final QueryFilter<Place> nameFilter = new PlaceNamePlaceFilter(placeName, null, EnumSet.noneOf(NameFlag.class),
+				false, MatchMode.EXACT, 0.0, false);
+
+		final Map<String, List<Place>> placesByName = gazetteer.getPlacesByExactNames(Arrays.asList(placeName),
+				new GazetteerQuery<>(Arrays.asList(typeFilter)));
+		final List<Place> expectedPlaces = gazetteer
+				.getPlaces(new GazetteerQuery<>(Arrays.asList(nameFilter, typeFilter)));
+
+		assertThat(placesByName.get(placeName), containsInAnyOrder(expectedPlaces.toArray()));
+	}
+
+	@Test
+	public void testGetPlaceIdsByExactNames() {
+		final Set<String> names = new HashSet<>(Arrays.asList("Heidelberg", "heidelberg"));
+		final PlaceType rootType = (PlaceType) allTypes.get(PlaceTypes.ADMINISTRATIVE_DIVISION.typeName);
+		final GazetteerQuery<Place> query = new GazetteerQuery<>(
+				Arrays.asList(new PlaceTypePlaceFilter(new HashSet<>(Arrays.asList(rootType)), true, false)));
+
+		final Map<String, Set<Long>> placeIdsByName = gazetteer.getPlaceIdsByExactNames(names, query);
+		final Map<String, List<Place>> placesByName = gazetteer.getPlacesByExactNames(names, query);
+
+		assertThat(placeIdsByName.keySet(), equalTo(placesByName.keySet()));
+		for (final Map.Entry<String, List<Place>> entry : placesByName.entrySet()) {
+			assertThat(placeIdsByName.get(entry.getKey()),
+					equalTo(entry.getValue().stream().map(Place::getId).collect(Collectors.toSet())));
+		}
+	}
+
+	@Test
+	public void testPlaceTypeFilterResolvesSubtypes() {
+		final PlaceType rootType = (PlaceType) allTypes.get(PlaceTypes.ADMINISTRATIVE_DIVISION.typeName);
+		final PlaceType childType = (PlaceType) allTypes.get(PlaceTypes.ADMIN2.typeName);
+
+		final PlaceTypePlaceFilter flatFilter = new PlaceTypePlaceFilter(new HashSet<>(Arrays.asList(rootType)), false);
+		final PlaceTypePlaceFilter hierarchicalFilter = new PlaceTypePlaceFilter(
+				new HashSet<>(Arrays.asList(rootType)), true, false);
+
+		assertThat(flatFilter.getPlaceTypeIds(), contains(rootType.getId()));
+		assertThat(hierarchicalFilter.getPlaceTypeIds(), hasItems(rootType.getId(), childType.getId()));
+	}
+
 	@Test
 	public void testGetPlacesWithExactPlaceNameCaseInSensitiveFilter() {
 		final String placeName = "heidelberg";
@@ -434,6 +580,50 @@ public class GazetteerTest {
 		assertThat(places.size(), greaterThan(0));
 	}
 
+	@Test
+	public void testCountPlacesWithBoundingBoxFilterPaths() {
+		final GeometryFactory geomFactory = new GeometryFactory(new PrecisionModel(), Footprint.REFERENCE_SYSTEM_SRID);
+		// Heidelberg area
+		final Envelope bbox = new Envelope(8.57, 8.80, 49.35, 49.46);
+		final GazetteerQuery<Place> semiJoinQuery = new GazetteerQuery<>(
+				Arrays.asList(new BoundingBoxPlaceFilter(geomFactory.toGeometry(bbox), true, false)));
+		final GazetteerQuery<Place> correlatedQuery = new GazetteerQuery<>(
+				Arrays.asList(new BoundingBoxPlaceFilter(geomFactory.toGeometry(bbox), false, false)));
+
+		final Long placeCount = gazetteer.countPlaces(semiJoinQuery);
+
+		assertThat(placeCount.intValue(), greaterThan(0));
+		assertThat(placeCount, equalTo(gazetteer.countPlaces(correlatedQuery)));
+	}
+
+	@Test
+	public void testGetPlacesByProximity() {
+		final int placeLimit = 5;
+		final double radius = 20;
+		final GeometryFactory geomFactory = new GeometryFactory(new PrecisionModel(), Footprint.REFERENCE_SYSTEM_SRID);
+		// Heidelberg, Germany
+		final Point point = geomFactory.createPoint(new Coordinate(8.69079, 49.40768));
+		final ProximityPlaceFilter filter = new ProximityPlaceFilter(point, radius, false);
+		final GazetteerQuery<Place> query = new GazetteerQuery<>(placeLimit);
+
+		final List<Place> places = gazetteer.getPlacesByProximity(query, filter);
+
+		assertThat(places.size(), equalTo(placeLimit));
+		double previousDistance = 0;
+		for (final Place place : places) {
+			final double distance = place.getFootprints().stream()
+					.mapToDouble(footprint -> Haversine.distance(point.getY(), point.getX(),
+							footprint.getGeometry().getCoordinate().y, footprint.getGeometry().getCoordinate().x))
+					.min().getAsDouble();
+			assertThat(distance, lessThanOrEqualTo(radius));
+			assertThat(distance, greaterThanOrEqualTo(previousDistance - 0.01));
+			previousDistance = distance;
+		}
+
+		assertThat(gazetteer.countPlaces(new GazetteerQuery<>(Arrays.asList(filter))), greaterThanOrEqualTo(
+				Long.valueOf(placeLimit)));
+	}
+
 	@Test
 	public void testGetPlacesWithPlaceTypeFilter() {
 		final int placeLimit = 5;
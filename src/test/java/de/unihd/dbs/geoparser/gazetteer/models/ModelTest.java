@@ -516,6 +516,22 @@ public class ModelTest {
 		assertThat(place.getProperties(), contains(property));
 	}
 
+	@Test
+	public void testPlacePropertyNumericValue() {
+		final PlaceProperty property = new PlaceProperty(" 1234 ", propertyType, null, null, null);
+		assertThat(property.getNumericValue(), equalTo(1234.0));
+
+		property.setValue("-1.5e3");
+		assertThat(property.getNumericValue(), equalTo(-1500.0));
+
+		property.setValue("testValue");
+		assertThat(property.getNumericValue(), nullValue());
+
+		assertThat(PlaceProperty.parseNumericValue("NaN"), nullValue());
+		assertThat(PlaceProperty.parseNumericValue("1f"), nullValue());
+		assertThat(PlaceProperty.parseNumericValue(null), nullValue());
+	}
+
 	@Test
 	public void testSetPlacePropertiesWithPersistence() {
 		final Place place = new Place();
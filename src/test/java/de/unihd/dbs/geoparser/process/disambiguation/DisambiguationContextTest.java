@@ -0,0 +1,59 @@
+package de.unihd.dbs.geoparser.process.disambiguation;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class DisambiguationContextTest {
+
+	private static CoreMap buildNamedEntity(final String tag, final List<Place> linkedPlaces) {
+		final CoreMap namedEntity = new ArrayCoreMap();
+		namedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, tag);
+		namedEntity.set(GeoparsingAnnotations.GazetteerEntriesAnnotation.class, linkedPlaces);
+		return namedEntity;
+	}
+
+	@Test
+	public void testCandidates() {
+		final Place first = new Place();
+		final Place second = new Place();
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(
+				buildNamedEntity(NamedEntityType.LOCATION.name, Arrays.asList(first, second)),
+				buildNamedEntity(NamedEntityType.LOCATION.name, Collections.emptyList()),
+				buildNamedEntity(NamedEntityType.PERSON.name, Collections.singletonList(second)),
+				buildNamedEntity(NamedEntityType.LOCATION.name, null)), null, null);
+
+		assertThat(context.getCandidates(0), contains(first, second));
+		assertThat(context.getCandidates(1), nullValue());
+		assertThat(context.getCandidates(2), nullValue());
+		assertThat(context.getCandidates(3), nullValue());
+		assertThat(context.getLinkedPlaces(), hasSize(3));
+	}
+
+	@Test
+	public void testComputeIfAbsent() {
+		final DisambiguationContext.Key<Integer> key = new DisambiguationContext.Key<>("test");
+		final AtomicInteger calls = new AtomicInteger();
+		final DisambiguationContext context = new DisambiguationContext(Collections.emptyList(), null, null);
+
+		assertThat(context.get(key), nullValue());
+		assertThat(context.computeIfAbsent(key, ctx -> calls.incrementAndGet()), equalTo(1));
+		assertThat(context.computeIfAbsent(key, ctx -> calls.incrementAndGet()), equalTo(1));
+		assertThat(new DisambiguationContext(Collections.emptyList(), null, null).get(key), nullValue());
+	}
+
+}
@@ -0,0 +1,75 @@
+package de.unihd.dbs.geoparser.process.disambiguation;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class PopulationDistanceWeightDisambiguatorTest {
+
+	private final PopulationDistanceWeightDisambiguator disambiguator = new PopulationDistanceWeightDisambiguator(
+			null, new WikipediaLocationNetwork.Builder().build());
+
+	private static Place buildPlace(final long id, final double longitude, final double latitude) {
+		final Place place = new Place() {
+			{
+				setId(id);
+			}
+		};
+		place.addFootprint(new Footprint(new GeometryFactory().createPoint(new Coordinate(longitude, latitude)), null,
+				place, null, null));
+		return place;
+	}
+
+	private static CoreMap buildNamedEntity(final Place... linkedPlaces) {
+		final CoreMap namedEntity = new ArrayCoreMap();
+		namedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		if (linkedPlaces.length > 0) {
+			namedEntity.set(GeoparsingAnnotations.GazetteerEntriesAnnotation.class, Arrays.asList(linkedPlaces));
+		}
+		return namedEntity;
+	}
+
+	@Test
+	public void testUnlinkedToponymBetweenLinkedToponyms() {
+		final Place heidelberg = buildPlace(1, 8.69, 49.41);
+		final Place mannheim = buildPlace(2, 8.47, 49.49);
+		final Place mannheimPennsylvania = buildPlace(3, -76.33, 40.16);
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(buildNamedEntity(heidelberg),
+				buildNamedEntity(), buildNamedEntity(mannheimPennsylvania, mannheim)), null, null);
+
+		final List<ResolvedLocation> locations = disambiguator.disambiguate(context);
+
+		assertThat(locations, hasSize(3));
+		assertThat(locations.get(0).gazetteerEntry, sameInstance(heidelberg));
+		assertThat(locations.get(1), nullValue());
+		assertThat(locations.get(2).gazetteerEntry, sameInstance(mannheim));
+	}
+
+	@Test
+	public void testNoLinkedToponyms() {
+		final DisambiguationContext context = new DisambiguationContext(
+				Arrays.asList(buildNamedEntity(), buildNamedEntity()), null, null);
+
+		assertThat(disambiguator.disambiguate(context), equalTo(Collections.nCopies(2, null)));
+	}
+
+}
@@ -0,0 +1,62 @@
+package de.unihd.dbs.geoparser.process.disambiguation;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class SpatialMinimalityDisambiguatorTest {
+
+	private static Place buildPlace(final double longitude, final double latitude) {
+		final Place place = new Place();
+		place.addFootprint(new Footprint(new GeometryFactory().createPoint(new Coordinate(longitude, latitude)), null,
+				place, null, null));
+		return place;
+	}
+
+	private static CoreMap buildNamedEntity(final String tag, final Place... linkedPlaces) {
+		final CoreMap namedEntity = new ArrayCoreMap();
+		namedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, tag);
+		namedEntity.set(GeoparsingAnnotations.GazetteerEntriesAnnotation.class, Arrays.asList(linkedPlaces));
+		return namedEntity;
+	}
+
+	@Test
+	public void testClosestCandidatesAreSelected() {
+		final Place heidelbergSouthAfrica = buildPlace(28.35, -26.50);
+		final Place heidelberg = buildPlace(8.69, 49.41);
+		final Place mannheim = buildPlace(8.47, 49.49);
+		final Place parisTexas = buildPlace(-95.55, 33.66);
+		final Place paris = buildPlace(2.35, 48.86);
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(
+				buildNamedEntity(NamedEntityType.LOCATION.name, heidelbergSouthAfrica, heidelberg),
+				buildNamedEntity(NamedEntityType.PERSON.name, mannheim),
+				buildNamedEntity(NamedEntityType.LOCATION.name, parisTexas, paris),
+				buildNamedEntity(NamedEntityType.LOCATION.name, mannheim)), null, null);
+
+		final List<ResolvedLocation> locations = new SpatialMinimalityDisambiguator().disambiguate(context);
+
+		assertThat(locations, hasSize(4));
+		assertThat(locations.get(0).gazetteerEntry, sameInstance(heidelberg));
+		assertThat(locations.get(1), nullValue());
+		assertThat(locations.get(2).gazetteerEntry, sameInstance(paris));
+		assertThat(locations.get(3).gazetteerEntry, sameInstance(mannheim));
+	}
+
+}
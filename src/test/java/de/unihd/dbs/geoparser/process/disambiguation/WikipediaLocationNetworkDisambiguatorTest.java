@@ -0,0 +1,104 @@
+package de.unihd.dbs.geoparser.process.disambiguation;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.util.WikipediaLocationNetwork;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class WikipediaLocationNetworkDisambiguatorTest {
+
+	private static Place buildPlace(final long id) {
+		final Place place = new Place() {
+			{
+				setId(id);
+			}
+		};
+		place.addFootprint(new Footprint(new GeometryFactory().createPoint(new Coordinate(8.69, 49.41)), null, place,
+				null, null));
+		return place;
+	}
+
+	private static CoreMap buildNamedEntity(final Place... linkedPlaces) {
+		final CoreMap namedEntity = new ArrayCoreMap();
+		namedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		namedEntity.set(GeoparsingAnnotations.GazetteerEntriesAnnotation.class, Arrays.asList(linkedPlaces));
+		return namedEntity;
+	}
+
+	@Test
+	public void testRelevanceIsPropagatedFromSeeds() {
+		final Place[] places = new Place[8];
+		for (int i = 1; i < places.length; i++) {
+			places[i] = buildPlace(i);
+		}
+		// place 3 is the only connected candidate of its toponym and hence a seed; place 2 is closer to the seed than
+		// place 1, and place 5 is connected to the seed only via place 2
+		final WikipediaLocationNetwork network = new WikipediaLocationNetwork.Builder().addEdge(3, 2, 1.0f)
+				.addEdge(3, 1, 0.2f).addEdge(2, 5, 1.0f).addEdge(1, 4, 1.0f).build();
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(
+				buildNamedEntity(places[1], places[2]), buildNamedEntity(places[3]),
+				buildNamedEntity(places[4], places[5]), buildNamedEntity(places[6], places[7])), null, null);
+
+		final List<ResolvedLocation> locations = new WikipediaLocationNetworkDisambiguator(null, network)
+				.disambiguate(context);
+
+		assertThat(locations, hasSize(4));
+		assertThat(locations.get(0).gazetteerEntry, sameInstance(places[2]));
+		assertThat(locations.get(1).gazetteerEntry, sameInstance(places[3]));
+		assertThat(locations.get(2).gazetteerEntry, sameInstance(places[5]));
+		assertThat(locations.get(3).gazetteerEntry, sameInstance(places[6]));
+	}
+
+	@Test
+	public void testUnlinkedToponymBetweenLinkedToponyms() {
+		final Place[] places = new Place[4];
+		for (int i = 1; i < places.length; i++) {
+			places[i] = buildPlace(i);
+		}
+		final WikipediaLocationNetwork network = new WikipediaLocationNetwork.Builder().addEdge(1, 3, 1.0f).build();
+		final CoreMap unlinkedNamedEntity = new ArrayCoreMap();
+		unlinkedNamedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(
+				buildNamedEntity(places[1]), unlinkedNamedEntity, buildNamedEntity(places[2], places[3])), null, null);
+
+		final List<ResolvedLocation> locations = new WikipediaLocationNetworkDisambiguator(null, network)
+				.disambiguate(context);
+
+		assertThat(locations, hasSize(3));
+		assertThat(locations.get(0).gazetteerEntry, sameInstance(places[1]));
+		assertThat(locations.get(1), nullValue());
+		assertThat(locations.get(2).gazetteerEntry, sameInstance(places[3]));
+	}
+
+	@Test
+	public void testNoLinkedToponyms() {
+		final CoreMap unlinkedNamedEntity = new ArrayCoreMap();
+		unlinkedNamedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		final DisambiguationContext context = new DisambiguationContext(
+				Arrays.asList(unlinkedNamedEntity, unlinkedNamedEntity), null, null);
+
+		final List<ResolvedLocation> locations = new WikipediaLocationNetworkDisambiguator(null,
+				new WikipediaLocationNetwork.Builder().build()).disambiguate(context);
+
+		assertThat(locations, equalTo(Collections.nCopies(2, null)));
+	}
+
+}
@@ -0,0 +1,69 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.disambiguation.HighestAdminLevelDisambiguator;
+import de.unihd.dbs.geoparser.process.util.AdminLevelCache;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class AdminLevelFeatureTest {
+
+	private static PlaceType buildType(final String name, final PlaceType parentType) {
+		return new PlaceType(name, null, null, parentType, null);
+	}
+
+	private static Place buildPlace(final PlaceType... types) {
+		final Place place = new Place();
+		for (final PlaceType type : types) {
+			new PlaceTypeAssignment(type, place, null, null);
+		}
+		return place;
+	}
+
+	private static CoreMap buildLocation(final List<Place> linkedPlaces) {
+		final CoreMap namedEntity = new ArrayCoreMap();
+		namedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		namedEntity.set(GeoparsingAnnotations.GazetteerEntriesAnnotation.class, linkedPlaces);
+		return namedEntity;
+	}
+
+	@Test
+	public void testPrefersSameCandidateAsHighestAdminLevelDisambiguator() {
+		final PlaceType root = buildType("admin", null);
+		final PlaceType admin1 = buildType("admin1", root);
+		final PlaceType admin2 = buildType("admin2", admin1);
+		final PlaceType other = buildType("other", null);
+		final AdminLevelCache adminLevels = new AdminLevelCache(root);
+		final List<Place> candidates = Arrays.asList(buildPlace(other), buildPlace(admin1), buildPlace(admin2));
+		final DisambiguationContext context = new DisambiguationContext(
+				Collections.singletonList(buildLocation(candidates)), null, null);
+		final CandidateMatrix matrix = CandidateMatrix.of(context);
+		final double[] values = new double[matrix.size()];
+
+		new AdminLevelFeature(adminLevels).compute(matrix, context, values);
+
+		// more specific administrative divisions have higher values, places outside the hierarchy the lowest one
+		assertThat(values[0], equalTo(0.0));
+		assertThat(values[1], lessThan(values[2]));
+		assertThat(values[0], lessThan(values[1]));
+		assertThat(HighestAdminLevelDisambiguator.getPlaceWithHighestAdminLevel(candidates, adminLevels),
+				sameInstance(candidates.get(2)));
+	}
+
+}
@@ -0,0 +1,106 @@
+package de.unihd.dbs.geoparser.process.disambiguation.scoring;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class LinearScoringDisambiguatorTest {
+
+	/**
+	 * Returns fixed values per candidate row and counts its invocations.
+	 */
+	private static class FixedFeature implements CandidateFeature {
+		private final double[] fixedValues;
+		private int calls;
+
+		private FixedFeature(final double... fixedValues) {
+			this.fixedValues = fixedValues;
+		}
+
+		@Override
+		public String getName() {
+			return "fixed";
+		}
+
+		@Override
+		public void compute(final CandidateMatrix matrix, final DisambiguationContext context,
+				final double[] values) {
+			calls++;
+			System.arraycopy(fixedValues, 0, values, 0, matrix.size());
+		}
+	}
+
+	private static Place buildPlace() {
+		final Place place = new Place();
+		place.addFootprint(new Footprint(new GeometryFactory().createPoint(new Coordinate(8.69, 49.41)), null, place,
+				null, null));
+		return place;
+	}
+
+	private static CoreMap buildNamedEntity(final String tag, final List<Place> linkedPlaces) {
+		final CoreMap namedEntity = new ArrayCoreMap();
+		namedEntity.set(CoreAnnotations.NamedEntityTagAnnotation.class, tag);
+		namedEntity.set(GeoparsingAnnotations.GazetteerEntriesAnnotation.class, linkedPlaces);
+		return namedEntity;
+	}
+
+	@Test
+	public void testWeightedFeaturesSelectBestCandidate() {
+		final Place[] places = new Place[] { buildPlace(), buildPlace(), buildPlace(), buildPlace() };
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(
+				buildNamedEntity(NamedEntityType.LOCATION.name, Arrays.asList(places[0], places[1])),
+				buildNamedEntity(NamedEntityType.PERSON.name, Arrays.asList(places[0])),
+				buildNamedEntity(NamedEntityType.LOCATION.name, Arrays.asList(places[2], places[3]))), null, null);
+
+		// the first feature prefers the first candidates, the second one (weighted higher) the second candidates
+		final FixedFeature first = new FixedFeature(1, 0, Double.NaN, 0);
+		final FixedFeature second = new FixedFeature(0, 1, 0, 1);
+		final Map<CandidateFeature, Double> weights = new LinkedHashMap<>();
+		weights.put(first, 1.0);
+		weights.put(second, 2.0);
+		final List<ResolvedLocation> locations = new LinearScoringDisambiguator(weights).disambiguate(context);
+
+		assertThat(locations, hasSize(3));
+		assertThat(locations.get(0).gazetteerEntry, sameInstance(places[1]));
+		assertThat(locations.get(1), nullValue());
+		assertThat(locations.get(2).gazetteerEntry, sameInstance(places[3]));
+	}
+
+	@Test
+	public void testFeaturesAreComputedOncePerContext() {
+		final Place[] places = new Place[] { buildPlace(), buildPlace() };
+		final DisambiguationContext context = new DisambiguationContext(Arrays.asList(
+				buildNamedEntity(NamedEntityType.LOCATION.name, Arrays.asList(places[0], places[1]))), null, null);
+		final FixedFeature feature = new FixedFeature(0, 1);
+		final Map<CandidateFeature, Double> weights = new LinkedHashMap<>();
+		weights.put(feature, 1.0);
+
+		new LinearScoringDisambiguator(weights).disambiguate(context);
+		final double[] scores = new LinearScorer(weights).score(context);
+
+		assertThat(feature.calls, equalTo(1));
+		assertThat(scores[0], closeTo(0, 1e-9));
+		assertThat(scores[1], closeTo(1, 1e-9));
+	}
+
+}
@@ -0,0 +1,79 @@
+package de.unihd.dbs.geoparser.process.linking;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.disambiguation.DisambiguationContext;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.CandidateFeature;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.CandidateMatrix;
+import de.unihd.dbs.geoparser.process.disambiguation.scoring.LinearScorer;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class CandidatePruningAnnotatorTest {
+
+	private static final CandidateFeature ROW_FEATURE = new CandidateFeature() {
+		// scores 0, 3, 2, 1, 0, 3, 2, 1, ...
+		@Override
+		public String getName() {
+			return "row";
+		}
+
+		@Override
+		public void compute(final CandidateMatrix matrix, final DisambiguationContext context,
+				final double[] values) {
+			for (int row = 0; row < matrix.size(); row++) {
+				values[row] = (4 - row % 4) % 4;
+			}
+		}
+	};
+
+	private final Place[] places = new Place[] { new Place(), new Place(), new Place(), new Place() };
+
+	private Annotation buildDocument() {
+		final CoreMap mention = new ArrayCoreMap();
+		mention.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		mention.set(GazetteerEntriesAnnotation.class, Arrays.asList(places));
+		final CoreMap sentence = new ArrayCoreMap();
+		sentence.set(CoreAnnotations.MentionsAnnotation.class, Collections.singletonList(mention));
+		final Annotation document = new Annotation("");
+		document.set(CoreAnnotations.SentencesAnnotation.class, Collections.singletonList(sentence));
+		return document;
+	}
+
+	private static List<Place> getCandidates(final Annotation document) {
+		return document.get(CoreAnnotations.SentencesAnnotation.class).get(0)
+				.get(CoreAnnotations.MentionsAnnotation.class).get(0).get(GazetteerEntriesAnnotation.class);
+	}
+
+	@Test
+	public void testMaxCandidates() {
+		final Annotation document = buildDocument();
+		new CandidatePruningAnnotator(new LinearScorer(Collections.singletonMap(ROW_FEATURE, 1.0)), 2, 0)
+				.annotate(document);
+
+		assertThat(getCandidates(document), contains(places[1], places[2]));
+	}
+
+	@Test
+	public void testMinRelativeScore() {
+		final Annotation document = buildDocument();
+		new CandidatePruningAnnotator(new LinearScorer(Collections.singletonMap(ROW_FEATURE, 1.0)), 10, 0.5)
+				.annotate(document);
+
+		assertThat(getCandidates(document), contains(places[1], places[2]));
+	}
+
+}
@@ -77,6 +77,48 @@ public class GazetteerExactToponymLinkerTest {
 				equalTo(expectedLinkedToponymNames));
 	}
 
+	@Test
+	public void testReuseExistingCandidates() {
+		assertReusedCandidatesEqualLookup(null);
+	}
+
+	@Test
+	public void testReuseExistingCandidatesWithPlaceTypeFilter() {
+		final Set<PlaceType> placeTypes = new HashSet<>(
+				Arrays.asList((PlaceType) gazetteer.getType(PlaceTypes.POLITICAL_ENTITY.typeName)));
+		assertReusedCandidatesEqualLookup(new PlaceTypePlaceFilter(placeTypes, false));
+	}
+
+	/**
+	 * Link toponyms recognized by the (case insensitive) gazetteer lookup with and without reusing the recognized
+	 * candidates and assert that the linked places are the same.
+	 */
+	private static void assertReusedCandidatesEqualLookup(final PlaceTypePlaceFilter placeTypeFilter) {
+		final String documentText = "My name is Ludwig, I was born in Munich and studied in Germany and in paris.";
+		final Document lookupDocument = new Document(documentText);
+		final Document reuseDocument = new Document(documentText);
+		final GazetteerExactToponymLinker lookupLinker = new GazetteerExactToponymLinker(gazetteer, 0,
+				placeTypeFilter);
+		final GazetteerExactToponymLinker reuseLinker = new GazetteerExactToponymLinker(gazetteer, 0, placeTypeFilter);
+		reuseLinker.setReuseExistingCandidates(true);
+
+		final AnnotationPipeline recognitionPipeline = GeoparsingPipelineFactory
+				.buildGazetteerLookupRecognizerPipeline(config, gazetteer);
+		recognitionPipeline.annotate(lookupDocument);
+		recognitionPipeline.annotate(reuseDocument);
+		new ToponymLinkingAnnotator(lookupLinker, true).annotate(lookupDocument);
+		new ToponymLinkingAnnotator(reuseLinker, true).annotate(reuseDocument);
+
+		final List<LinkedToponym> expectedLinkedToponyms = GeoparserUtil.getLinkedToponyms(lookupDocument);
+		final List<LinkedToponym> actualLinkedToponyms = GeoparserUtil.getLinkedToponyms(reuseDocument);
+		assertThat(actualLinkedToponyms.size(), equalTo(expectedLinkedToponyms.size()));
+		for (int i = 0; i < expectedLinkedToponyms.size(); i++) {
+			assertThat(actualLinkedToponyms.get(i).text, equalTo(expectedLinkedToponyms.get(i).text));
+			assertThat(new HashSet<>(actualLinkedToponyms.get(i).gazetteerEntries),
+					equalTo(new HashSet<>(expectedLinkedToponyms.get(i).gazetteerEntries)));
+		}
+	}
+
 	@Test
 	@Ignore
 	// the filtering logic should go somewhere else not in the linker itself.
@@ -0,0 +1,110 @@
+package de.unihd.dbs.geoparser.process.linking;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class ToponymLinkingAnnotatorTest {
+
+	private final Place place = new Place();
+
+	/**
+	 * Links every named entity to the same place.
+	 */
+	private final ToponymLinker linker = new ToponymLinker() {
+		@Override
+		public Set<Requirement> requires() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public List<List<Place>> link(final List<CoreMap> namedEntities, final Annotation document,
+				final CoreMap sentence) {
+			return namedEntities.stream().map(namedEntity -> Collections.singletonList(place))
+					.collect(Collectors.toList());
+		}
+	};
+
+	private static Annotation buildDocument(final CoreMap mention) {
+		final CoreMap sentenceWithoutMentions = new ArrayCoreMap();
+		final CoreMap sentence = new ArrayCoreMap();
+		sentence.set(CoreAnnotations.MentionsAnnotation.class, Collections.singletonList(mention));
+		final Annotation document = new Annotation("");
+		document.set(CoreAnnotations.SentencesAnnotation.class, Arrays.asList(sentenceWithoutMentions, sentence));
+		return document;
+	}
+
+	@Test
+	public void testSentencesWithoutMentionsPerSentence() {
+		final CoreMap mention = new ArrayCoreMap();
+
+		new ToponymLinkingAnnotator(linker, false).annotate(buildDocument(mention));
+
+		assertThat(mention.get(GazetteerEntriesAnnotation.class), contains(place));
+	}
+
+	@Test
+	public void testSentencesWithoutMentionsPerDocument() {
+		final CoreMap mention = new ArrayCoreMap();
+
+		new ToponymLinkingAnnotator(linker, true).annotate(buildDocument(mention));
+
+		assertThat(mention.get(GazetteerEntriesAnnotation.class), contains(place));
+	}
+
+	@Test
+	public void testUnlinkedMentionsKeepExistingCandidates() {
+		final Place existingPlace = new Place();
+		final CoreMap mention = new ArrayCoreMap();
+		mention.set(GazetteerEntriesAnnotation.class, Collections.singletonList(existingPlace));
+		final CoreMap mentionWithoutCandidates = new ArrayCoreMap();
+		final CoreMap sentence = new ArrayCoreMap();
+		sentence.set(CoreAnnotations.MentionsAnnotation.class, Arrays.asList(mention, mentionWithoutCandidates));
+		final Annotation document = new Annotation("");
+		document.set(CoreAnnotations.SentencesAnnotation.class, Collections.singletonList(sentence));
+		final ToponymLinker unlinkingLinker = new ToponymLinker() {
+			@Override
+			public Set<Requirement> requires() {
+				return Collections.emptySet();
+			}
+
+			@Override
+			public Set<Requirement> requirementsSatisfied() {
+				return Collections.emptySet();
+			}
+
+			@Override
+			public List<List<Place>> link(final List<CoreMap> namedEntities, final Annotation document,
+					final CoreMap sentence) {
+				return Collections.nCopies(namedEntities.size(), null);
+			}
+		};
+
+		new ToponymLinkingAnnotator(unlinkingLinker).annotate(document);
+
+		assertThat(mention.get(GazetteerEntriesAnnotation.class), contains(existingPlace));
+		assertThat(mentionWithoutCandidates.has(GazetteerEntriesAnnotation.class), equalTo(false));
+	}
+
+}
@@ -0,0 +1,157 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class CachingToponymRecognizerTest {
+
+	/**
+	 * Recognizes all capitalized tokens as locations and counts its invocations.
+	 */
+	private static class CountingRecognizer extends ToponymRecognizer {
+		private int invocations = 0;
+		// gazetteer entries attached to each mention, if not null
+		private List<Place> gazetteerEntries = null;
+
+		@Override
+		public Set<Requirement> requires() {
+			return Annotator.TOKENIZE_AND_SSPLIT;
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.singleton(ToponymRecognitionAnnotator.TOPONYM_RECOGNITION_REQUIREMENT);
+		}
+
+		@Override
+		public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document,
+				final CoreMap sentence) {
+			invocations++;
+			final List<CoreMap> mentions = new ArrayList<>();
+			for (final CoreLabel token : tokens) {
+				if (Character.isUpperCase(token.word().charAt(0))) {
+					final CoreLabel mentionToken = new CoreLabel(token);
+					mentionToken.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+					final CoreMap mention = new ArrayCoreMap();
+					mention.set(CoreAnnotations.CharacterOffsetBeginAnnotation.class, token.beginPosition());
+					mention.set(CoreAnnotations.CharacterOffsetEndAnnotation.class, token.endPosition());
+					mention.set(CoreAnnotations.TokensAnnotation.class, Collections.singletonList(mentionToken));
+					mention.set(CoreAnnotations.TokenBeginAnnotation.class, token.index());
+					mention.set(CoreAnnotations.TokenEndAnnotation.class, token.index());
+					mention.set(CoreAnnotations.TextAnnotation.class, token.word());
+					mention.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+					if (gazetteerEntries != null) {
+						mention.set(GazetteerEntriesAnnotation.class, new ArrayList<>(gazetteerEntries));
+					}
+					mentions.add(mention);
+				}
+			}
+			return mentions;
+		}
+	}
+
+	private static List<CoreLabel> buildTokens(final int charOffset, final String... words) {
+		final List<CoreLabel> tokens = new ArrayList<>();
+		int position = charOffset;
+		for (int i = 0; i < words.length; i++) {
+			final CoreLabel token = new CoreLabel();
+			token.setWord(words[i]);
+			token.setValue(words[i]);
+			token.setAfter(" ");
+			token.setIndex(i + 1);
+			token.setBeginPosition(position);
+			token.setEndPosition(position + words[i].length());
+			position += words[i].length() + 1;
+			tokens.add(token);
+		}
+		return tokens;
+	}
+
+	@Test
+	public void testRepeatedSentenceIsServedFromCache() {
+		final CountingRecognizer recognizer = new CountingRecognizer();
+		final CachingToponymRecognizer cachingRecognizer = new CachingToponymRecognizer(recognizer, 10);
+
+		final List<CoreMap> firstMentions = cachingRecognizer.recognize(buildTokens(0, "I", "live", "in", "Berlin"));
+		final List<CoreMap> secondMentions = cachingRecognizer
+				.recognize(buildTokens(100, "I", "live", "in", "Berlin"));
+
+		assertThat(recognizer.invocations, equalTo(1));
+		assertThat(cachingRecognizer.getCache().getHitCount(), equalTo(1L));
+		assertThat(secondMentions, hasSize(firstMentions.size()));
+		final CoreMap berlin = secondMentions.get(1);
+		assertThat(berlin.get(CoreAnnotations.TextAnnotation.class), equalTo("Berlin"));
+		assertThat(berlin.get(CoreAnnotations.CharacterOffsetBeginAnnotation.class), equalTo(110));
+		assertThat(berlin.get(CoreAnnotations.CharacterOffsetEndAnnotation.class), equalTo(116));
+		assertThat(berlin.get(CoreAnnotations.TokenBeginAnnotation.class), equalTo(4));
+		assertThat(berlin.get(CoreAnnotations.TokensAnnotation.class).get(0)
+				.get(CoreAnnotations.NamedEntityTagAnnotation.class), equalTo(NamedEntityType.LOCATION.name));
+	}
+
+	@Test
+	public void testDifferentSentencesAreNotMixedUp() {
+		final CountingRecognizer recognizer = new CountingRecognizer();
+		final CachingToponymRecognizer cachingRecognizer = new CachingToponymRecognizer(recognizer, 10);
+
+		cachingRecognizer.recognize(buildTokens(0, "I", "live", "in", "Berlin"));
+		final List<CoreMap> mentions = cachingRecognizer.recognize(buildTokens(0, "I", "live", "in", "Paris"));
+
+		assertThat(recognizer.invocations, equalTo(2));
+		assertThat(mentions.get(1).get(CoreAnnotations.TextAnnotation.class), equalTo("Paris"));
+	}
+
+	@Test
+	public void testCachedMentionsDoNotShareGazetteerEntries() {
+		final CountingRecognizer recognizer = new CountingRecognizer();
+		final Place place = new Place() {
+			{
+				setId(42L);
+			}
+		};
+		recognizer.gazetteerEntries = Collections.singletonList(place);
+		final CachingToponymRecognizer cachingRecognizer = new CachingToponymRecognizer(recognizer, 10);
+
+		final List<CoreMap> firstMentions = cachingRecognizer.recognize(buildTokens(0, "Berlin"));
+		final List<CoreMap> secondMentions = cachingRecognizer.recognize(buildTokens(0, "Berlin"));
+
+		// the entries of the wrapped recognizer are passed through, but places of another document are never
+		// handed out; without a gazetteer to fetch them again, cache hits carry no entries at all
+		assertThat(firstMentions.get(0).get(GazetteerEntriesAnnotation.class),
+				equalTo(Collections.singletonList(place)));
+		assertThat(recognizer.invocations, equalTo(1));
+		assertThat(secondMentions.get(0).has(GazetteerEntriesAnnotation.class), is(false));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedSentenceIsEvicted() {
+		final CountingRecognizer recognizer = new CountingRecognizer();
+		final CachingToponymRecognizer cachingRecognizer = new CachingToponymRecognizer(recognizer, 1);
+
+		cachingRecognizer.recognize(buildTokens(0, "Berlin"));
+		cachingRecognizer.recognize(buildTokens(0, "Paris"));
+		cachingRecognizer.recognize(buildTokens(0, "Berlin"));
+
+		assertThat(recognizer.invocations, equalTo(3));
+		assertThat(cachingRecognizer.getCache().size(), equalTo(1));
+	}
+
+}
@@ -0,0 +1,171 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.process.recognition.EnsembleToponymRecognizer.MergeStrategy;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.Annotator.Requirement;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class EnsembleToponymRecognizerTest {
+
+	/**
+	 * Recognizes fixed token spans (0-based, inclusive) and tags the tokens in-place.
+	 */
+	private static class FixedSpanRecognizer extends ToponymRecognizer {
+		private final int[][] spans;
+
+		private FixedSpanRecognizer(final int[]... spans) {
+			this.spans = spans;
+		}
+
+		@Override
+		public Set<Requirement> requires() {
+			return Annotator.TOKENIZE_AND_SSPLIT;
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.singleton(ToponymRecognitionAnnotator.TOPONYM_RECOGNITION_REQUIREMENT);
+		}
+
+		@Override
+		public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document,
+				final CoreMap sentence) {
+			final List<CoreMap> mentions = new ArrayList<>();
+			for (final int[] span : spans) {
+				final List<CoreLabel> mentionTokens = tokens.subList(span[0], span[1] + 1);
+				mentionTokens.forEach(token -> token.set(CoreAnnotations.NamedEntityTagAnnotation.class,
+						NamedEntityType.LOCATION.name));
+				final CoreMap mention = new ArrayCoreMap();
+				mention.set(CoreAnnotations.TokensAnnotation.class, mentionTokens);
+				mention.set(CoreAnnotations.TextAnnotation.class,
+						mentionTokens.stream().map(CoreLabel::word).collect(Collectors.joining(" ")));
+				mentions.add(mention);
+			}
+			return mentions;
+		}
+	}
+
+	private static List<CoreLabel> buildTokens(final String... words) {
+		final List<CoreLabel> tokens = new ArrayList<>();
+		for (int i = 0; i < words.length; i++) {
+			final CoreLabel token = new CoreLabel();
+			token.setWord(words[i]);
+			token.setValue(words[i]);
+			token.setIndex(i + 1);
+			tokens.add(token);
+		}
+		return tokens;
+	}
+
+	private static List<String> getTexts(final List<CoreMap> mentions) {
+		return mentions.stream().map(mention -> mention.get(CoreAnnotations.TextAnnotation.class))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Recognizes nothing, but records the thread it was called from.
+	 */
+	private static class ThreadRecordingRecognizer extends ToponymRecognizer {
+		private final boolean threadSafe;
+		private Thread callingThread;
+
+		private ThreadRecordingRecognizer(final boolean threadSafe) {
+			this.threadSafe = threadSafe;
+		}
+
+		@Override
+		public boolean isThreadSafe() {
+			return threadSafe;
+		}
+
+		@Override
+		public Set<Requirement> requires() {
+			return Annotator.TOKENIZE_AND_SSPLIT;
+		}
+
+		@Override
+		public Set<Requirement> requirementsSatisfied() {
+			return Collections.singleton(ToponymRecognitionAnnotator.TOPONYM_RECOGNITION_REQUIREMENT);
+		}
+
+		@Override
+		public List<CoreMap> recognize(final List<CoreLabel> tokens, final Annotation document,
+				final CoreMap sentence) {
+			callingThread = Thread.currentThread();
+			return Collections.emptyList();
+		}
+	}
+
+	@Test
+	public void testOnlyThreadSafeRecognizersRunOnWorkerThreads() {
+		final ThreadRecordingRecognizer threadSafeRecognizer = new ThreadRecordingRecognizer(true);
+		final ThreadRecordingRecognizer otherThreadSafeRecognizer = new ThreadRecordingRecognizer(true);
+		final ThreadRecordingRecognizer unsafeRecognizer = new ThreadRecordingRecognizer(false);
+		try (final EnsembleToponymRecognizer recognizer = new EnsembleToponymRecognizer(
+				Arrays.asList(threadSafeRecognizer, unsafeRecognizer, otherThreadSafeRecognizer))) {
+			recognizer.recognize(buildTokens("Paris"));
+
+			assertThat(unsafeRecognizer.callingThread, sameInstance(Thread.currentThread()));
+			assertThat(threadSafeRecognizer.callingThread, not(sameInstance(Thread.currentThread())));
+			assertThat(otherThreadSafeRecognizer.callingThread, not(sameInstance(Thread.currentThread())));
+			assertThat(recognizer.isThreadSafe(), is(false));
+		}
+	}
+
+	@Test
+	public void testPriorityMerge() {
+		final List<CoreLabel> tokens = buildTokens("From", "New", "York", "to", "Paris", "and", "Rome");
+		try (final EnsembleToponymRecognizer recognizer = new EnsembleToponymRecognizer(Arrays.asList(
+				new FixedSpanRecognizer(new int[] { 2, 2 }), new FixedSpanRecognizer(new int[] { 1, 2 },
+						new int[] { 4, 4 }), new FixedSpanRecognizer(new int[] { 6, 6 })))) {
+			final List<CoreMap> mentions = recognizer.recognize(tokens);
+
+			assertThat(getTexts(mentions), contains("York", "Paris", "Rome"));
+		}
+	}
+
+	@Test
+	public void testVotingMerge() {
+		final List<CoreLabel> tokens = buildTokens("From", "New", "York", "to", "Paris", "and", "Rome");
+		try (final EnsembleToponymRecognizer recognizer = new EnsembleToponymRecognizer(Arrays.asList(
+				new FixedSpanRecognizer(new int[] { 2, 2 }), new FixedSpanRecognizer(new int[] { 1, 2 },
+						new int[] { 4, 4 }), new FixedSpanRecognizer(new int[] { 1, 2 }, new int[] { 6, 6 })),
+				MergeStrategy.VOTING, 2)) {
+			final List<CoreMap> mentions = recognizer.recognize(tokens);
+
+			assertThat(getTexts(mentions), contains("New York"));
+		}
+	}
+
+	@Test
+	public void testTokensAreNotAnnotatedInPlace() {
+		final List<CoreLabel> tokens = buildTokens("Paris", "and", "Rome");
+		try (final EnsembleToponymRecognizer recognizer = new EnsembleToponymRecognizer(
+				Arrays.asList(new FixedSpanRecognizer(new int[] { 0, 0 }), new FixedSpanRecognizer(new int[] { 2, 2 })),
+				MergeStrategy.VOTING, 2)) {
+			final List<CoreMap> mentions = recognizer.recognize(tokens);
+
+			assertThat(mentions, empty());
+			tokens.forEach(token -> assertThat(token.get(CoreAnnotations.NamedEntityTagAnnotation.class), nullValue()));
+		}
+	}
+
+}
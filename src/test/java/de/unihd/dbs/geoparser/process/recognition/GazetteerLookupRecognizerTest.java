@@ -34,6 +34,7 @@ public class GazetteerLookupRecognizerTest {
 	private static GazetteerPersistenceManager gpm;
 	private static Gazetteer gazetteer;
 	private static AnnotationPipeline pipeline;
+	private static AnnotationPipeline orthographicPipeline;
 
 	private static void printPOSTags(final Document document) {
 		if (VERBOSE) {
@@ -59,6 +60,8 @@ public class GazetteerLookupRecognizerTest {
 						config.getConfigStringByLabel(WORKING_GAZETTEER_PERSISTENCE_UNIT_DB_CONNECTION_INFO_LABEL)));
 		gazetteer = new Gazetteer(gpm.getEntityManager());
 		pipeline = GeoparsingPipelineFactory.buildGazetteerLookupRecognizerPipeline(config, gazetteer);
+		orthographicPipeline = GeoparsingPipelineFactory.buildOrthographicGazetteerLookupRecognizerPipeline(config,
+				gazetteer);
 	}
 
 	@AfterClass
@@ -171,4 +174,44 @@ public class GazetteerLookupRecognizerTest {
 		assertThat(actualNamedEntities, equalTo(expectedNamedEntities));
 	}
 
+	@Test
+	public void testRecognizeOrthographicCandidates() {
+		// @formatter:off
+		//                           0         10        20        30        40        50        60
+		//                           0123456789012345678901234567890123456789012345678901234567890123456789
+		// @formatter:on
+		final String documentText = "My name is Ludwig, I was born in Munich and studied in Germany.";
+		final Document document = new Document(documentText);
+		final List<NamedEntity> expectedNamedEntities = Arrays.asList(
+				new NamedEntity("Ludwig", 11, 17, NamedEntityType.LOCATION, null),
+				new NamedEntity("Munich", 33, 39, NamedEntityType.LOCATION, null),
+				new NamedEntity("Germany", 55, 62, NamedEntityType.LOCATION, null));
+
+		orthographicPipeline.annotate(document);
+
+		final List<NamedEntity> actualNamedEntities = GeoparserUtil.getNamedEntities(document);
+		printNEs(actualNamedEntities);
+
+		assertThat(actualNamedEntities, equalTo(expectedNamedEntities));
+	}
+
+	@Test
+	public void testRecognizeOrthographicMultiNameEntitiesWithOf() {
+		// @formatter:off
+		//      					 0         10        20        30        40        50        60
+		//                           0123456789012345678901234567890123456789012345678901234567890123456789
+		// @formatter:on
+		final String documentText = "The United States of America!";
+		final Document document = new Document(documentText);
+		final List<NamedEntity> expectedNamedEntities = Arrays
+				.asList(new NamedEntity("United States of America", 4, 28, NamedEntityType.LOCATION, null));
+
+		orthographicPipeline.annotate(document);
+
+		final List<NamedEntity> actualNamedEntities = GeoparserUtil.getNamedEntities(document);
+		printNEs(actualNamedEntities);
+
+		assertThat(actualNamedEntities, equalTo(expectedNamedEntities));
+	}
+
 }
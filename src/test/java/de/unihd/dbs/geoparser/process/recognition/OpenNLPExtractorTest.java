@@ -96,4 +96,29 @@ public class OpenNLPExtractorTest {
 		assertThat(actualNamedEntities, equalTo(expectedNamedEntities));
 	}
 
+	@Test
+	public void testRecognizeIsConsistentAcrossDocuments() {
+		final String documentText = "I was born in New York, a city in the United States of America.";
+		final Document firstDocument = new Document(documentText);
+		final Document secondDocument = new Document(documentText);
+
+		pipeline.annotate(firstDocument);
+		pipeline.annotate(secondDocument);
+
+		assertThat(GeoparserUtil.getNamedEntities(secondDocument),
+				equalTo(GeoparserUtil.getNamedEntities(firstDocument)));
+	}
+
+	@Test
+	public void testRecognizeIsConsistentWhenReannotated() {
+		final String documentText = "I was born in New York. New York is a city in the United States of America.";
+		final Document document = new Document(documentText);
+
+		pipeline.annotate(document);
+		final List<NamedEntity> firstNamedEntities = GeoparserUtil.getNamedEntities(document);
+		pipeline.annotate(document);
+
+		assertThat(GeoparserUtil.getNamedEntities(document), equalTo(firstNamedEntities));
+	}
+
 }
@@ -0,0 +1,53 @@
+package de.unihd.dbs.geoparser.process.recognition;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.util.NLPModelRegistry;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+public class SharedPOSTaggerAnnotatorTest {
+
+	@Test
+	public void testFailedLoadReleasesModel() {
+		final String modelPath = "data/does_not_exist.tagger";
+		try {
+			SharedPOSTaggerAnnotator.create(modelPath);
+			fail("Expected the model loading to fail");
+		}
+		catch (final IOException e) {
+			assertFalse(NLPModelRegistry.getInstance().isRegistered("stanford.pos:" + modelPath));
+		}
+	}
+
+	@Test
+	public void testModelIsLoadedLazilyAndReleasedOnClose() throws IOException {
+		final Path modelFile = Files.createTempFile("corrupt", ".tagger");
+		final String modelKey = "stanford.pos:" + modelFile.toString();
+		try {
+			// the corrupt model file is not read before the first document is annotated
+			final SharedPOSTaggerAnnotator annotator = SharedPOSTaggerAnnotator.create(modelFile.toString());
+			assertTrue(NLPModelRegistry.getInstance().isRegistered(modelKey));
+			try {
+				annotator.annotate(new Annotation("Heidelberg"));
+				fail("Expected the model loading to fail");
+			}
+			catch (final RuntimeException e) {
+				assertTrue(e.getCause() instanceof IOException);
+			}
+
+			annotator.close();
+			assertFalse(NLPModelRegistry.getInstance().isRegistered(modelKey));
+		}
+		finally {
+			Files.delete(modelFile);
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package de.unihd.dbs.geoparser.process.spatialinference;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.GazetteerEntriesAnnotation;
+import de.unihd.dbs.geoparser.core.GeoparsingAnnotations.ResolvedLocationAnnotation;
+import de.unihd.dbs.geoparser.core.NamedEntityType;
+import de.unihd.dbs.geoparser.core.ResolvedLocation;
+import de.unihd.dbs.geoparser.gazetteer.models.Footprint;
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.process.util.AdminContainmentIndex;
+
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+public class ContainmentSpatialInferenceTest {
+
+	private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+	private static Geometry buildPoint(final double longitude, final double latitude) {
+		return geometryFactory.createPoint(new Coordinate(longitude, latitude));
+	}
+
+	private static Place buildPlace(final long id) {
+		final Place place = new Place() {
+			{
+				setId(id);
+			}
+		};
+		place.addFootprint(new Footprint(buildPoint(8.69, 49.41), null, place, null, null));
+		return place;
+	}
+
+	private static CoreMap buildLocation(final List<Place> linkedPlaces, final Place resolvedPlace) {
+		final CoreMap mention = new ArrayCoreMap();
+		mention.set(CoreAnnotations.NamedEntityTagAnnotation.class, NamedEntityType.LOCATION.name);
+		mention.set(GazetteerEntriesAnnotation.class, linkedPlaces);
+		if (resolvedPlace != null) {
+			mention.set(ResolvedLocationAnnotation.class, new ResolvedLocation(resolvedPlace));
+		}
+		return mention;
+	}
+
+	@Test
+	public void testInferenceFromAdminContainment() {
+		// Heidelberg (1) and Mannheim (2) are in different districts (10, 11) of the same state (20) and country (30)
+		final Geometry district = buildPoint(8.8, 49.4);
+		final Geometry state = buildPoint(9.0, 48.5);
+		final AdminContainmentIndex index = new AdminContainmentIndex.Builder().addParent(1, 10).addParent(2, 11)
+				.addParent(10, 20).addParent(11, 20).addParent(20, 30).addParent(40, 30).addParent(5, 40)
+				.addParent(6, 10).addFootprint(10, district).addFootprint(11, buildPoint(8.5, 49.5))
+				.addFootprint(20, state).addFootprint(30, buildPoint(10.0, 51.0)).build();
+		assertThat(index.getAncestors(1), contains(10L, 20L, 30L));
+
+		final Place heidelberg = buildPlace(1);
+		final Place mannheim = buildPlace(2);
+		final Place otherState = buildPlace(5);
+		final Place sameDistrict = buildPlace(6);
+		final List<CoreMap> mentions = Arrays.asList(
+				buildLocation(Collections.singletonList(heidelberg), heidelberg),
+				buildLocation(Collections.singletonList(mannheim), mannheim),
+				buildLocation(Arrays.asList(otherState, sameDistrict), null), buildLocation(null, null));
+		final CoreMap sentence = new ArrayCoreMap();
+		sentence.set(CoreAnnotations.MentionsAnnotation.class, mentions);
+		final Annotation document = new Annotation("");
+		document.set(CoreAnnotations.SentencesAnnotation.class, Collections.singletonList(sentence));
+
+		new SpatialInferenceAnnotator(new ContainmentSpatialInference(index)).annotate(document);
+
+		assertThat(mentions.get(2).get(ResolvedLocationAnnotation.class).gazetteerEntry, sameInstance(sameDistrict));
+		assertThat(mentions.get(3).get(ResolvedLocationAnnotation.class).gazetteerEntry, nullValue());
+		assertThat(mentions.get(3).get(ResolvedLocationAnnotation.class).location, sameInstance(state));
+	}
+
+	@Test
+	public void testInferredLocationsAreNoEvidence() {
+		// Heidelberg (1) is resolved; the toponym of the first sentence is inferred to 6 in district 13, which would
+		// favor 7 over 8 for the toponym of the second sentence if inferred locations were used as evidence
+		final AdminContainmentIndex index = new AdminContainmentIndex.Builder().addParent(1, 10).addParent(6, 13)
+				.addParent(7, 13).addParent(8, 10).addParent(10, 20).addParent(13, 20).build();
+
+		for (final boolean documentScoped : new boolean[] { false, true }) {
+			final Place heidelberg = buildPlace(1);
+			final Place place6 = buildPlace(6);
+			final Place place8 = buildPlace(8);
+			final CoreMap first = buildLocation(Collections.singletonList(place6), null);
+			final CoreMap second = buildLocation(Arrays.asList(buildPlace(7), place8), null);
+			final CoreMap sentence1 = new ArrayCoreMap();
+			sentence1.set(CoreAnnotations.MentionsAnnotation.class,
+					Arrays.asList(buildLocation(Collections.singletonList(heidelberg), heidelberg), first));
+			final CoreMap sentence2 = new ArrayCoreMap();
+			sentence2.set(CoreAnnotations.MentionsAnnotation.class, Collections.singletonList(second));
+			final Annotation document = new Annotation("");
+			document.set(CoreAnnotations.SentencesAnnotation.class,
+					Arrays.asList(sentence1, new ArrayCoreMap(), sentence2));
+
+			new SpatialInferenceAnnotator(new ContainmentSpatialInference(index), documentScoped).annotate(document);
+
+			assertThat(first.get(ResolvedLocationAnnotation.class).gazetteerEntry, sameInstance(place6));
+			assertThat(second.get(ResolvedLocationAnnotation.class).gazetteerEntry, sameInstance(place8));
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.gazetteer.models.Place;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceType;
+import de.unihd.dbs.geoparser.gazetteer.models.PlaceTypeAssignment;
+
+public class AdminLevelCacheTest {
+
+	private static PlaceType buildType(final String name, final PlaceType parentType) {
+		return new PlaceType(name, null, null, parentType, null);
+	}
+
+	private static Place buildPlace(final PlaceType... types) {
+		final Place place = new Place();
+		for (final PlaceType type : types) {
+			new PlaceTypeAssignment(type, place, null, null);
+		}
+		return place;
+	}
+
+	@Test
+	public void testAdminLevels() {
+		final PlaceType root = buildType("admin", null);
+		final PlaceType admin1 = buildType("admin1", root);
+		final PlaceType admin2 = buildType("admin2", admin1);
+		final PlaceType other = buildType("other", null);
+		final AdminLevelCache cache = new AdminLevelCache(root);
+
+		assertThat(cache.getAdminLevel(root), equalTo(AdminLevelCache.NO_ADMIN_LEVEL));
+		assertThat(cache.getAdminLevel(admin1), equalTo(1));
+		assertThat(cache.getAdminLevel(admin2), equalTo(2));
+		assertThat(cache.getAdminLevel(other), equalTo(AdminLevelCache.NO_ADMIN_LEVEL));
+
+		assertThat(cache.getAdminLevel(buildPlace(admin1)), equalTo(1));
+		assertThat(cache.getAdminLevel(buildPlace(admin1, admin2, other)), equalTo(2));
+		assertThat(cache.getAdminLevel(buildPlace(other)), equalTo(AdminLevelCache.NO_ADMIN_LEVEL));
+		assertThat(cache.getAdminLevel(buildPlace()), equalTo(AdminLevelCache.NO_ADMIN_LEVEL));
+	}
+
+}
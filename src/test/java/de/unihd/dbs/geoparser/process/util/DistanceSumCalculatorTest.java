@@ -0,0 +1,73 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DistanceSumCalculatorTest {
+
+	private static double[] calculateNaiveSums(final double[] latitudes, final double[] longitudes) {
+		final double[] sums = new double[latitudes.length];
+		for (int i = 0; i < latitudes.length; i++) {
+			for (int j = 0; j < latitudes.length; j++) {
+				if (i != j) {
+					sums[i] += Haversine.distance(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+				}
+			}
+		}
+		return sums;
+	}
+
+	private static double[][] buildRandomPoints(final int count) {
+		final Random random = new Random(42);
+		final double[][] points = new double[2][count];
+		for (int i = 0; i < count; i++) {
+			points[0][i] = random.nextDouble() * 180 - 90;
+			points[1][i] = random.nextDouble() * 360 - 180;
+		}
+		return points;
+	}
+
+	@Test
+	public void testExactSums() {
+		final double[] latitudes = { 49.41, 48.14, 52.52 };
+		final double[] longitudes = { 8.69, 11.58, 13.40 };
+		final double[] expectedSums = calculateNaiveSums(latitudes, longitudes);
+
+		final double[] sums = new DistanceSumCalculator().calculateDistanceSums(latitudes, longitudes, 3);
+
+		for (int i = 0; i < expectedSums.length; i++) {
+			assertThat(sums[i], closeTo(expectedSums[i], 1e-6));
+		}
+	}
+
+	@Test
+	public void testParallelSumsEqualSequentialSums() {
+		final double[][] points = buildRandomPoints(1000);
+		final double[] expectedSums = calculateNaiveSums(points[0], points[1]);
+
+		final double[] sums = new DistanceSumCalculator(10, Integer.MAX_VALUE, 1.0).calculateDistanceSums(points[0],
+				points[1], 1000);
+
+		for (int i = 0; i < expectedSums.length; i++) {
+			assertThat(sums[i], closeTo(expectedSums[i], 1e-6));
+		}
+	}
+
+	@Test
+	public void testApproximatedSumsAreClose() {
+		final double[][] points = buildRandomPoints(2000);
+		final double[] expectedSums = calculateNaiveSums(points[0], points[1]);
+
+		final double[] sums = new DistanceSumCalculator(10, 100, 1.0).calculateDistanceSums(points[0], points[1],
+				2000);
+
+		for (int i = 0; i < expectedSums.length; i++) {
+			assertThat(sums[i], closeTo(expectedSums[i], expectedSums[i] * 0.01));
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HaversineTest {
+
+	@Test
+	public void testDistance() {
+		assertThat(Haversine.distance(38.898556, -77.037852, 38.897147, -77.043934), closeTo(0.549, 1e-3));
+		assertThat(Haversine.distance(49.41, 8.69, 49.41, 8.69), closeTo(0, 1e-9));
+	}
+
+	@Test
+	public void testEquirectangularApproximation() {
+		final Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			final double latitude = random.nextDouble() * 178 - 89;
+			final double longitude = random.nextDouble() * 360 - 180;
+			final double otherLatitude = Math.max(-89, Math.min(89, latitude + random.nextDouble() * 2 - 1));
+			final double otherLongitude = longitude + random.nextDouble() * 2 - 1;
+			final Haversine.Points points = new Haversine.Points(new double[] { latitude, otherLatitude },
+					new double[] { longitude, otherLongitude }, 2);
+
+			final double exactDistance = Haversine.distance(latitude, longitude, otherLatitude, otherLongitude);
+			assertThat(points.distance(0, 1), closeTo(exactDistance, exactDistance * 5e-5));
+		}
+
+		// the approximation must not be used across the antimeridian without wrapping the longitudes
+		final Haversine.Points points = new Haversine.Points(new double[] { 0, 0 }, new double[] { 179.9, -179.9 }, 2);
+		assertThat(points.distance(0, 1), closeTo(Haversine.distance(0, 179.9, 0, -179.9), 1e-3));
+	}
+
+	@Test
+	public void testEquirectangularErrorBound() {
+		// systematically covers the whole region in which the approximation is used, including the poles, the largest
+		// allowed coordinate differences and pairs of points on both sides of the antimeridian
+		final double maxDelta = Haversine.EQUIRECTANGULAR_MAX_DEGREES;
+		for (double latitude = -90; latitude <= 90; latitude += 0.5) {
+			for (double deltaLatitude = -maxDelta; deltaLatitude <= maxDelta; deltaLatitude += maxDelta / 8) {
+				final double otherLatitude = latitude + deltaLatitude;
+				if (otherLatitude < -90 || otherLatitude > 90) {
+					continue;
+				}
+				for (double deltaLongitude = -maxDelta; deltaLongitude <= maxDelta; deltaLongitude += maxDelta / 8) {
+					for (final double longitude : new double[] { 0, 179.5, -179.5 }) {
+						double otherLongitude = longitude + deltaLongitude;
+						if (otherLongitude > 180) {
+							otherLongitude -= 360;
+						}
+						else if (otherLongitude < -180) {
+							otherLongitude += 360;
+						}
+						final Haversine.Points points = new Haversine.Points(new double[] { latitude, otherLatitude },
+								new double[] { longitude, otherLongitude }, 2);
+
+						final double exactDistance = Haversine.distance(latitude, longitude, otherLatitude,
+								otherLongitude);
+						assertThat(points.distance(0, 1), closeTo(exactDistance, exactDistance * 5e-5));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBatchDistances() {
+		final double[] latitudes = { 49.41, 48.14, Double.NaN, 52.52 };
+		final double[] longitudes = { 8.69, 11.58, Double.NaN, 13.40 };
+		final Haversine.Points points = new Haversine.Points(latitudes, longitudes, latitudes.length);
+		final double[] distances = new double[3];
+		points.distances(0, 1, 4, distances);
+
+		assertThat(distances[0], closeTo(Haversine.distance(49.41, 8.69, 48.14, 11.58), 1e-9));
+		assertThat(Double.isNaN(distances[1]), is(true));
+		assertThat(distances[2], closeTo(Haversine.distance(49.41, 8.69, 52.52, 13.40), 1e-9));
+		assertThat(points.minDistance(0, 1, 4), closeTo(distances[0], 1e-9));
+		assertThat(points.minDistance(0, 2, 3), equalTo(Double.POSITIVE_INFINITY));
+	}
+
+}
@@ -0,0 +1,102 @@
+package de.unihd.dbs.geoparser.process.util;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WikipediaLocationNetworkTest {
+
+	private static WikipediaLocationNetwork buildNetwork() {
+		return new WikipediaLocationNetwork.Builder().addEdge(10, 20, 0.5f).addEdge(30, 10, 0.25f)
+				.addEdge(20, 10, 0.125f).addEdge(40, 40, 1.0f).build();
+	}
+
+	@Test
+	public void testEdgesAreUndirectedAndMerged() {
+		final WikipediaLocationNetwork network = buildNetwork();
+
+		assertThat(network.size(), equalTo(3));
+		assertThat(network.getEdgeCount(), equalTo(2));
+		assertThat(network.getWeight(10, 20), equalTo(0.5f));
+		assertThat(network.getWeight(20, 10), equalTo(0.5f));
+		assertThat(network.getWeight(10, 30), equalTo(0.25f));
+		assertThat(network.hasEdge(20, 30), equalTo(false));
+		assertThat(network.getWeight(20, 30), equalTo(0.0f));
+		assertThat(network.contains(40), equalTo(false));
+		assertThat(network.getDegree(10), equalTo(2));
+	}
+
+	@Test
+	public void testDuplicateEdgesKeepLargestWeight() {
+		// like the single best row of the wln table, i.e., ORDER BY weight DESC LIMIT 1
+		final WikipediaLocationNetwork network = new WikipediaLocationNetwork.Builder().addEdge(1, 2, 0.25f)
+				.addEdge(2, 1, 0.75f).addEdge(1, 2, 0.5f).addEdge(1, 3, 0.5f).addEdge(1, 3, 0.5f).build();
+
+		assertThat(network.getEdgeCount(), equalTo(2));
+		assertThat(network.getWeight(1, 2), equalTo(0.75f));
+		assertThat(network.getWeight(2, 1), equalTo(0.75f));
+		assertThat(network.getWeight(1, 3), equalTo(0.5f));
+	}
+
+	@Test
+	public void testCustomWeightMergeFunction() {
+		final WikipediaLocationNetwork network = new WikipediaLocationNetwork.Builder((weight1, weight2) -> weight1
+				+ weight2).addEdge(1, 2, 0.25f).addEdge(2, 1, 0.5f).build();
+
+		assertThat(network.getWeight(1, 2), equalTo(0.75f));
+	}
+
+	@Test
+	public void testForEachNeighbor() {
+		final WikipediaLocationNetwork network = buildNetwork();
+		final List<Long> neighbors = new ArrayList<>();
+
+		network.forEachNeighbor(10, (neighborId, weight) -> neighbors.add(neighborId));
+		network.forEachNeighbor(99, (neighborId, weight) -> neighbors.add(neighborId));
+
+		assertThat(neighbors, contains(20L, 30L));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		final WikipediaLocationNetwork network = buildNetwork();
+		final Path file = Files.createTempFile("wln", ".bin");
+		try {
+			network.save(file);
+			final WikipediaLocationNetwork loadedNetwork = WikipediaLocationNetwork.load(file);
+
+			assertThat(loadedNetwork.size(), equalTo(network.size()));
+			assertThat(loadedNetwork.getEdgeCount(), equalTo(network.getEdgeCount()));
+			assertThat(loadedNetwork.getWeight(20, 10), equalTo(0.5f));
+			assertThat(loadedNetwork.getWeight(30, 10), equalTo(0.25f));
+			assertThat(loadedNetwork.getDegree(10), equalTo(2));
+			assertThat(loadedNetwork.contains(40), equalTo(false));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadTruncatedFile() throws IOException {
+		final Path file = Files.createTempFile("wln", ".bin");
+		try {
+			buildNetwork().save(file);
+			final byte[] content = Files.readAllBytes(file);
+			Files.write(file, Arrays.copyOf(content, content.length - 1));
+			WikipediaLocationNetwork.load(file);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package de.unihd.dbs.geoparser.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.unihd.dbs.geoparser.util.NLPModelRegistry.ModelHandle;
+
+public class NLPModelRegistryTest {
+
+	@Test
+	public void testModelIsLoadedLazily() throws IOException {
+		final NLPModelRegistry registry = new NLPModelRegistry();
+		final AtomicInteger loadCount = new AtomicInteger();
+		try (final ModelHandle<Object> handle = registry.acquire("model", () -> {
+			loadCount.incrementAndGet();
+			return new Object();
+		})) {
+			assertEquals(0, loadCount.get());
+			handle.get();
+			assertEquals(1, loadCount.get());
+		}
+	}
+
+	@Test
+	public void testModelIsLoadedOnlyOnce() throws IOException {
+		final NLPModelRegistry registry = new NLPModelRegistry();
+		final AtomicInteger loadCount = new AtomicInteger();
+		try (final ModelHandle<Object> handle1 = registry.acquire("model", () -> {
+			loadCount.incrementAndGet();
+			return new Object();
+		}); final ModelHandle<Object> handle2 = registry.acquire("model", () -> {
+			loadCount.incrementAndGet();
+			return new Object();
+		})) {
+			assertSame(handle1.get(), handle2.get());
+			assertEquals(1, loadCount.get());
+		}
+	}
+
+	@Test
+	public void testModelIsReleasedWhenAllHandlesAreClosed() {
+		final NLPModelRegistry registry = new NLPModelRegistry();
+		final ModelHandle<Object> handle1 = registry.acquire("model", Object::new);
+		final ModelHandle<Object> handle2 = registry.acquire("model", Object::new);
+
+		handle1.close();
+		handle1.close(); // closing twice must not release the model of the other handle
+		assertTrue(registry.isRegistered("model"));
+		handle2.close();
+		assertFalse(registry.isRegistered("model"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosedHandleCannotBeUsed() throws IOException {
+		final NLPModelRegistry registry = new NLPModelRegistry();
+		final ModelHandle<Object> handle = registry.acquire("model", Object::new);
+		handle.close();
+		handle.get();
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingOpenNLPModel() throws IOException {
+		final NLPModelRegistry registry = new NLPModelRegistry();
+		try (final ModelHandle<?> handle = registry.acquireOpenNLPNameFinderModel("not-existing-model.bin")) {
+			handle.get();
+		}
+	}
+
+}